@@ -0,0 +1,82 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson.benchmark;
+
+import com.github.jcustenborder.kafka.serialization.jackson.JacksonDeserializer;
+import com.github.jcustenborder.kafka.serialization.jackson.JacksonDeserializerConfig;
+import com.github.jcustenborder.kafka.serialization.jackson.JacksonSerializer;
+import com.github.jcustenborder.kafka.serialization.jackson.JacksonSerializerConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reflection based property access with the bytecode generated accessors installed by
+ * {@code accessor.optimization=AFTERBURNER}. The WIDE payload is where the difference should show.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessorOptimizationBenchmark {
+  @Param({"SMALL", "MEDIUM", "WIDE"})
+  public Payload payload;
+
+  @Param({"NONE", "AFTERBURNER"})
+  public String accessorOptimization;
+
+  JacksonSerializer<Object> serializer;
+  JacksonDeserializer<Object> deserializer;
+  Object message;
+  byte[] buffer;
+
+  @Setup
+  public void setup() {
+    Map<String, Object> settings = new HashMap<>();
+    settings.put(JacksonDeserializerConfig.OUTPUT_CLASS_CONFIG, this.payload.type.getName());
+    settings.put(JacksonSerializerConfig.ACCESSOR_OPTIMIZATION_CONFIG, this.accessorOptimization);
+    this.serializer = new JacksonSerializer<>();
+    this.serializer.configure(settings, false);
+    this.deserializer = new JacksonDeserializer<>();
+    this.deserializer.configure(settings, false);
+    this.message = this.payload.create();
+    this.buffer = this.serializer.serialize("benchmark", this.message);
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return this.serializer.serialize("benchmark", this.message);
+  }
+
+  @Benchmark
+  public Object deserialize() {
+    return this.deserializer.deserialize("benchmark", this.buffer);
+  }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson.benchmark;
+
+import com.github.jcustenborder.kafka.serialization.jackson.JacksonBatchDeserializer;
+import com.github.jcustenborder.kafka.serialization.jackson.JacksonDeserializer;
+import com.github.jcustenborder.kafka.serialization.jackson.JacksonDeserializerConfig;
+import com.github.jcustenborder.kafka.serialization.jackson.JacksonSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares deserializing a poll worth of records one at a time with {@link JacksonBatchDeserializer}, bound on
+ * the calling thread and split across a fork join pool.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchDeserializerBenchmark {
+  @Param({"SMALL", "MEDIUM"})
+  public Payload payload;
+
+  @Param({"20000"})
+  public int records;
+
+  @Param({"1", "4"})
+  public int parallelism;
+
+  JacksonDeserializer<Object> deserializer;
+  JacksonBatchDeserializer<Object> batchDeserializer;
+  List<byte[]> values;
+
+  @Setup
+  public void setup() {
+    Map<String, Object> settings = new HashMap<>();
+    settings.put(JacksonDeserializerConfig.OUTPUT_CLASS_CONFIG, this.payload.type.getName());
+    settings.put(JacksonDeserializerConfig.BATCH_PARALLELISM_CONFIG, Integer.toString(this.parallelism));
+    this.deserializer = new JacksonDeserializer<>();
+    this.deserializer.configure(settings, false);
+    this.batchDeserializer = new JacksonBatchDeserializer<>();
+    this.batchDeserializer.configure(settings, false);
+
+    JacksonSerializer<Object> serializer = new JacksonSerializer<>();
+    serializer.configure(settings, false);
+    this.values = new ArrayList<>(this.records);
+    for (int i = 0; i < this.records; i++) {
+      this.values.add(serializer.serialize("benchmark", this.payload.create()));
+    }
+    serializer.close();
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.deserializer.close();
+    this.batchDeserializer.close();
+  }
+
+  @Benchmark
+  public List<Object> perRecord() {
+    List<Object> result = new ArrayList<>(this.values.size());
+    for (byte[] value : this.values) {
+      result.add(this.deserializer.deserialize("benchmark", value));
+    }
+    return result;
+  }
+
+  @Benchmark
+  public List<Object> batch() {
+    return this.batchDeserializer.deserialize("benchmark", this.values);
+  }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Entry point for benchmarks.jar. Accepts the regular JMH command line options and always attaches
+ * the GC profiler so every run reports the bytes allocated per operation.
+ */
+public class Benchmarks {
+  public static void main(String... args) throws RunnerException, CommandLineOptionException, IOException {
+    CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+    if (commandLineOptions.shouldHelp()) {
+      commandLineOptions.showHelp();
+      return;
+    }
+    Options options = new OptionsBuilder()
+        .parent(commandLineOptions)
+        .addProfiler(GCProfiler.class)
+        .build();
+    Runner runner = new Runner(options);
+    if (commandLineOptions.shouldList()) {
+      runner.list();
+      return;
+    }
+    runner.run();
+  }
+}
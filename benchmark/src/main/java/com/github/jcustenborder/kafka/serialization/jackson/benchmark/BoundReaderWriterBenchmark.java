@@ -0,0 +1,84 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per record ObjectMapper calls against readers and writers that are bound to the type
+ * up front, which is what the serializer and deserializer use on the hot path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoundReaderWriterBenchmark {
+  @Param({"SMALL", "MEDIUM"})
+  public Payload payload;
+
+  ObjectMapper objectMapper;
+  ObjectReader reader;
+  ObjectWriter writer;
+  Object message;
+  byte[] buffer;
+
+  @Setup
+  public void setup() throws IOException {
+    this.objectMapper = new ObjectMapper();
+    this.reader = this.objectMapper.readerFor(this.payload.type);
+    this.writer = this.objectMapper.writerFor(this.payload.type);
+    this.message = this.payload.create();
+    this.buffer = this.objectMapper.writeValueAsBytes(this.message);
+  }
+
+  @Benchmark
+  public Object objectMapperReadValue() throws IOException {
+    return this.objectMapper.readValue(this.buffer, this.payload.type);
+  }
+
+  @Benchmark
+  public Object boundReaderReadValue() throws IOException {
+    return this.reader.readValue(this.buffer);
+  }
+
+  @Benchmark
+  public byte[] objectMapperWriteValueAsBytes() throws IOException {
+    return this.objectMapper.writeValueAsBytes(this.message);
+  }
+
+  @Benchmark
+  public byte[] boundWriterWriteValueAsBytes() throws IOException {
+    return this.writer.writeValueAsBytes(this.message);
+  }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson.benchmark;
+
+import com.github.jcustenborder.kafka.serialization.jackson.JacksonConverter;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaAndValue;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.json.JsonConverter;
+import org.apache.kafka.connect.storage.Converter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link JacksonConverter} with the JsonConverter that ships with Kafka Connect on a flat
+ * struct with many fields. {@code JSON_SCHEMAS} is the JsonConverter default, which wraps every record
+ * in a schema envelope. {@code JSON_SCHEMALESS} disables the envelope and returns maps instead of
+ * structs when reading.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverterBenchmark {
+  public enum ConverterType {
+    JSON_SCHEMAS,
+    JSON_SCHEMALESS,
+    JACKSON
+  }
+
+  @Param({"JSON_SCHEMAS", "JSON_SCHEMALESS", "JACKSON"})
+  public ConverterType converterType;
+
+  @Param({"32", "128"})
+  public int fields;
+
+  Converter converter;
+  Schema schema;
+  Struct struct;
+  byte[] buffer;
+
+  static Schema schema(int fields) {
+    final SchemaBuilder builder = SchemaBuilder.struct().name("WideRecord");
+    for (int i = 0; i < fields; i++) {
+      switch (i % 4) {
+        case 0:
+          builder.field("field" + i, Schema.INT64_SCHEMA);
+          break;
+        case 1:
+          builder.field("field" + i, Schema.STRING_SCHEMA);
+          break;
+        case 2:
+          builder.field("field" + i, Schema.FLOAT64_SCHEMA);
+          break;
+        default:
+          builder.field("field" + i, Schema.BOOLEAN_SCHEMA);
+          break;
+      }
+    }
+    return builder.build();
+  }
+
+  static Struct struct(Schema schema) {
+    final Struct result = new Struct(schema);
+    int i = 0;
+    for (org.apache.kafka.connect.data.Field field : schema.fields()) {
+      switch (field.schema().type()) {
+        case INT64:
+          result.put(field, 1514764800000L + i);
+          break;
+        case STRING:
+          result.put(field, "value-" + i);
+          break;
+        case FLOAT64:
+          result.put(field, i * 1.25D);
+          break;
+        default:
+          result.put(field, i % 2 == 0);
+          break;
+      }
+      i++;
+    }
+    return result;
+  }
+
+  @Setup
+  public void setup() {
+    final Map<String, Object> settings = new HashMap<>();
+    switch (this.converterType) {
+      case JSON_SCHEMAS:
+        this.converter = new JsonConverter();
+        settings.put("schemas.enable", "true");
+        break;
+      case JSON_SCHEMALESS:
+        this.converter = new JsonConverter();
+        settings.put("schemas.enable", "false");
+        break;
+      default:
+        this.converter = new JacksonConverter();
+        break;
+    }
+    this.converter.configure(settings, false);
+    this.schema = schema(this.fields);
+    this.struct = struct(this.schema);
+    this.buffer = this.converter.fromConnectData("benchmark", this.schema, this.struct);
+  }
+
+  @Benchmark
+  public byte[] fromConnectData() {
+    return this.converter.fromConnectData("benchmark", this.schema, this.struct);
+  }
+
+  @Benchmark
+  public SchemaAndValue toConnectData() {
+    return this.converter.toConnectData("benchmark", this.buffer);
+  }
+}
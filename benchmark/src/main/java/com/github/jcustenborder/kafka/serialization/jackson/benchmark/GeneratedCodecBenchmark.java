@@ -0,0 +1,114 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jcustenborder.kafka.serialization.jackson.JacksonCodec;
+import com.github.jcustenborder.kafka.serialization.jackson.JacksonDeserializer;
+import com.github.jcustenborder.kafka.serialization.jackson.JacksonDeserializerConfig;
+import com.github.jcustenborder.kafka.serialization.jackson.JacksonSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the databind bean serializers with the ones written by the {@link JacksonCodec} annotation
+ * processor. The annotated classes extend the payload classes without adding fields so both sides
+ * produce the same bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratedCodecBenchmark {
+  @Param({"MEDIUM", "WIDE"})
+  public Payload payload;
+
+  @Param({"false", "true"})
+  public boolean generated;
+
+  JacksonSerializer<Object> serializer;
+  JacksonDeserializer<Object> deserializer;
+  Object message;
+  byte[] buffer;
+
+  @JacksonCodec
+  public static class GeneratedMediumPayload extends Payload.MediumPayload {
+  }
+
+  @JacksonCodec
+  public static class GeneratedWidePayload extends Payload.WidePayload {
+  }
+
+  Class<?> type() {
+    if (!this.generated) {
+      return this.payload.type;
+    }
+    switch (this.payload) {
+      case MEDIUM:
+        return GeneratedMediumPayload.class;
+      case WIDE:
+        return GeneratedWidePayload.class;
+      default:
+        throw new IllegalStateException("No generated class for " + this.payload);
+    }
+  }
+
+  @Setup
+  public void setup() {
+    final Class<?> type = type();
+    Map<String, Object> settings = new HashMap<>();
+    settings.put(JacksonDeserializerConfig.OUTPUT_CLASS_CONFIG, type.getName());
+    settings.put(JacksonDeserializerConfig.GENERATED_CODECS_ENABLE_CONFIG, Boolean.toString(this.generated));
+    this.message = new ObjectMapper().convertValue(this.payload.create(), type);
+    this.serializer = new JacksonSerializer<>();
+    this.serializer.configure(settings, false);
+    this.deserializer = new JacksonDeserializer<>();
+    this.deserializer.configure(settings, false);
+    this.buffer = this.serializer.serialize("benchmark", this.message);
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.serializer.close();
+    this.deserializer.close();
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return this.serializer.serialize("benchmark", this.message);
+  }
+
+  @Benchmark
+  public Object deserialize() {
+    return this.deserializer.deserialize("benchmark", this.buffer);
+  }
+}
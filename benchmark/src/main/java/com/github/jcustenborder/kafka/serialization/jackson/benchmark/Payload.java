@@ -0,0 +1,249 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Payload shapes used by the benchmarks. Each shape is built deterministically so runs are comparable.
+ */
+public enum Payload {
+  /**
+   * A handful of scalar fields, roughly 100 bytes of JSON.
+   */
+  SMALL(SmallPayload.class) {
+    @Override
+    public Object create() {
+      return SmallPayload.create(1);
+    }
+  },
+  /**
+   * Twenty odd fields with a short list and map, roughly 1KB of JSON.
+   */
+  MEDIUM(MediumPayload.class) {
+    @Override
+    public Object create() {
+      return MediumPayload.create(1);
+    }
+  },
+  /**
+   * A few hundred medium records, roughly 250KB of JSON.
+   */
+  LARGE(LargePayload.class) {
+    @Override
+    public Object create() {
+      LargePayload result = new LargePayload();
+      result.batchId = "batch-00001";
+      result.records = new ArrayList<>(250);
+      for (int i = 0; i < 250; i++) {
+        result.records.add(MediumPayload.create(i));
+      }
+      return result;
+    }
+  },
+  /**
+   * A single flat object with 32 scalar fields. Dominated by per-property access cost.
+   */
+  WIDE(WidePayload.class) {
+    @Override
+    public Object create() {
+      return WidePayload.create(1);
+    }
+  },
+  /**
+   * Objects nested 32 levels deep.
+   */
+  NESTED(NestedPayload.class) {
+    @Override
+    public Object create() {
+      return NestedPayload.create(32);
+    }
+  };
+
+  public final Class<?> type;
+
+  Payload(Class<?> type) {
+    this.type = type;
+  }
+
+  public abstract Object create();
+
+  public static class SmallPayload {
+    public long id;
+    public String name;
+    public boolean active;
+    public double score;
+
+    static SmallPayload create(int seed) {
+      SmallPayload result = new SmallPayload();
+      result.id = 100000L + seed;
+      result.name = "customer-" + seed;
+      result.active = seed % 2 == 0;
+      result.score = seed * 1.5D;
+      return result;
+    }
+  }
+
+  public static class MediumPayload {
+    public long id;
+    public String orderNumber;
+    public String customerId;
+    public String firstName;
+    public String lastName;
+    public String email;
+    public String street;
+    public String city;
+    public String state;
+    public String postalCode;
+    public String country;
+    public long createdAt;
+    public long updatedAt;
+    public int quantity;
+    public double unitPrice;
+    public double total;
+    public boolean paid;
+    public boolean shipped;
+    public List<String> tags;
+    public Map<String, String> attributes;
+
+    static MediumPayload create(int seed) {
+      MediumPayload result = new MediumPayload();
+      result.id = seed;
+      result.orderNumber = "ORD-" + (1000000 + seed);
+      result.customerId = "CUST-" + (5000 + seed % 100);
+      result.firstName = "Firstname" + seed;
+      result.lastName = "Lastname" + seed;
+      result.email = "customer" + seed + "@example.com";
+      result.street = seed + " Example Street";
+      result.city = "Springfield";
+      result.state = "IL";
+      result.postalCode = "62701";
+      result.country = "US";
+      result.createdAt = 1514764800000L + seed;
+      result.updatedAt = 1514764800000L + seed * 2;
+      result.quantity = seed % 10 + 1;
+      result.unitPrice = 19.99D;
+      result.total = result.quantity * result.unitPrice;
+      result.paid = true;
+      result.shipped = seed % 3 == 0;
+      result.tags = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        result.tags.add("tag-" + i);
+      }
+      result.attributes = new LinkedHashMap<>();
+      for (int i = 0; i < 5; i++) {
+        result.attributes.put("attribute" + i, "value" + i);
+      }
+      return result;
+    }
+  }
+
+  public static class LargePayload {
+    public String batchId;
+    public List<MediumPayload> records;
+  }
+
+  public static class NestedPayload {
+    public int depth;
+    public String name;
+    public NestedPayload child;
+
+    static NestedPayload create(int depth) {
+      NestedPayload result = new NestedPayload();
+      result.depth = depth;
+      result.name = "level-" + depth;
+      if (depth > 0) {
+        result.child = create(depth - 1);
+      }
+      return result;
+    }
+  }
+
+  public static class WidePayload {
+    public long field00;
+    public int field01;
+    public double field02;
+    public boolean field03;
+    public String field04;
+    public long field05;
+    public int field06;
+    public double field07;
+    public boolean field08;
+    public String field09;
+    public long field10;
+    public int field11;
+    public double field12;
+    public boolean field13;
+    public String field14;
+    public long field15;
+    public int field16;
+    public double field17;
+    public boolean field18;
+    public String field19;
+    public long field20;
+    public int field21;
+    public double field22;
+    public boolean field23;
+    public String field24;
+    public long field25;
+    public int field26;
+    public double field27;
+    public boolean field28;
+    public String field29;
+    public long field30;
+    public int field31;
+
+    static WidePayload create(int seed) {
+      WidePayload result = new WidePayload();
+      result.field00 = seed + 0;
+      result.field01 = seed * 1;
+      result.field02 = seed * 2.25D;
+      result.field03 = (seed + 3) % 2 == 0;
+      result.field04 = "value-" + (seed + 4);
+      result.field05 = seed + 5;
+      result.field06 = seed * 6;
+      result.field07 = seed * 7.25D;
+      result.field08 = (seed + 8) % 2 == 0;
+      result.field09 = "value-" + (seed + 9);
+      result.field10 = seed + 10;
+      result.field11 = seed * 11;
+      result.field12 = seed * 12.25D;
+      result.field13 = (seed + 13) % 2 == 0;
+      result.field14 = "value-" + (seed + 14);
+      result.field15 = seed + 15;
+      result.field16 = seed * 16;
+      result.field17 = seed * 17.25D;
+      result.field18 = (seed + 18) % 2 == 0;
+      result.field19 = "value-" + (seed + 19);
+      result.field20 = seed + 20;
+      result.field21 = seed * 21;
+      result.field22 = seed * 22.25D;
+      result.field23 = (seed + 23) % 2 == 0;
+      result.field24 = "value-" + (seed + 24);
+      result.field25 = seed + 25;
+      result.field26 = seed * 26;
+      result.field27 = seed * 27.25D;
+      result.field28 = (seed + 28) % 2 == 0;
+      result.field29 = "value-" + (seed + 29);
+      result.field30 = seed + 30;
+      result.field31 = seed * 31;
+      return result;
+    }
+  }
+}
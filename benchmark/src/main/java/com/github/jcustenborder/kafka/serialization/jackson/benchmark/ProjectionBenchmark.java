@@ -0,0 +1,78 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson.benchmark;
+
+import com.github.jcustenborder.kafka.serialization.jackson.JacksonDeserializer;
+import com.github.jcustenborder.kafka.serialization.jackson.JacksonDeserializerConfig;
+import com.github.jcustenborder.kafka.serialization.jackson.JacksonSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares binding the whole payload with binding three projected fields using {@code projection.paths}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectionBenchmark {
+  @Param({"WIDE", "LARGE"})
+  public Payload payload;
+
+  @Param({"false", "true"})
+  public boolean projection;
+
+  JacksonDeserializer<Object> deserializer;
+  byte[] buffer;
+
+  @Setup
+  public void setup() {
+    Map<String, Object> settings = new HashMap<>();
+    settings.put(JacksonDeserializerConfig.OUTPUT_CLASS_CONFIG, this.payload.type.getName());
+    if (this.projection) {
+      settings.put(
+          JacksonDeserializerConfig.PROJECTION_PATHS_CONFIG,
+          Payload.WIDE == this.payload ? "/field00,/field10,/field20" : "/batchId,/records/0/id,/records/0/total"
+      );
+    }
+    this.deserializer = new JacksonDeserializer<>();
+    this.deserializer.configure(settings, false);
+
+    JacksonSerializer<Object> serializer = new JacksonSerializer<>();
+    serializer.configure(settings, false);
+    this.buffer = serializer.serialize("benchmark", this.payload.create());
+  }
+
+  @Benchmark
+  public Object deserialize() {
+    return this.deserializer.deserialize("benchmark", this.buffer);
+  }
+}
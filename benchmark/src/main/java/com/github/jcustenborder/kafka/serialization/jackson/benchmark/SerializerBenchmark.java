@@ -0,0 +1,69 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson.benchmark;
+
+import com.github.jcustenborder.kafka.serialization.jackson.JacksonSerializer;
+import com.github.jcustenborder.kafka.serialization.jackson.JacksonSerializerConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+  @Param({"SMALL", "MEDIUM", "LARGE", "NESTED"})
+  public Payload payload;
+
+  @Param({"false", "true"})
+  public boolean bufferRecycling;
+
+  @Param({"JSON", "SMILE", "CBOR", "ION"})
+  public String format;
+
+  JacksonSerializer<Object> serializer;
+  Object message;
+
+  @Setup
+  public void setup() {
+    this.serializer = new JacksonSerializer<>();
+    Map<String, Object> settings = new HashMap<>();
+    settings.put(JacksonSerializerConfig.BUFFER_RECYCLING_ENABLE_CONFIG, Boolean.toString(this.bufferRecycling));
+    settings.put(JacksonSerializerConfig.FORMAT_CONFIG, this.format);
+    this.serializer.configure(settings, false);
+    this.message = this.payload.create();
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return this.serializer.serialize("benchmark", this.message);
+  }
+}
@@ -0,0 +1,31 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+/**
+ * How bean properties are read and written.
+ */
+public enum AccessorOptimization {
+  /**
+   * Properties are accessed using reflection.
+   */
+  NONE,
+  /**
+   * Registers the Afterburner module which generates bytecode accessors and creators for every bean
+   * type the ObjectMapper handles. Requires jackson-module-afterburner on the classpath.
+   */
+  AFTERBURNER
+}
@@ -0,0 +1,31 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+/**
+ * How {@link JacksonSerializer} writes a message that is a {@link java.util.Collection}.
+ */
+public enum CollectionFormat {
+  /**
+   * The collection is written as a single JSON array.
+   */
+  ARRAY,
+  /**
+   * Every element is written as its own root value, separated by a newline. This is newline delimited
+   * JSON for the JSON format. Binary formats write the values back to back.
+   */
+  NDJSON
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import org.apache.kafka.common.metrics.Measurable;
+import org.apache.kafka.common.metrics.MetricConfig;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per second rate of a {@link LongAdder} over roughly the window Kafka's sampled stats use. Nothing is done
+ * when the counter is incremented; the rate is worked out from the totals seen when the metric is read.
+ * Like Kafka's {@code Rate}, the elapsed time is never taken to be shorter than all but one of the samples,
+ * so the first reads do not overstate the rate.
+ */
+class CounterRate implements Measurable {
+  private final LongAdder counter;
+  private long startMs;
+  private long startTotal;
+  private long lastMs;
+  private long lastTotal;
+
+  CounterRate(LongAdder counter, long now) {
+    this.counter = counter;
+    this.startMs = now;
+    this.lastMs = now;
+  }
+
+  @Override
+  public synchronized double measure(MetricConfig config, long now) {
+    final long total = this.counter.sum();
+    final long windowMs = config.timeWindowMs() * config.samples();
+    if (now - this.startMs > windowMs && this.lastMs > this.startMs) {
+      this.startMs = this.lastMs;
+      this.startTotal = this.lastTotal;
+    }
+    this.lastMs = now;
+    this.lastTotal = total;
+    final long elapsedMs = Math.max(now - this.startMs, config.timeWindowMs() * (config.samples() - 1));
+    return 0 == elapsedMs ? 0D : (total - this.startTotal) * 1000D / elapsedMs;
+  }
+}
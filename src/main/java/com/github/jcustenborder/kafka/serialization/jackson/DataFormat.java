@@ -0,0 +1,58 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+/**
+ * The wire formats that can be used by the serializer and deserializer. Anything other than
+ * {@link #JSON} requires the matching jackson-dataformat module on the classpath.
+ */
+public enum DataFormat {
+  /**
+   * Plain JSON.
+   */
+  JSON("JSON"),
+  /**
+   * Binary JSON using jackson-dataformat-smile. Shared property names and shared string values are
+   * enabled so repeated names and values are written as back references.
+   */
+  SMILE("Smile"),
+  /**
+   * RFC 7049 CBOR using jackson-dataformat-cbor.
+   */
+  CBOR("CBOR"),
+  /**
+   * Binary Amazon Ion using jackson-dataformat-ion.
+   */
+  ION("AmazonIon");
+
+  /**
+   * The name reported by {@link com.fasterxml.jackson.core.JsonFactory#getFormatName()}.
+   */
+  public final String formatName;
+
+  DataFormat(String formatName) {
+    this.formatName = formatName;
+  }
+
+  static DataFormat forFormatName(String formatName) {
+    for (DataFormat format : values()) {
+      if (format.formatName.equals(formatName)) {
+        return format;
+      }
+    }
+    return null;
+  }
+}
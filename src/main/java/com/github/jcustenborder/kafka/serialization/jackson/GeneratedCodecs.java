@@ -0,0 +1,200 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.deser.Deserializers;
+import com.fasterxml.jackson.databind.ser.Serializers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the classes generated for types annotated with {@link JacksonCodec}. Lookups are cached per
+ * class so types without the annotation cost a single map lookup.
+ */
+final class GeneratedCodecs {
+  private static final Logger log = LoggerFactory.getLogger(GeneratedCodecs.class);
+  static final String SUFFIX = "_JacksonCodec";
+  static final String SERIALIZER = "$Serializer";
+  static final String DESERIALIZER = "$Deserializer";
+
+  private static final MapperFeature[] DEFAULT_ENABLED = {
+      MapperFeature.USE_ANNOTATIONS,
+      MapperFeature.AUTO_DETECT_FIELDS,
+      MapperFeature.AUTO_DETECT_GETTERS,
+      MapperFeature.AUTO_DETECT_IS_GETTERS,
+      MapperFeature.AUTO_DETECT_SETTERS,
+      MapperFeature.INFER_PROPERTY_MUTATORS,
+      MapperFeature.ALLOW_FINAL_FIELDS_AS_MUTATORS
+  };
+  private static final MapperFeature[] DEFAULT_DISABLED = {
+      MapperFeature.SORT_PROPERTIES_ALPHABETICALLY,
+      MapperFeature.USE_STD_BEAN_NAMING,
+      MapperFeature.REQUIRE_SETTERS_FOR_GETTERS,
+      MapperFeature.PROPAGATE_TRANSIENT_MARKER
+  };
+
+  private static final ClassValue<Codec> CODECS = new ClassValue<Codec>() {
+    @Override
+    protected Codec computeValue(Class<?> type) {
+      return lookup(type);
+    }
+  };
+
+  private GeneratedCodecs() {
+
+  }
+
+  /**
+   * Returns the name of the class generated for the type. Nested classes are flattened so
+   * {@code Outer.Inner} becomes {@code Outer_Inner_JacksonCodec} in the package of {@code Outer}.
+   */
+  static String codecClassName(Class<?> type) {
+    final String name = type.getName();
+    final int lastDot = name.lastIndexOf('.');
+    final String packagePrefix = lastDot < 0 ? "" : name.substring(0, lastDot + 1);
+    return packagePrefix + name.substring(lastDot + 1).replace('$', '_') + SUFFIX;
+  }
+
+  private static Codec lookup(Class<?> type) {
+    if (!type.isAnnotationPresent(JacksonCodec.class)) {
+      return Codec.NONE;
+    }
+    final String codecClassName = codecClassName(type);
+    try {
+      final ClassLoader classLoader = type.getClassLoader();
+      return new Codec(
+          Class.forName(codecClassName + SERIALIZER, true, classLoader).asSubclass(JsonSerializer.class),
+          Class.forName(codecClassName + DESERIALIZER, true, classLoader).asSubclass(JsonDeserializer.class)
+      );
+    } catch (ClassNotFoundException e) {
+      log.warn(
+          "{} is annotated with @JacksonCodec but {} was not found. Was the annotation processor run?",
+          type.getName(),
+          codecClassName
+      );
+      return Codec.NONE;
+    }
+  }
+
+  static boolean hasCodec(Class<?> type) {
+    return Codec.NONE != CODECS.get(type);
+  }
+
+  static JsonSerializer<?> serializer(Class<?> type) {
+    final Codec codec = CODECS.get(type);
+    return Codec.NONE == codec ? null : newInstance(codec.serializer);
+  }
+
+  static JsonDeserializer<?> deserializer(Class<?> type) {
+    final Codec codec = CODECS.get(type);
+    return Codec.NONE == codec ? null : newInstance(codec.deserializer);
+  }
+
+  private static <T> T newInstance(Class<T> cls) {
+    try {
+      return cls.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Could not create " + cls.getName(), e);
+    }
+  }
+
+  /**
+   * The generated code follows Jackson's default property detection. Returns false if the mapper is
+   * configured to find or name properties differently, so the bean serializers are used instead.
+   */
+  static boolean supports(MapperConfig<?> config, Class<?> type) {
+    for (MapperFeature feature : DEFAULT_ENABLED) {
+      if (!config.isEnabled(feature)) {
+        return false;
+      }
+    }
+    for (MapperFeature feature : DEFAULT_DISABLED) {
+      if (config.isEnabled(feature)) {
+        return false;
+      }
+    }
+    return null == config.getPropertyNamingStrategy() && null == config.findMixInClassFor(type);
+  }
+
+  /**
+   * The generated serializer only knows how to skip null values.
+   */
+  static boolean supportsInclusion(SerializationConfig config, Class<?> type) {
+    final JsonInclude.Include inclusion = config.getDefaultPropertyInclusion(type).getValueInclusion();
+    return JsonInclude.Include.ALWAYS == inclusion ||
+        JsonInclude.Include.NON_NULL == inclusion ||
+        JsonInclude.Include.USE_DEFAULTS == inclusion;
+  }
+
+  static Module module() {
+    return new GeneratedCodecModule();
+  }
+
+  @SuppressWarnings("rawtypes")
+  static final class Codec {
+    static final Codec NONE = new Codec(null, null);
+    final Class<? extends JsonSerializer> serializer;
+    final Class<? extends JsonDeserializer> deserializer;
+
+    Codec(Class<? extends JsonSerializer> serializer, Class<? extends JsonDeserializer> deserializer) {
+      this.serializer = serializer;
+      this.deserializer = deserializer;
+    }
+  }
+
+  static final class GeneratedCodecModule extends Module {
+    @Override
+    public String getModuleName() {
+      return GeneratedCodecModule.class.getName();
+    }
+
+    @Override
+    public Version version() {
+      return Version.unknownVersion();
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+      context.addSerializers(new Serializers.Base() {
+        @Override
+        public JsonSerializer<?> findSerializer(SerializationConfig config, JavaType type, BeanDescription beanDesc) {
+          return supports(config, type.getRawClass()) && supportsInclusion(config, type.getRawClass()) ?
+              serializer(type.getRawClass()) :
+              null;
+        }
+      });
+      context.addDeserializers(new Deserializers.Base() {
+        @Override
+        public JsonDeserializer<?> findBeanDeserializer(JavaType type, DeserializationConfig config, BeanDescription beanDesc) {
+          return supports(config, type.getRawClass()) && !config.isEnabled(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES) ?
+              deserializer(type.getRawClass()) :
+              null;
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,238 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Deserializes the values of a whole {@code poll()} in one call. The reader for each partition is resolved
+ * once instead of once per record, or once per record only when type headers are in use. Each record is
+ * still parsed with a parser of its own, as Jackson has no way to carry one parser across separate byte
+ * arrays. Batches of at least {@code batch.parallel.threshold} records are split across a fork join pool
+ * with {@code batch.parallelism} threads. Accepts the same settings as {@link JacksonDeserializer}, and
+ * records are timed for {@code metrics.enable} and {@code jfr.enable} like single records are.
+ *
+ * <p>A record that can not be bound fails the whole batch with a {@link SerializationException} naming
+ * its index in the batch, its topic and, for {@link ConsumerRecords}, its partition and offset.</p>
+ *
+ * @param <T> type the values are bound to
+ */
+public class JacksonBatchDeserializer<T> implements Closeable {
+  /**
+   * Smallest number of records a fork join task binds without splitting further.
+   */
+  static final int MIN_CHUNK_SIZE = 256;
+
+  private final JacksonDeserializer<T> deserializer;
+  private ForkJoinPool pool;
+  private int parallelThreshold;
+
+  public JacksonBatchDeserializer() {
+    this.deserializer = new JacksonDeserializer<>();
+  }
+
+  public JacksonBatchDeserializer(Class<T> cls) {
+    this.deserializer = new JacksonDeserializer<>(cls);
+  }
+
+  public JacksonBatchDeserializer(TypeReference<T> typeReference) {
+    this.deserializer = new JacksonDeserializer<>(typeReference);
+  }
+
+  public void configure(Map<String, ?> settings, boolean isKey) {
+    this.deserializer.configure(settings, isKey);
+    final JacksonDeserializerConfig config = this.deserializer.config();
+    shutdownPool();
+    this.pool = config.batchParallelism > 1 ? new ForkJoinPool(config.batchParallelism) : null;
+    this.parallelThreshold = config.batchParallelThreshold;
+  }
+
+  /**
+   * Deserializer the batch delegates to. Use it to release instances when {@code object.reuse.enable}
+   * is set.
+   *
+   * @return underlying deserializer
+   */
+  public JacksonDeserializer<T> deserializer() {
+    return this.deserializer;
+  }
+
+  /**
+   * Deserializes the supplied values, which all belong to the same topic.
+   *
+   * @param topic  topic associated with the data
+   * @param values serialized values
+   * @return deserialized values in the same order. Null values are returned as null.
+   */
+  public List<T> deserialize(String topic, List<byte[]> values) {
+    final int size = values.size();
+    final String[] topics = new String[size];
+    final ObjectReader[] readers = new ObjectReader[size];
+    final byte[][] data = values.toArray(new byte[size][]);
+    Arrays.fill(topics, topic);
+    Arrays.fill(readers, this.deserializer.reader(topic));
+    return bind(new Batch(topics, readers, data, null));
+  }
+
+  /**
+   * Deserializes the values of the supplied records. The {@code type.header.name} header of each record
+   * is taken into account when {@code type.id.mapping} is set.
+   *
+   * @param records records returned by {@code poll()}
+   * @return deserialized values in the iteration order of the records. Null values are returned as null.
+   */
+  public List<T> deserialize(ConsumerRecords<?, byte[]> records) {
+    final int size = records.count();
+    final String[] topics = new String[size];
+    final ObjectReader[] readers = new ObjectReader[size];
+    final byte[][] data = new byte[size][];
+    final ConsumerRecord<?, ?>[] sources = new ConsumerRecord<?, ?>[size];
+    final boolean typeHeaders = this.deserializer.typeHeaders();
+    int index = 0;
+    for (TopicPartition partition : records.partitions()) {
+      final String topic = partition.topic();
+      final ObjectReader topicReader = this.deserializer.reader(topic);
+      for (ConsumerRecord<?, byte[]> record : records.records(partition)) {
+        topics[index] = topic;
+        readers[index] = typeHeaders ? this.deserializer.reader(topic, record.headers()) : topicReader;
+        data[index] = record.value();
+        sources[index] = record;
+        index++;
+      }
+    }
+    return bind(new Batch(topics, readers, data, sources));
+  }
+
+  /**
+   * Records of a batch in the order they are returned. {@code sources} is null when only the values were
+   * supplied.
+   */
+  static final class Batch {
+    final String[] topics;
+    final ObjectReader[] readers;
+    final byte[][] data;
+    final ConsumerRecord<?, ?>[] sources;
+    final Object[] results;
+
+    Batch(String[] topics, ObjectReader[] readers, byte[][] data, ConsumerRecord<?, ?>[] sources) {
+      this.topics = topics;
+      this.readers = readers;
+      this.data = data;
+      this.sources = sources;
+      this.results = new Object[data.length];
+    }
+
+    int size() {
+      return this.data.length;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<T> bind(Batch batch) {
+    final int size = batch.size();
+    final ForkJoinPool pool = this.pool;
+    if (null == pool || size < this.parallelThreshold) {
+      bind(batch, 0, size);
+    } else {
+      final int chunkSize = Math.max(MIN_CHUNK_SIZE, size / (pool.getParallelism() * 4));
+      pool.invoke(new Chunk(batch, 0, size, chunkSize));
+    }
+    return (List<T>) Arrays.asList(batch.results);
+  }
+
+  void bind(Batch batch, int start, int end) {
+    for (int i = start; i < end; i++) {
+      final byte[] bytes = batch.data[i];
+      if (null == bytes) {
+        continue;
+      }
+      try {
+        batch.results[i] = this.deserializer.read(batch.topics[i], batch.readers[i], bytes);
+      } catch (RuntimeException e) {
+        throw failure(batch, i, e);
+      }
+    }
+  }
+
+  private static SerializationException failure(Batch batch, int index, RuntimeException cause) {
+    final ConsumerRecord<?, ?> source = null == batch.sources ? null : batch.sources[index];
+    final String message = null == source ?
+        String.format(
+            "Record %s of the batch for topic '%s' could not be deserialized.",
+            index, batch.topics[index]
+        ) :
+        String.format(
+            "Record %s of the batch at topic '%s' partition %s offset %s could not be deserialized.",
+            index, source.topic(), source.partition(), source.offset()
+        );
+    return new SerializationException(message, cause);
+  }
+
+  /**
+   * Binds a range of the batch, splitting it in half until it is no larger than the chunk size.
+   */
+  class Chunk extends RecursiveAction {
+    final Batch batch;
+    final int start;
+    final int end;
+    final int chunkSize;
+
+    Chunk(Batch batch, int start, int end, int chunkSize) {
+      this.batch = batch;
+      this.start = start;
+      this.end = end;
+      this.chunkSize = chunkSize;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.end - this.start <= this.chunkSize) {
+        bind(this.batch, this.start, this.end);
+        return;
+      }
+      final int middle = (this.start + this.end) >>> 1;
+      invokeAll(
+          new Chunk(this.batch, this.start, middle, this.chunkSize),
+          new Chunk(this.batch, middle, this.end, this.chunkSize)
+      );
+    }
+  }
+
+  private void shutdownPool() {
+    if (null != this.pool) {
+      this.pool.shutdown();
+      this.pool = null;
+    }
+  }
+
+  @Override
+  public void close() {
+    shutdownPool();
+    this.deserializer.close();
+  }
+}
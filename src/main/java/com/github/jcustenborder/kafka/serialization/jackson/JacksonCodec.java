@@ -0,0 +1,39 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a dedicated streaming serializer and deserializer for the annotated class at compile time.
+ * The annotation processor shipped with this library writes a {@code <Class>_JacksonCodec} class next to
+ * the annotated class, and the ObjectMappers created by {@link JacksonSerializer} and
+ * {@link JacksonDeserializer} use it instead of the reflection based bean serializer and deserializer.
+ *
+ * <p>Public fields and public getters and setters are mapped, in declaration order. {@code @JsonProperty}
+ * names, {@code @JsonIgnore} and {@code @JsonIgnoreProperties(ignoreUnknown = true)} are honored. Other
+ * Jackson annotations on the class or its properties are not applied, so leave them off classes that rely
+ * on them. The class needs a no argument constructor and can not be generic.</p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface JacksonCodec {
+}
@@ -0,0 +1,553 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.kafka.connect.data.Date;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaAndValue;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Time;
+import org.apache.kafka.connect.data.Timestamp;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.storage.Converter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Kafka Connect converter that writes and reads records with the streaming API of the ObjectMapper
+ * configured by {@link JacksonSerializerConfig} and {@link JacksonDeserializerConfig}. Generators and
+ * parsers are initialized from the configuration of the mapper's {@link ObjectWriter} and
+ * {@link ObjectReader}, so settings such as {@code indent.output.enable} apply. Unlike the
+ * JsonConverter in Connect there is no schema envelope and no intermediate tree. Values are written
+ * straight from the {@link Struct} and read straight into one.
+ *
+ * <p>The schema of a record that is read is inferred from its tokens. Objects become optional structs,
+ * integers {@code INT64}, floating point numbers {@code FLOAT64} and binary values {@code BYTES}. Arrays
+ * use a schema that fits all of their elements. Integers in an array with floating point numbers are
+ * widened to {@code FLOAT64}, and structs with different fields are combined into one struct holding every
+ * field. Arrays mixing any other types are rejected. The last schema seen on a topic is reused
+ * as long as the records keep the same shape, so a topic with a stable shape hands the same
+ * {@link Schema} instance to every record.</p>
+ */
+public class JacksonConverter implements Converter, Closeable {
+  static final Schema OPTIONAL_BIG_INTEGER_SCHEMA = Decimal.builder(0).optional().build();
+  private static final ObjectMapper DEFAULT_MAPPER = new ObjectMapper();
+
+  private ObjectMapper serializerMapper;
+  private ObjectMapper deserializerMapper;
+  private ObjectWriter writer;
+  private ObjectReader reader;
+  private OutputBufferRecycler outputBuffers;
+  private final ConcurrentMap<String, Schema> schemas = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, PayloadSizeTracker> payloadSizes = new ConcurrentHashMap<>();
+
+  public JacksonConverter() {
+    this.writer = DEFAULT_MAPPER.writer();
+    this.reader = DEFAULT_MAPPER.reader();
+  }
+
+  @Override
+  public void configure(Map<String, ?> settings, boolean isKey) {
+    close();
+    final JacksonSerializerConfig serializerConfig = new JacksonSerializerConfig(settings);
+    final JacksonDeserializerConfig deserializerConfig = new JacksonDeserializerConfig(settings);
+    this.serializerMapper = serializerConfig.acquireObjectMapper();
+    this.deserializerMapper = deserializerConfig.acquireObjectMapper();
+    this.writer = this.serializerMapper.writer();
+    this.reader = this.deserializerMapper.reader();
+    this.outputBuffers = serializerConfig.bufferRecyclingEnable ?
+        new OutputBufferRecycler(serializerConfig.bufferRecyclingMaxBytes) :
+        null;
+    this.schemas.clear();
+  }
+
+  /**
+   * Releases the ObjectMappers acquired from the {@link ObjectMapperRegistry} and the recycled buffers.
+   */
+  @Override
+  public void close() {
+    if (null != this.outputBuffers) {
+      this.outputBuffers.close();
+      this.outputBuffers = null;
+    }
+    ObjectMapperRegistry.release(this.serializerMapper);
+    ObjectMapperRegistry.release(this.deserializerMapper);
+    this.serializerMapper = null;
+    this.deserializerMapper = null;
+  }
+
+  private static String key(String topic) {
+    return null == topic ? "" : topic;
+  }
+
+  private PayloadSizeTracker payloadSizeTracker(String topic) {
+    final String key = key(topic);
+    PayloadSizeTracker result = this.payloadSizes.get(key);
+    if (null == result) {
+      result = this.payloadSizes.computeIfAbsent(key, k -> new PayloadSizeTracker());
+    }
+    return result;
+  }
+
+  @Override
+  public byte[] fromConnectData(String topic, Schema schema, Object value) {
+    if (null == value) {
+      return null;
+    }
+    final PayloadSizeTracker sizeTracker = payloadSizeTracker(topic);
+    final OutputBufferRecycler outputBuffers = this.outputBuffers;
+    final OutputBuffer buffer = null == outputBuffers ?
+        new OutputBuffer(sizeTracker.sizeClass()) :
+        outputBuffers.acquire(sizeTracker.sizeClass());
+    final ObjectWriter writer = this.writer;
+    final byte[] result;
+    try {
+      try (JsonGenerator generator = writer.getFactory().createGenerator(buffer, JsonEncoding.UTF8)) {
+        writer.getConfig().initialize(generator);
+        write(generator, schema, value);
+      }
+      result = buffer.toByteArray();
+    } catch (IOException e) {
+      throw new DataException(
+          String.format("Exception thrown while writing record for topic '%s'", topic),
+          e
+      );
+    } finally {
+      if (null != outputBuffers) {
+        outputBuffers.release(buffer);
+      }
+    }
+    sizeTracker.record(result.length);
+    return result;
+  }
+
+  static void write(JsonGenerator generator, Schema schema, Object value) throws IOException {
+    if (null == value) {
+      if (null != schema && null != schema.defaultValue()) {
+        write(generator, schema, schema.defaultValue());
+      } else {
+        generator.writeNull();
+      }
+      return;
+    }
+    if (null == schema) {
+      writeSchemaless(generator, value);
+      return;
+    }
+    final String logicalName = schema.name();
+    if (null != logicalName && value instanceof java.util.Date) {
+      switch (logicalName) {
+        case Date.LOGICAL_NAME:
+          generator.writeNumber(Date.fromLogical(schema, (java.util.Date) value));
+          return;
+        case Time.LOGICAL_NAME:
+          generator.writeNumber(Time.fromLogical(schema, (java.util.Date) value));
+          return;
+        case Timestamp.LOGICAL_NAME:
+          generator.writeNumber(Timestamp.fromLogical(schema, (java.util.Date) value));
+          return;
+        default:
+          break;
+      }
+    }
+    switch (schema.type()) {
+      case INT8:
+      case INT16:
+      case INT32:
+        generator.writeNumber(((Number) value).intValue());
+        break;
+      case INT64:
+        generator.writeNumber(((Number) value).longValue());
+        break;
+      case FLOAT32:
+        generator.writeNumber(((Number) value).floatValue());
+        break;
+      case FLOAT64:
+        generator.writeNumber(((Number) value).doubleValue());
+        break;
+      case BOOLEAN:
+        generator.writeBoolean((Boolean) value);
+        break;
+      case STRING:
+        generator.writeString((String) value);
+        break;
+      case BYTES:
+        writeBytes(generator, value);
+        break;
+      case ARRAY:
+        writeArray(generator, schema.valueSchema(), (Collection<?>) value);
+        break;
+      case MAP:
+        writeMap(generator, schema, (Map<?, ?>) value);
+        break;
+      case STRUCT:
+        writeStruct(generator, (Struct) value);
+        break;
+      default:
+        throw new DataException("Schema type " + schema.type() + " is not supported.");
+    }
+  }
+
+  private static void writeBytes(JsonGenerator generator, Object value) throws IOException {
+    if (value instanceof BigDecimal) {
+      generator.writeNumber((BigDecimal) value);
+    } else if (value instanceof ByteBuffer) {
+      final ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+      final byte[] bytes = new byte[buffer.remaining()];
+      buffer.get(bytes);
+      generator.writeBinary(bytes);
+    } else {
+      generator.writeBinary((byte[]) value);
+    }
+  }
+
+  private static void writeArray(JsonGenerator generator, Schema valueSchema, Collection<?> value) throws IOException {
+    generator.writeStartArray(value.size());
+    for (Object element : value) {
+      write(generator, valueSchema, element);
+    }
+    generator.writeEndArray();
+  }
+
+  /**
+   * Maps with string keys are written as objects. Other key types are written as an array of
+   * {@code [key, value]} pairs, the same way the JsonConverter does.
+   */
+  private static void writeMap(JsonGenerator generator, Schema schema, Map<?, ?> value) throws IOException {
+    final Schema keySchema = schema.keySchema();
+    final Schema valueSchema = schema.valueSchema();
+    if (Schema.Type.STRING == keySchema.type()) {
+      generator.writeStartObject();
+      for (Map.Entry<?, ?> e : value.entrySet()) {
+        generator.writeFieldName((String) e.getKey());
+        write(generator, valueSchema, e.getValue());
+      }
+      generator.writeEndObject();
+    } else {
+      generator.writeStartArray(value.size());
+      for (Map.Entry<?, ?> e : value.entrySet()) {
+        generator.writeStartArray(2);
+        write(generator, keySchema, e.getKey());
+        write(generator, valueSchema, e.getValue());
+        generator.writeEndArray();
+      }
+      generator.writeEndArray();
+    }
+  }
+
+  private static void writeStruct(JsonGenerator generator, Struct struct) throws IOException {
+    generator.writeStartObject();
+    for (Field field : struct.schema().fields()) {
+      generator.writeFieldName(field.name());
+      write(generator, field.schema(), struct.get(field));
+    }
+    generator.writeEndObject();
+  }
+
+  private static void writeSchemaless(JsonGenerator generator, Object value) throws IOException {
+    if (value instanceof Struct) {
+      writeStruct(generator, (Struct) value);
+    } else if (value instanceof String) {
+      generator.writeString((String) value);
+    } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      generator.writeNumber(((Number) value).intValue());
+    } else if (value instanceof Long) {
+      generator.writeNumber((Long) value);
+    } else if (value instanceof Float) {
+      generator.writeNumber((Float) value);
+    } else if (value instanceof Double) {
+      generator.writeNumber((Double) value);
+    } else if (value instanceof Boolean) {
+      generator.writeBoolean((Boolean) value);
+    } else if (value instanceof BigDecimal || value instanceof byte[] || value instanceof ByteBuffer) {
+      writeBytes(generator, value);
+    } else if (value instanceof java.util.Date) {
+      generator.writeNumber(((java.util.Date) value).getTime());
+    } else if (value instanceof Collection) {
+      writeArray(generator, null, (Collection<?>) value);
+    } else if (value instanceof Map) {
+      generator.writeStartObject();
+      for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+        generator.writeFieldName(String.valueOf(e.getKey()));
+        write(generator, null, e.getValue());
+      }
+      generator.writeEndObject();
+    } else {
+      throw new DataException(value.getClass().getName() + " is not supported without a schema.");
+    }
+  }
+
+  @Override
+  public SchemaAndValue toConnectData(String topic, byte[] value) {
+    if (null == value) {
+      return SchemaAndValue.NULL;
+    }
+    final String key = key(topic);
+    final Reader reader = new Reader();
+    final ObjectReader objectReader = this.reader;
+    final Object result;
+    try (JsonParser parser = objectReader.getFactory().createParser(value)) {
+      objectReader.getConfig().initialize(parser);
+      final JsonToken token = parser.nextToken();
+      if (null == token) {
+        return SchemaAndValue.NULL;
+      }
+      result = reader.read(parser, token, this.schemas.get(key));
+    } catch (IOException e) {
+      throw new DataException(
+          String.format("Exception thrown while reading record for topic '%s'", topic),
+          e
+      );
+    }
+    if (null != reader.schema) {
+      this.schemas.put(key, reader.schema);
+    }
+    return new SchemaAndValue(reader.schema, result);
+  }
+
+  /**
+   * Reads a value and infers its schema. The schema of the value that was just read is left in
+   * {@link #schema} so the callers do not need a holder per value. The hint is the schema the value had
+   * in the previous record and is returned again when the value has the same shape.
+   */
+  static final class Reader {
+    Schema schema;
+
+    Object read(JsonParser parser, JsonToken token, Schema hint) throws IOException {
+      switch (token) {
+        case START_OBJECT:
+          return readStruct(parser, hint);
+        case START_ARRAY:
+          return readArray(parser, hint);
+        case VALUE_STRING:
+          this.schema = Schema.OPTIONAL_STRING_SCHEMA;
+          return parser.getText();
+        case VALUE_NUMBER_INT:
+          if (JsonParser.NumberType.BIG_INTEGER == parser.getNumberType()) {
+            this.schema = OPTIONAL_BIG_INTEGER_SCHEMA;
+            return new BigDecimal(parser.getBigIntegerValue());
+          }
+          this.schema = Schema.OPTIONAL_INT64_SCHEMA;
+          return parser.getLongValue();
+        case VALUE_NUMBER_FLOAT:
+          this.schema = Schema.OPTIONAL_FLOAT64_SCHEMA;
+          return parser.getDoubleValue();
+        case VALUE_TRUE:
+          this.schema = Schema.OPTIONAL_BOOLEAN_SCHEMA;
+          return Boolean.TRUE;
+        case VALUE_FALSE:
+          this.schema = Schema.OPTIONAL_BOOLEAN_SCHEMA;
+          return Boolean.FALSE;
+        case VALUE_EMBEDDED_OBJECT:
+          this.schema = Schema.OPTIONAL_BYTES_SCHEMA;
+          return parser.getBinaryValue();
+        case VALUE_NULL:
+          this.schema = hint;
+          return null;
+        default:
+          throw new DataException("Unexpected token " + token);
+      }
+    }
+
+    private static Schema fieldSchema(Schema hint, String name) {
+      if (null == hint || Schema.Type.STRUCT != hint.type()) {
+        return null;
+      }
+      final Field field = hint.field(name);
+      return null == field ? null : field.schema();
+    }
+
+    private Struct readStruct(JsonParser parser, Schema hint) throws IOException {
+      final List<Field> hintFields = null != hint && Schema.Type.STRUCT == hint.type() ? hint.fields() : null;
+      boolean matches = null != hintFields;
+      final int capacity = null == hintFields ? 16 : hintFields.size();
+      final List<String> names = new ArrayList<>(capacity);
+      final List<Object> values = new ArrayList<>(capacity);
+      final List<Schema> valueSchemas = new ArrayList<>(capacity);
+      int index = 0;
+      for (JsonToken token = parser.nextToken(); JsonToken.FIELD_NAME == token; token = parser.nextToken(), index++) {
+        final String name = parser.getCurrentName();
+        Schema fieldHint;
+        if (matches && index < hintFields.size() && name.equals(hintFields.get(index).name())) {
+          fieldHint = hintFields.get(index).schema();
+        } else {
+          matches = false;
+          fieldHint = fieldSchema(hint, name);
+        }
+        final Object value = read(parser, parser.nextToken(), fieldHint);
+        matches &= null == value || this.schema == fieldHint;
+        names.add(name);
+        values.add(value);
+        valueSchemas.add(this.schema);
+      }
+      final Schema structSchema;
+      if (matches && index == hintFields.size()) {
+        structSchema = hint;
+      } else {
+        final SchemaBuilder builder = SchemaBuilder.struct().optional();
+        for (int i = 0; i < names.size(); i++) {
+          final Schema valueSchema = valueSchemas.get(i);
+          builder.field(names.get(i), null == valueSchema ? Schema.OPTIONAL_STRING_SCHEMA : valueSchema);
+        }
+        structSchema = builder.build();
+      }
+      final Struct result = new Struct(structSchema);
+      final List<Field> fields = structSchema.fields();
+      for (int i = 0; i < values.size(); i++) {
+        final Object value = values.get(i);
+        if (null != value) {
+          result.put(fields.get(i), value);
+        }
+      }
+      this.schema = structSchema;
+      return result;
+    }
+
+    private List<Object> readArray(JsonParser parser, Schema hint) throws IOException {
+      final Schema elementHint = null != hint && Schema.Type.ARRAY == hint.type() ? hint.valueSchema() : null;
+      final List<Object> result = new ArrayList<>();
+      Schema elementSchema = null;
+      boolean mixed = false;
+      for (JsonToken token = parser.nextToken(); JsonToken.END_ARRAY != token; token = parser.nextToken()) {
+        final Object element = read(parser, token, null == elementSchema ? elementHint : elementSchema);
+        if (null != element) {
+          if (null == elementSchema) {
+            elementSchema = this.schema;
+          } else if (elementSchema != this.schema && !elementSchema.equals(this.schema)) {
+            elementSchema = merge(elementSchema, this.schema);
+            mixed = true;
+          }
+        }
+        result.add(element);
+      }
+      if (null == elementSchema) {
+        elementSchema = null == elementHint ? Schema.OPTIONAL_STRING_SCHEMA : elementHint;
+      }
+      if (mixed) {
+        if (elementSchema.equals(elementHint)) {
+          elementSchema = elementHint;
+        }
+        for (int i = 0; i < result.size(); i++) {
+          result.set(i, convert(result.get(i), elementSchema));
+        }
+      }
+      this.schema = elementHint == elementSchema ? hint : SchemaBuilder.array(elementSchema).optional().build();
+      return result;
+    }
+
+    private static boolean isNumber(Schema schema) {
+      return null == schema.name() && (Schema.Type.INT64 == schema.type() || Schema.Type.FLOAT64 == schema.type()) ||
+          OPTIONAL_BIG_INTEGER_SCHEMA.equals(schema);
+    }
+
+    /**
+     * Returns a schema that fits values of both schemas. Numbers are widened, {@code FLOAT64} over
+     * integers of any size, structs get the fields of both and arrays the merged element schema.
+     *
+     * @throws DataException if the schemas can not be combined
+     */
+    static Schema merge(Schema left, Schema right) {
+      if (left == right || left.equals(right)) {
+        return left;
+      }
+      if (isNumber(left) && isNumber(right)) {
+        return Schema.Type.FLOAT64 == left.type() || Schema.Type.FLOAT64 == right.type() ?
+            Schema.OPTIONAL_FLOAT64_SCHEMA :
+            OPTIONAL_BIG_INTEGER_SCHEMA;
+      }
+      if (left.type() == right.type() && null == left.name() && null == right.name()) {
+        switch (left.type()) {
+          case STRUCT:
+            final SchemaBuilder builder = SchemaBuilder.struct().optional();
+            for (Field field : left.fields()) {
+              final Field other = right.field(field.name());
+              builder.field(field.name(), null == other ? field.schema() : merge(field.schema(), other.schema()));
+            }
+            for (Field field : right.fields()) {
+              if (null == left.field(field.name())) {
+                builder.field(field.name(), field.schema());
+              }
+            }
+            return builder.build();
+          case ARRAY:
+            return SchemaBuilder.array(merge(left.valueSchema(), right.valueSchema())).optional().build();
+          default:
+            break;
+        }
+      }
+      throw new DataException(
+          String.format("Array elements of type %s and %s can not be combined.", left.type(), right.type())
+      );
+    }
+
+    /**
+     * Converts a value read with its own schema to the merged schema returned by
+     * {@link #merge(Schema, Schema)}.
+     */
+    static Object convert(Object value, Schema schema) {
+      if (null == value) {
+        return null;
+      }
+      switch (schema.type()) {
+        case FLOAT64:
+          return value instanceof Double ? value : ((Number) value).doubleValue();
+        case BYTES:
+          return value instanceof Long ? BigDecimal.valueOf((Long) value) : value;
+        case STRUCT:
+          final Struct struct = (Struct) value;
+          if (struct.schema() == schema) {
+            return struct;
+          }
+          final Struct result = new Struct(schema);
+          for (Field field : struct.schema().fields()) {
+            final Object fieldValue = struct.get(field);
+            if (null != fieldValue) {
+              result.put(field.name(), convert(fieldValue, schema.field(field.name()).schema()));
+            }
+          }
+          return result;
+        case ARRAY:
+          final List<?> elements = (List<?>) value;
+          final List<Object> converted = new ArrayList<>(elements.size());
+          for (Object element : elements) {
+            converted.add(convert(element, schema.valueSchema()));
+          }
+          return converted;
+        default:
+          return value;
+      }
+    }
+  }
+}
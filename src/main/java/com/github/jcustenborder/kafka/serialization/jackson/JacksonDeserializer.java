@@ -15,31 +15,106 @@
  */
 package com.github.jcustenborder.kafka.serialization.jackson;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.apache.kafka.common.config.ConfigException;
 import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.metrics.Metrics;
 import org.apache.kafka.common.serialization.Deserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 public class JacksonDeserializer<T> implements Deserializer<T> {
   private static final Logger log = LoggerFactory.getLogger(JacksonDeserializer.class);
-  private final ObjectMapper objectMapper;
+  private ObjectMapper objectMapper;
   Class<T> cls;
+  Type type;
   private JacksonDeserializerConfig config;
+  private ObjectReader reader;
+  private TopicTypeRouter router;
+  private TypeIdMapping typeIds;
+  private Map<ByteBuffer, ObjectReader> typeReaders;
+  private String typeHeaderName;
+  private ProjectionFilter projection;
+  private RecordFilter recordFilter;
+  private PassthroughCache passthrough;
+  private final Map<Class<?>, Boolean> passthroughClasses = new ConcurrentHashMap<>();
+  private ObjectPool objectPool;
+  private String formatName;
+  private Metrics metricsRegistry;
+  private SerdeMetrics metrics;
+  private SerdeEvents events;
+  private final LongAdder filterEvaluated = new LongAdder();
+  private final LongAdder filterDropped = new LongAdder();
 
 
   public JacksonDeserializer() {
-    this.objectMapper = new ObjectMapper();
   }
 
   public JacksonDeserializer(Class<T> cls) {
-    this();
     this.cls = cls;
+    this.type = cls;
   }
 
+  /**
+   * Creates a deserializer for a generic type such as {@code List<Order>}. The type is resolved once and
+   * reused for every record.
+   *
+   * @param typeReference type to deserialize to
+   */
+  public JacksonDeserializer(TypeReference<T> typeReference) {
+    this.type = typeReference.getType();
+    this.cls = rawClass(TypeFactory.defaultInstance().constructType(this.type));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Class<T> rawClass(JavaType javaType) {
+    return (Class<T>) javaType.getRawClass();
+  }
+
+
+  ObjectMapper objectMapper() {
+    return this.objectMapper;
+  }
+
+  JacksonDeserializerConfig config() {
+    return this.config;
+  }
+
+  SerdeMetrics metrics() {
+    return this.metrics;
+  }
+
+  /**
+   * Registers the metrics enabled by {@code metrics.enable} with the supplied registry instead of a
+   * registry owned by the deserializer. Must be called before {@link #configure(Map, boolean)}.
+   *
+   * @param metrics registry to register the metrics with
+   */
+  public void metricsRegistry(Metrics metrics) {
+    this.metricsRegistry = metrics;
+  }
 
   public static Map<String, String> nonDefaultSettings(ObjectMapper objectMapper) {
     return JacksonDeserializerConfig.nonDefaultSettings(objectMapper);
@@ -48,22 +123,458 @@ public class JacksonDeserializer<T> implements Deserializer<T> {
   @Override
   public void configure(Map<String, ?> settings, boolean isKey) {
     this.config = new JacksonDeserializerConfig(settings);
-    this.config.configure(this.objectMapper);
-    if (null != this.cls) {
-      log.trace("cls is already configured to {}", this.cls.getName());
+    ObjectMapperRegistry.release(this.objectMapper);
+    this.objectMapper = this.config.acquireObjectMapper();
+    if (null != this.type) {
+      log.trace("type is already configured to {}", this.type.getTypeName());
+    } else if (null != this.config.outputType) {
+      this.type = this.config.outputType;
+    } else {
+      this.type = this.config.outputClass;
+    }
+    if (this.config.generatedCodecsEnable && null != this.config.projectionView) {
+      throw new ConfigException(
+          JacksonDeserializerConfig.PROJECTION_VIEW_CONFIG,
+          this.config.projectionView.getName(),
+          String.format("Views are not applied by generated codecs. Disable %s to use views.", JacksonDeserializerConfig.GENERATED_CODECS_ENABLE_CONFIG)
+      );
+    }
+    final ObjectReader base = null == this.config.projectionView ?
+        this.objectMapper.reader() :
+        this.objectMapper.readerWithView(this.config.projectionView);
+    final JavaType javaType = this.objectMapper.constructType(this.type);
+    this.cls = rawClass(javaType);
+    this.reader = base.forType(javaType);
+    this.projection = ProjectionFilter.parse(
+        JacksonDeserializerConfig.PROJECTION_PATHS_CONFIG,
+        this.config.projectionPaths
+    );
+    this.formatName = this.objectMapper.getFactory().getFormatName();
+    if (this.config.objectReuseEnable) {
+      if (!javaType.isConcrete() || javaType.isContainerType() || javaType.isArrayType() || JsonNode.class.isAssignableFrom(this.cls)) {
+        throw new ConfigException(
+            JacksonDeserializerConfig.OBJECT_REUSE_ENABLE_CONFIG,
+            true,
+            String.format("Only concrete bean types can be reused. '%s' is not supported.", javaType)
+        );
+      }
+      this.objectPool = new ObjectPool(this.cls, this.config.objectReusePoolSize);
     } else {
-      this.cls = this.config.outputClass;
+      this.objectPool = null;
+    }
+    this.recordFilter = RecordFilter.parse(
+        JacksonDeserializerConfig.FILTER_CONDITIONS_CONFIG,
+        this.config.filterConditions
+    );
+    PassthroughCache.release(this.passthrough);
+    this.passthroughClasses.clear();
+    if (!this.config.passthroughEnable) {
+      this.passthrough = null;
+    } else if (null != this.projection || null != this.config.projectionView || null != this.recordFilter || null != this.objectPool) {
+      log.warn(
+          "{} is ignored because values are shaped by {}, {}, {} or {}.",
+          JacksonDeserializerConfig.PASSTHROUGH_ENABLE_CONFIG,
+          JacksonDeserializerConfig.PROJECTION_PATHS_CONFIG,
+          JacksonDeserializerConfig.PROJECTION_VIEW_CONFIG,
+          JacksonDeserializerConfig.FILTER_CONDITIONS_CONFIG,
+          JacksonDeserializerConfig.OBJECT_REUSE_ENABLE_CONFIG
+      );
+      this.passthrough = null;
+    } else {
+      this.passthrough = PassthroughCache.acquire(this.config.passthroughMaxEntries, this.config.passthroughMaxBytes);
+    }
+    if (this.config.topicTypeMapping.isEmpty()) {
+      this.router = null;
+    } else {
+      this.router = TopicTypeRouter.parse(
+          JacksonDeserializerConfig.TOPIC_TYPE_MAPPING_CONFIG,
+          this.config.topicTypeMapping,
+          base,
+          this.reader
+      );
+    }
+    this.typeHeaderName = this.config.typeHeaderName;
+    if (this.config.typeIdMapping.isEmpty()) {
+      this.typeIds = null;
+      this.typeReaders = null;
+    } else {
+      this.typeIds = TypeIdMapping.parse(JacksonDeserializerConfig.TYPE_ID_MAPPING_CONFIG, this.config.typeIdMapping);
+      this.typeReaders = this.typeIds.readers(base);
+    }
+    if (null != this.metrics) {
+      this.metrics.close();
+    }
+    this.metrics = this.config.metricsEnable ?
+        new SerdeMetrics(this.metricsRegistry, "jackson-deserializer-metrics", "deserialize-time-ns", settings, isKey) :
+        null;
+    if (null != this.events) {
+      this.events.close();
+    }
+    this.events = this.config.jfrEnable ?
+        SerdeEvents.create("deserialize", this.config.jfrDurationThresholdUs, this.config.jfrSizeThresholdBytes) :
+        null;
+    warmup();
+  }
+
+  private void warmup() {
+    if (WarmupMode.NONE == this.config.warmup) {
+      return;
+    }
+    final List<Type> types = new ArrayList<>(this.config.warmupClasses.size() + 1);
+    types.add(this.type);
+    types.addAll(this.config.warmupClasses);
+    if (null != this.router) {
+      types.addAll(this.router.classes());
+    }
+    if (null != this.typeIds) {
+      types.addAll(this.typeIds.classes());
+    }
+    Warmup.deserializers(this.objectMapper, types);
+    if (WarmupMode.ROUNDTRIP == this.config.warmup) {
+      Warmup.roundTrip(this.objectMapper, types, this.config.warmupIterations);
     }
   }
 
+  /**
+   * Returns the reader for the topic, taking {@code topic.type.mapping} into account.
+   */
+  ObjectReader reader(String topic) {
+    final TopicTypeRouter router = this.router;
+    return null == router ? reader() : router.reader(topic);
+  }
+
+  /**
+   * Returns the reader for the configured type. An instance that was never configured reads with
+   * {@link ObjectMapperFactory#unconfigured()}.
+   */
+  private ObjectReader reader() {
+    ObjectReader result = this.reader;
+    if (null == result && null != this.type) {
+      result = ObjectMapperFactory.unconfigured().readerFor(TypeFactory.defaultInstance().constructType(this.type));
+      this.reader = result;
+    }
+    return result;
+  }
+
+  /**
+   * Returns true if the reader can depend on the {@code type.header.name} header of each record.
+   */
+  boolean typeHeaders() {
+    return null != this.typeReaders;
+  }
+
+  /**
+   * Returns the class the reader returned by {@link #reader(String, Headers)} binds to when the runtime
+   * class of the bound value is known before binding. Abstract classes, interfaces and {@code Object}
+   * can bind to any number of classes so null is returned for them.
+   */
+  Class<?> valueClass(String topic, Headers headers) {
+    Class<?> result = null;
+    if (null != this.typeReaders && null != headers) {
+      final Header header = headers.lastHeader(this.typeHeaderName);
+      if (null != header && null != header.value()) {
+        result = this.typeIds.cls(header.value());
+      }
+    }
+    if (null == result && null != this.router) {
+      result = this.router.cls(topic);
+    }
+    if (null == result) {
+      result = this.cls;
+    }
+    return null == result || Object.class == result || Modifier.isAbstract(result.getModifiers()) ? null : result;
+  }
+
+  /**
+   * Returns the reader for the type id in the {@code type.header.name} header, falling back to the
+   * reader for the topic when the header is not present.
+   */
+  ObjectReader reader(String topic, Headers headers) {
+    final Map<ByteBuffer, ObjectReader> typeReaders = this.typeReaders;
+    if (null == typeReaders || null == headers) {
+      return reader(topic);
+    }
+    final Header header = headers.lastHeader(this.typeHeaderName);
+    if (null == header || null == header.value()) {
+      return reader(topic);
+    }
+    final ObjectReader result = typeReaders.get(ByteBuffer.wrap(header.value()));
+    if (null == result) {
+      throw new SerializationException(
+          String.format(
+              "Type id '%s' in header '%s' is not listed in '%s'.",
+              new String(header.value(), StandardCharsets.UTF_8),
+              this.typeHeaderName,
+              JacksonDeserializerConfig.TYPE_ID_MAPPING_CONFIG
+          )
+      );
+    }
+    return result;
+  }
+
   @Override
   public T deserialize(String topic, byte[] bytes) {
+    return deserialize(topic, null, bytes);
+  }
+
+  /**
+   * Deserializes the data using the class from the {@code type.header.name} header when present. The
+   * class is known before parsing starts so no tokens are buffered while looking for a type property.
+   */
+  @Override
+  public T deserialize(String topic, Headers headers, byte[] bytes) {
     if (null == bytes) {
       return null;
     }
+    if (!instrumented()) {
+      return read(reader(topic, headers), bytes);
+    }
+    final int size = bytes.length;
+    final Object event = begin();
+    final long start = System.nanoTime();
+    try {
+      final T result = read(reader(topic, headers), bytes);
+      recorded(topic, result, size, System.nanoTime() - start, event);
+      return result;
+    } catch (RuntimeException e) {
+      failed(topic);
+      throw e;
+    }
+  }
+
+  /**
+   * Returns true if records need to be timed for {@code metrics.enable} or {@code jfr.enable}.
+   */
+  private boolean instrumented() {
+    final SerdeEvents events = this.events;
+    return null != this.metrics || (null != events && events.isEnabled());
+  }
+
+  /**
+   * Begins the flight recorder event of a record, see {@link SerdeEvents#begin()}.
+   */
+  private Object begin() {
+    final SerdeEvents events = this.events;
+    return null == events ? null : events.begin();
+  }
+
+  private void recorded(String topic, T result, int size, long elapsed, Object event) {
+    final SerdeMetrics metrics = this.metrics;
+    if (null != metrics) {
+      metrics.topic(topic).record(size, elapsed);
+    }
+    final SerdeEvents events = this.events;
+    if (null != events) {
+      events.record(event, topic, null == result ? this.cls : result.getClass(), size, elapsed);
+    }
+  }
+
+  private void failed(String topic) {
+    final SerdeMetrics metrics = this.metrics;
+    if (null != metrics) {
+      metrics.topic(topic).error();
+    }
+  }
+
+  /**
+   * Binds the data with a reader that was resolved up front, timing it for {@code metrics.enable} and
+   * {@code jfr.enable} the same way {@link #deserialize(String, Headers, byte[])} does. Used by the batch
+   * and parallel deserializers.
+   */
+  T read(String topic, ObjectReader reader, byte[] bytes) {
+    if (!instrumented()) {
+      return read(reader, bytes);
+    }
+    final int size = bytes.length;
+    final Object event = begin();
+    final long start = System.nanoTime();
+    try {
+      final T result = read(reader, bytes);
+      recorded(topic, result, size, System.nanoTime() - start, event);
+      return result;
+    } catch (RuntimeException e) {
+      failed(topic);
+      throw e;
+    }
+  }
+
+  T read(ObjectReader reader, byte[] bytes) {
+    final T result = bind(reader, bytes);
+    final PassthroughCache passthrough = this.passthrough;
+    if (null != passthrough && null != result && isPassthrough(result.getClass())) {
+      passthrough.put(result, bytes, this.formatName);
+    }
+    return result;
+  }
+
+  private boolean isPassthrough(Class<?> cls) {
+    Boolean result = this.passthroughClasses.get(cls);
+    if (null == result) {
+      boolean allowed = cls.isAnnotationPresent(Immutable.class);
+      for (Class<?> allowedClass : this.config.passthroughClasses) {
+        allowed |= allowedClass.isAssignableFrom(cls);
+      }
+      result = allowed;
+      this.passthroughClasses.put(cls, result);
+    }
+    return result;
+  }
+
+  private T bind(ObjectReader reader, byte[] bytes) {
+    try {
+      if (null != this.recordFilter && !accept(reader.getFactory().createParser(bytes))) {
+        return null;
+      }
+      final ObjectReader target = reuse(reader);
+      if (null != this.projection) {
+        return readProjected(target, target.getFactory().createParser(bytes));
+      }
+      return target.readValue(bytes);
+    } catch (IOException e) {
+      throw new SerializationException(e);
+    }
+  }
+
+  /**
+   * Returns a reader that updates a released instance when {@code object.reuse.enable} is set and one is
+   * available for the calling thread. Only the reader for the configured output type reuses instances.
+   */
+  private ObjectReader reuse(ObjectReader reader) {
+    final ObjectPool objectPool = this.objectPool;
+    if (null == objectPool || reader != this.reader) {
+      return reader;
+    }
+    final Object instance = objectPool.poll();
+    return null == instance ? reader : reader.withValueToUpdate(instance);
+  }
+
+  /**
+   * Hands an instance returned by this deserializer back so it can be reused for a later record when
+   * {@code object.reuse.enable} is set. The caller must not use the instance after releasing it.
+   * Instances are pooled per thread so they should be released on the thread that consumes them.
+   *
+   * @param value instance to release, may be null
+   */
+  public void release(T value) {
+    final ObjectPool objectPool = this.objectPool;
+    if (null != objectPool) {
+      objectPool.offer(value);
+    }
+  }
+
+  private static JsonParser createParser(ObjectReader reader, ByteBuffer buffer) throws IOException {
+    if (buffer.hasArray()) {
+      return reader.getFactory().createParser(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    } else {
+      return reader.getFactory().createParser(new ByteBufferBackedInputStream(buffer.duplicate()));
+    }
+  }
+
+  /**
+   * Evaluates {@code filter.conditions} against the record before it is bound.
+   */
+  private boolean accept(JsonParser parser) throws IOException {
+    this.filterEvaluated.increment();
+    if (this.recordFilter.matches(parser)) {
+      return true;
+    }
+    this.filterDropped.increment();
+    return false;
+  }
+
+  /**
+   * Number of records {@code filter.conditions} were evaluated against.
+   *
+   * @return number of records evaluated
+   */
+  public long filterEvaluatedCount() {
+    return this.filterEvaluated.sum();
+  }
+
+  /**
+   * Number of records that did not match {@code filter.conditions} and were returned as null.
+   *
+   * @return number of records dropped
+   */
+  public long filterDroppedCount() {
+    return this.filterDropped.sum();
+  }
+
+  /**
+   * Binds only the values matched by {@code projection.paths}. Everything else is skipped by the
+   * filtering parser without being bound. A document without any projected values is bound as an
+   * empty object.
+   */
+  private T readProjected(ObjectReader reader, JsonParser parser) throws IOException {
+    try (JsonParser filtered = new FilteringParserDelegate(parser, this.projection, true, true)) {
+      if (null == filtered.nextToken()) {
+        return reader.readValue(JsonNodeFactory.instance.objectNode());
+      }
+      return reader.readValue(filtered);
+    }
+  }
+
+  /**
+   * Deserializes the remaining bytes of the supplied buffer without copying them to an intermediate
+   * array. Heap buffers are parsed in place from their backing array, direct buffers are streamed
+   * through the parser. The position of the supplied buffer is not modified.
+   *
+   * @param topic  topic associated with the data
+   * @param buffer serialized bytes, may be null
+   * @return deserialized object, null if buffer is null
+   */
+  public T deserializeByteBuffer(String topic, ByteBuffer buffer) {
+    return deserializeByteBuffer(topic, null, buffer);
+  }
+
+  /**
+   * Deserializes the remaining bytes of the supplied buffer using the class from the
+   * {@code type.header.name} header when present.
+   *
+   * @param topic   topic associated with the data
+   * @param headers headers associated with the record, may be null
+   * @param buffer  serialized bytes, may be null
+   * @return deserialized object, null if buffer is null
+   * @see #deserializeByteBuffer(String, ByteBuffer)
+   */
+  public T deserializeByteBuffer(String topic, Headers headers, ByteBuffer buffer) {
+    if (null == buffer) {
+      return null;
+    }
+    if (!instrumented()) {
+      return read(reader(topic, headers), buffer);
+    }
+    final int size = buffer.remaining();
+    final Object event = begin();
+    final long start = System.nanoTime();
+    try {
+      final T result = read(reader(topic, headers), buffer);
+      recorded(topic, result, size, System.nanoTime() - start, event);
+      return result;
+    } catch (RuntimeException e) {
+      failed(topic);
+      throw e;
+    }
+  }
 
+  private T read(ObjectReader reader, ByteBuffer buffer) {
     try {
-      return this.objectMapper.readValue(bytes, this.cls);
+      if (null != this.recordFilter && !accept(createParser(reader, buffer))) {
+        return null;
+      }
+      final ObjectReader target = reuse(reader);
+      if (null != this.projection) {
+        return readProjected(target, createParser(target, buffer));
+      }
+      if (buffer.hasArray()) {
+        return target.readValue(
+            buffer.array(),
+            buffer.arrayOffset() + buffer.position(),
+            buffer.remaining()
+        );
+      } else {
+        return target.readValue(new ByteBufferBackedInputStream(buffer.duplicate()));
+      }
     } catch (IOException e) {
       throw new SerializationException(e);
     }
@@ -71,6 +582,20 @@ public class JacksonDeserializer<T> implements Deserializer<T> {
 
   @Override
   public void close() {
-
+    PassthroughCache.release(this.passthrough);
+    this.passthrough = null;
+    if (null != this.objectPool) {
+      this.objectPool.clear();
+    }
+    if (null != this.metrics) {
+      this.metrics.close();
+      this.metrics = null;
+    }
+    if (null != this.events) {
+      this.events.close();
+      this.events = null;
+    }
+    ObjectMapperRegistry.release(this.objectMapper);
+    this.objectMapper = null;
   }
 }
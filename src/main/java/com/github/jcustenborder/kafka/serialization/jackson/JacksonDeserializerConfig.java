@@ -16,17 +16,24 @@
 package com.github.jcustenborder.kafka.serialization.jackson;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.cfg.ConfigFeature;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.apache.kafka.common.config.AbstractConfig;
 import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.config.ConfigException;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class JacksonDeserializerConfig extends AbstractConfig {
 
@@ -87,6 +94,33 @@ public class JacksonDeserializerConfig extends AbstractConfig {
   public final static String ADJUST_DATES_TO_CONTEXT_TIME_ZONE_CONFIG = "adjust.dates.to.context.time.zone.enable";
   public final static String EAGER_DESERIALIZER_FETCH_CONFIG = "eager.deserializer.fetch.enable";
   public final static String OUTPUT_CLASS_CONFIG = "output.class";
+  public final static String FORMAT_CONFIG = "format";
+  public final static String ACCESSOR_OPTIMIZATION_CONFIG = "accessor.optimization";
+  public final static String WARMUP_CONFIG = "warmup";
+  public final static String WARMUP_CLASSES_CONFIG = "warmup.classes";
+  public final static String WARMUP_ITERATIONS_CONFIG = "warmup.iterations";
+  public final static String TOPIC_TYPE_MAPPING_CONFIG = "topic.type.mapping";
+  public final static String TYPE_HEADER_NAME_CONFIG = "type.header.name";
+  public final static String TYPE_ID_MAPPING_CONFIG = "type.id.mapping";
+  public final static String OUTPUT_TYPE_CONFIG = "output.type";
+  public final static String PROJECTION_PATHS_CONFIG = "projection.paths";
+  public final static String PROJECTION_VIEW_CONFIG = "projection.view";
+  public final static String FILTER_CONDITIONS_CONFIG = "filter.conditions";
+  public final static String PASSTHROUGH_ENABLE_CONFIG = "passthrough.enable";
+  public final static String PASSTHROUGH_MAX_ENTRIES_CONFIG = "passthrough.max.entries";
+  public final static String OBJECT_REUSE_ENABLE_CONFIG = "object.reuse.enable";
+  public final static String OBJECT_REUSE_POOL_SIZE_CONFIG = "object.reuse.pool.size";
+  public final static String BATCH_PARALLELISM_CONFIG = "batch.parallelism";
+  public final static String BATCH_PARALLEL_THRESHOLD_CONFIG = "batch.parallel.threshold";
+  public final static String PARALLEL_THREADS_CONFIG = "parallel.threads";
+  public final static String PARALLEL_CHUNK_SIZE_CONFIG = "parallel.chunk.size";
+  public final static String METRICS_ENABLE_CONFIG = "metrics.enable";
+  public final static String JFR_ENABLE_CONFIG = "jfr.enable";
+  public final static String JFR_DURATION_THRESHOLD_US_CONFIG = "jfr.duration.threshold.us";
+  public final static String JFR_SIZE_THRESHOLD_BYTES_CONFIG = "jfr.size.threshold.bytes";
+  public final static String PASSTHROUGH_MAX_BYTES_CONFIG = "passthrough.max.bytes";
+  public final static String PASSTHROUGH_CLASSES_CONFIG = "passthrough.classes";
+  public final static String GENERATED_CODECS_ENABLE_CONFIG = "generated.codecs.enable";
   final static String JAVA_TIME_MODULE_ENABLE_DOC = "Flag to register the java time module.";
   final static String USE_ANNOTATIONS_DOC = "See [USE_ANNOTATIONS](https://fasterxml.github.io/jackson-databind/javadoc/2.9/com/fasterxml/jackson/databind/MapperFeature.html#USE_ANNOTATIONS)";
   final static String USE_GETTERS_AS_SETTERS_DOC = "See [USE_GETTERS_AS_SETTERS](https://fasterxml.github.io/jackson-databind/javadoc/2.9/com/fasterxml/jackson/databind/MapperFeature.html#USE_GETTERS_AS_SETTERS)";
@@ -142,6 +176,33 @@ public class JacksonDeserializerConfig extends AbstractConfig {
   final static String ADJUST_DATES_TO_CONTEXT_TIME_ZONE_DOC = "See [ADJUST_DATES_TO_CONTEXT_TIME_ZONE](https://fasterxml.github.io/jackson-databind/javadoc/2.9/com/fasterxml/jackson/databind/DeserializationFeature.html#ADJUST_DATES_TO_CONTEXT_TIME_ZONE)";
   final static String EAGER_DESERIALIZER_FETCH_DOC = "See [EAGER_DESERIALIZER_FETCH](https://fasterxml.github.io/jackson-databind/javadoc/2.9/com/fasterxml/jackson/databind/DeserializationFeature.html#EAGER_DESERIALIZER_FETCH)";
   final static String OUTPUT_CLASS_DOC = "The java class to deserialize to.";
+  final static String FORMAT_DOC = "The data format to read and write. `JSON` is plain JSON. `SMILE`, `CBOR` and `ION` are binary formats that require the matching jackson-dataformat module on the classpath. Smile is configured to write shared property names and string values as back references.";
+  final static String ACCESSOR_OPTIMIZATION_DOC = "How bean properties are accessed. `NONE` uses reflection. `AFTERBURNER` registers the Afterburner module which generates bytecode accessors for every type reached from the serialized classes. Requires jackson-module-afterburner on the classpath.";
+  final static String WARMUP_DOC = "Work done in configure() so the first records do not pay for building serializers and deserializers. `NONE` builds them lazily. `CACHES` walks the type graph of the configured classes and builds them up front. `ROUNDTRIP` also runs synthetic round trips through the configured classes.";
+  final static String WARMUP_CLASSES_DOC = "Classes to warm up when `warmup` is enabled. `output.class` is always included.";
+  final static String WARMUP_ITERATIONS_DOC = "Number of synthetic round trips per class when `warmup` is `ROUNDTRIP`.";
+  final static String TOPIC_TYPE_MAPPING_DOC = "Routes topics to the class they are deserialized to. Entries are in the format `<topic or regex>:<class>`, for example `orders:com.example.Order,audit-.*:com.example.AuditEvent`. Exact topic names are matched first, then each entry is tried as a regular expression in order. Topics without a match use `output.class`.";
+  final static String TYPE_HEADER_NAME_DOC = "Name of the record header carrying the type id of the value.";
+  final static String TYPE_ID_MAPPING_DOC = "Type ids that can be resolved from the type header. Entries are in the format `<type id>:<class>` or `<class>`. A record with a type header is deserialized to the mapped class before parsing starts. Only classes listed here are resolved. Records with an unknown type id fail with a SerializationException.";
+  final static String OUTPUT_TYPE_DOC = "The full generic type to deserialize to, for example `java.util.List<com.example.Order>` or `java.util.Map<java.lang.String,com.example.Position>`. The type is resolved once when the deserializer is configured. Takes precedence over `output.class` when set.";
+  final static String PROJECTION_PATHS_DOC = "JSON pointers of the values to deserialize, for example `/id,/customer/name`. Everything else is skipped at the token level and never bound, so parse cost scales with the projected fields rather than the size of the payload. Properties of the output class that are not projected are left at their defaults.";
+  final static String PROJECTION_VIEW_DOC = "Jackson view class to deserialize with. Properties that are not part of the view are skipped.";
+  final static String FILTER_CONDITIONS_DOC = "Conditions a record must match to be deserialized, in the format `<json pointer> <operator> <json literal>`, separated by commas, for example `/status == \"ACTIVE\", /amount >= 100`. Literals are JSON values, so a comma within a quoted string such as `/name == \"Smith, John\"` does not start a new condition. Supported operators are `==`, `!=`, `<`, `<=`, `>` and `>=`. All conditions must match, so `/amount >= 1, /amount < 10` selects a range. They are evaluated on the token stream before the record is bound, and records that do not match are returned as null. Missing values and values that are not scalars do not match. Evaluation stops as soon as the outcome is known, so records that match are parsed a second time when they are bound. Filtering pays off when a good share of the records is dropped.";
+  final static String PASSTHROUGH_ENABLE_DOC = "Flag to remember the bytes each value was read from so a JacksonSerializer with `passthrough.enable` set can write them back out without encoding them again. Only values of classes annotated with `@Immutable` or listed in `passthrough.classes` are remembered, and nothing is remembered while `projection.paths`, `projection.view`, `filter.conditions` or `object.reuse.enable` shape the value. Changing a remembered value after it was read writes the original bytes.";
+  final static String PASSTHROUGH_MAX_ENTRIES_DOC = "Number of values the pass through cache remembers. Serializers and deserializers configured with the same `passthrough.max.entries` and `passthrough.max.bytes` share a cache.";
+  final static String OBJECT_REUSE_ENABLE_DOC = "Flag to deserialize into instances handed back with `JacksonDeserializer.release()` instead of allocating a new instance for every record. Only instances of the configured output type are reused, and only the root instance is reused. Properties missing from a record keep the value from the previous record the instance held. Records written with the default inclusion contain every property.";
+  final static String OBJECT_REUSE_POOL_SIZE_DOC = "Maximum number of released instances kept per thread when `object.reuse.enable` is set.";
+  final static String BATCH_PARALLELISM_DOC = "Number of threads JacksonBatchDeserializer uses to bind a batch. Batches are bound on the calling thread when this is 1.";
+  final static String BATCH_PARALLEL_THRESHOLD_DOC = "Minimum number of records in a batch before JacksonBatchDeserializer splits it across `batch.parallelism` threads. Smaller batches are bound on the calling thread.";
+  final static String PARALLEL_THREADS_DOC = "Number of worker threads JacksonParallelDeserializer creates when it is not given an executor. 0 uses one thread per available processor.";
+  final static String PARALLEL_CHUNK_SIZE_DOC = "Maximum number of records of one partition JacksonParallelDeserializer hands to a worker as a single task. Larger partitions are split into several tasks and put back together in offset order.";
+  final static String METRICS_ENABLE_DOC = "Flag to record per topic record and byte rates, deserialize times and error counts and register them with Kafka metrics. Metrics are reported over JMX under the `kafka.serialization.jackson` prefix in the `jackson-deserializer-metrics` group.";
+  final static String JFR_ENABLE_DOC = "Flag to emit Java Flight Recorder events for records over `jfr.duration.threshold.us` or `jfr.size.threshold.bytes` and a periodic summary per topic. Nothing is measured while no recording is running. Ignored on runtimes without the jdk.jfr API.";
+  final static String JFR_DURATION_THRESHOLD_US_DOC = "Records that take at least this many microseconds emit a flight recorder event when `jfr.enable` is set.";
+  final static String JFR_SIZE_THRESHOLD_BYTES_DOC = "Records of at least this many bytes emit a flight recorder event when `jfr.enable` is set.";
+  final static String PASSTHROUGH_MAX_BYTES_DOC = "Total size in bytes of the payloads the pass through cache holds. Values are not remembered while the cache is full.";
+  final static String PASSTHROUGH_CLASSES_DOC = "Classes whose values are remembered for pass through in addition to classes annotated with `@Immutable`. Subclasses of a listed class are included. Only list classes whose instances are never changed after they are read.";
+  final static String GENERATED_CODECS_ENABLE_DOC = "Flag to use the deserializers generated for classes annotated with `@JacksonCodec`. The generated code follows Jackson's default property detection, so the bean deserializers are still used for a class whenever the ObjectMapper is configured differently, for example with `accept.case.insensitive.properties.enable` or a disabled `auto.detect.*` setting. Can not be combined with `projection.view`.";
 
   static {
     final Map<ConfigFeature, String> configFeatureToConfig = new LinkedHashMap();
@@ -256,6 +317,38 @@ public class JacksonDeserializerConfig extends AbstractConfig {
     CONFIG_TO_CONFIGFEATURE = Collections.unmodifiableMap(configToConfigFeature);
   }
 
+  /**
+   * Settings that do not change how the ObjectMapper is built. These are left out of the key used to
+   * look up a shared ObjectMapper in the {@link ObjectMapperRegistry}.
+   */
+  static final Set<String> NON_MAPPER_CONFIGS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+      OUTPUT_CLASS_CONFIG,
+      OUTPUT_TYPE_CONFIG,
+      WARMUP_CONFIG,
+      WARMUP_CLASSES_CONFIG,
+      WARMUP_ITERATIONS_CONFIG,
+      TOPIC_TYPE_MAPPING_CONFIG,
+      TYPE_HEADER_NAME_CONFIG,
+      TYPE_ID_MAPPING_CONFIG,
+      PROJECTION_PATHS_CONFIG,
+      PROJECTION_VIEW_CONFIG,
+      FILTER_CONDITIONS_CONFIG,
+      PASSTHROUGH_ENABLE_CONFIG,
+      PASSTHROUGH_MAX_ENTRIES_CONFIG,
+      PASSTHROUGH_MAX_BYTES_CONFIG,
+      PASSTHROUGH_CLASSES_CONFIG,
+      OBJECT_REUSE_ENABLE_CONFIG,
+      OBJECT_REUSE_POOL_SIZE_CONFIG,
+      BATCH_PARALLELISM_CONFIG,
+      BATCH_PARALLEL_THRESHOLD_CONFIG,
+      PARALLEL_THREADS_CONFIG,
+      PARALLEL_CHUNK_SIZE_CONFIG,
+      METRICS_ENABLE_CONFIG,
+      JFR_ENABLE_CONFIG,
+      JFR_DURATION_THRESHOLD_US_CONFIG,
+      JFR_SIZE_THRESHOLD_BYTES_CONFIG
+  )));
+
   public final Boolean javaTimeModuleEnable;
   public final Boolean useAnnotations;
   public final Boolean useGettersAsSetters;
@@ -311,6 +404,33 @@ public class JacksonDeserializerConfig extends AbstractConfig {
   public final Boolean adjustDatesToContextTimeZone;
   public final Boolean eagerDeserializerFetch;
   public final Class outputClass;
+  public final DataFormat format;
+  public final AccessorOptimization accessorOptimization;
+  public final WarmupMode warmup;
+  public final List<Class<?>> warmupClasses;
+  public final int warmupIterations;
+  public final List<String> topicTypeMapping;
+  public final String typeHeaderName;
+  public final List<String> typeIdMapping;
+  public final JavaType outputType;
+  public final List<String> projectionPaths;
+  public final Class projectionView;
+  public final String filterConditions;
+  public final Boolean passthroughEnable;
+  public final int passthroughMaxEntries;
+  public final Boolean objectReuseEnable;
+  public final int objectReusePoolSize;
+  public final int batchParallelism;
+  public final int batchParallelThreshold;
+  public final int parallelThreads;
+  public final int parallelChunkSize;
+  public final Boolean metricsEnable;
+  public final Boolean jfrEnable;
+  public final long jfrDurationThresholdUs;
+  public final int jfrSizeThresholdBytes;
+  public final long passthroughMaxBytes;
+  public final List<Class<?>> passthroughClasses;
+  public final Boolean generatedCodecsEnable;
 
   public JacksonDeserializerConfig(Map<String, ?> settings) {
     super(JacksonDeserializerConfig.config(), settings);
@@ -369,6 +489,33 @@ public class JacksonDeserializerConfig extends AbstractConfig {
     adjustDatesToContextTimeZone = super.getBoolean(ADJUST_DATES_TO_CONTEXT_TIME_ZONE_CONFIG);
     eagerDeserializerFetch = super.getBoolean(EAGER_DESERIALIZER_FETCH_CONFIG);
     outputClass = super.getClass(OUTPUT_CLASS_CONFIG);
+    format = DataFormat.valueOf(super.getString(FORMAT_CONFIG));
+    accessorOptimization = AccessorOptimization.valueOf(super.getString(ACCESSOR_OPTIMIZATION_CONFIG));
+    warmup = WarmupMode.valueOf(super.getString(WARMUP_CONFIG));
+    warmupClasses = Warmup.loadClasses(WARMUP_CLASSES_CONFIG, super.getList(WARMUP_CLASSES_CONFIG));
+    warmupIterations = super.getInt(WARMUP_ITERATIONS_CONFIG);
+    topicTypeMapping = super.getList(TOPIC_TYPE_MAPPING_CONFIG);
+    typeHeaderName = super.getString(TYPE_HEADER_NAME_CONFIG);
+    typeIdMapping = super.getList(TYPE_ID_MAPPING_CONFIG);
+    outputType = parseOutputType(OUTPUT_TYPE_CONFIG, super.getString(OUTPUT_TYPE_CONFIG));
+    projectionPaths = super.getList(PROJECTION_PATHS_CONFIG);
+    projectionView = super.getClass(PROJECTION_VIEW_CONFIG);
+    filterConditions = super.getString(FILTER_CONDITIONS_CONFIG);
+    passthroughEnable = super.getBoolean(PASSTHROUGH_ENABLE_CONFIG);
+    passthroughMaxEntries = super.getInt(PASSTHROUGH_MAX_ENTRIES_CONFIG);
+    objectReuseEnable = super.getBoolean(OBJECT_REUSE_ENABLE_CONFIG);
+    objectReusePoolSize = super.getInt(OBJECT_REUSE_POOL_SIZE_CONFIG);
+    batchParallelism = super.getInt(BATCH_PARALLELISM_CONFIG);
+    batchParallelThreshold = super.getInt(BATCH_PARALLEL_THRESHOLD_CONFIG);
+    parallelThreads = super.getInt(PARALLEL_THREADS_CONFIG);
+    parallelChunkSize = super.getInt(PARALLEL_CHUNK_SIZE_CONFIG);
+    metricsEnable = super.getBoolean(METRICS_ENABLE_CONFIG);
+    jfrEnable = super.getBoolean(JFR_ENABLE_CONFIG);
+    jfrDurationThresholdUs = super.getLong(JFR_DURATION_THRESHOLD_US_CONFIG);
+    jfrSizeThresholdBytes = super.getInt(JFR_SIZE_THRESHOLD_BYTES_CONFIG);
+    passthroughMaxBytes = super.getLong(PASSTHROUGH_MAX_BYTES_CONFIG);
+    passthroughClasses = Warmup.loadClasses(PASSTHROUGH_CLASSES_CONFIG, super.getList(PASSTHROUGH_CLASSES_CONFIG));
+    generatedCodecsEnable = super.getBoolean(GENERATED_CODECS_ENABLE_CONFIG);
   }
 
   public static ConfigDef config() {
@@ -428,6 +575,33 @@ public class JacksonDeserializerConfig extends AbstractConfig {
     config.define(ADJUST_DATES_TO_CONTEXT_TIME_ZONE_CONFIG, ConfigDef.Type.BOOLEAN, DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE.enabledByDefault(), ConfigDef.Importance.MEDIUM, ADJUST_DATES_TO_CONTEXT_TIME_ZONE_DOC);
     config.define(EAGER_DESERIALIZER_FETCH_CONFIG, ConfigDef.Type.BOOLEAN, DeserializationFeature.EAGER_DESERIALIZER_FETCH.enabledByDefault(), ConfigDef.Importance.MEDIUM, EAGER_DESERIALIZER_FETCH_DOC);
     config.define(OUTPUT_CLASS_CONFIG, ConfigDef.Type.CLASS, JsonNode.class.getName(), ConfigDef.Importance.HIGH, OUTPUT_CLASS_DOC);
+    config.define(FORMAT_CONFIG, ConfigDef.Type.STRING, DataFormat.JSON.name(), ConfigDef.ValidString.in(DataFormat.JSON.name(), DataFormat.SMILE.name(), DataFormat.CBOR.name(), DataFormat.ION.name()), ConfigDef.Importance.MEDIUM, FORMAT_DOC);
+    config.define(ACCESSOR_OPTIMIZATION_CONFIG, ConfigDef.Type.STRING, AccessorOptimization.NONE.name(), ConfigDef.ValidString.in(AccessorOptimization.NONE.name(), AccessorOptimization.AFTERBURNER.name()), ConfigDef.Importance.LOW, ACCESSOR_OPTIMIZATION_DOC);
+    config.define(WARMUP_CONFIG, ConfigDef.Type.STRING, WarmupMode.NONE.name(), ConfigDef.ValidString.in(WarmupMode.NONE.name(), WarmupMode.CACHES.name(), WarmupMode.ROUNDTRIP.name()), ConfigDef.Importance.LOW, WARMUP_DOC);
+    config.define(WARMUP_CLASSES_CONFIG, ConfigDef.Type.LIST, "", ConfigDef.Importance.LOW, WARMUP_CLASSES_DOC);
+    config.define(WARMUP_ITERATIONS_CONFIG, ConfigDef.Type.INT, 1000, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, WARMUP_ITERATIONS_DOC);
+    config.define(TOPIC_TYPE_MAPPING_CONFIG, ConfigDef.Type.LIST, "", ConfigDef.Importance.MEDIUM, TOPIC_TYPE_MAPPING_DOC);
+    config.define(TYPE_HEADER_NAME_CONFIG, ConfigDef.Type.STRING, "jackson.type", ConfigDef.Importance.LOW, TYPE_HEADER_NAME_DOC);
+    config.define(TYPE_ID_MAPPING_CONFIG, ConfigDef.Type.LIST, "", ConfigDef.Importance.LOW, TYPE_ID_MAPPING_DOC);
+    config.define(OUTPUT_TYPE_CONFIG, ConfigDef.Type.STRING, "", ConfigDef.Importance.MEDIUM, OUTPUT_TYPE_DOC);
+    config.define(PROJECTION_PATHS_CONFIG, ConfigDef.Type.LIST, "", ConfigDef.Importance.LOW, PROJECTION_PATHS_DOC);
+    config.define(PROJECTION_VIEW_CONFIG, ConfigDef.Type.CLASS, null, ConfigDef.Importance.LOW, PROJECTION_VIEW_DOC);
+    config.define(FILTER_CONDITIONS_CONFIG, ConfigDef.Type.STRING, "", ConfigDef.Importance.LOW, FILTER_CONDITIONS_DOC);
+    config.define(PASSTHROUGH_ENABLE_CONFIG, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.LOW, PASSTHROUGH_ENABLE_DOC);
+    config.define(PASSTHROUGH_MAX_ENTRIES_CONFIG, ConfigDef.Type.INT, 16384, ConfigDef.Range.between(1, 1 << 24), ConfigDef.Importance.LOW, PASSTHROUGH_MAX_ENTRIES_DOC);
+    config.define(OBJECT_REUSE_ENABLE_CONFIG, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.LOW, OBJECT_REUSE_ENABLE_DOC);
+    config.define(OBJECT_REUSE_POOL_SIZE_CONFIG, ConfigDef.Type.INT, 16, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, OBJECT_REUSE_POOL_SIZE_DOC);
+    config.define(BATCH_PARALLELISM_CONFIG, ConfigDef.Type.INT, 1, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, BATCH_PARALLELISM_DOC);
+    config.define(BATCH_PARALLEL_THRESHOLD_CONFIG, ConfigDef.Type.INT, 10000, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, BATCH_PARALLEL_THRESHOLD_DOC);
+    config.define(PARALLEL_THREADS_CONFIG, ConfigDef.Type.INT, 0, ConfigDef.Range.atLeast(0), ConfigDef.Importance.LOW, PARALLEL_THREADS_DOC);
+    config.define(PARALLEL_CHUNK_SIZE_CONFIG, ConfigDef.Type.INT, 500, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, PARALLEL_CHUNK_SIZE_DOC);
+    config.define(METRICS_ENABLE_CONFIG, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.LOW, METRICS_ENABLE_DOC);
+    config.define(JFR_ENABLE_CONFIG, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.LOW, JFR_ENABLE_DOC);
+    config.define(JFR_DURATION_THRESHOLD_US_CONFIG, ConfigDef.Type.LONG, 10000L, ConfigDef.Range.atLeast(0), ConfigDef.Importance.LOW, JFR_DURATION_THRESHOLD_US_DOC);
+    config.define(JFR_SIZE_THRESHOLD_BYTES_CONFIG, ConfigDef.Type.INT, 1048576, ConfigDef.Range.atLeast(0), ConfigDef.Importance.LOW, JFR_SIZE_THRESHOLD_BYTES_DOC);
+    config.define(PASSTHROUGH_MAX_BYTES_CONFIG, ConfigDef.Type.LONG, 16L * 1024L * 1024L, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, PASSTHROUGH_MAX_BYTES_DOC);
+    config.define(PASSTHROUGH_CLASSES_CONFIG, ConfigDef.Type.LIST, Collections.emptyList(), ConfigDef.Importance.LOW, PASSTHROUGH_CLASSES_DOC);
+    config.define(GENERATED_CODECS_ENABLE_CONFIG, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.LOW, GENERATED_CODECS_ENABLE_DOC);
     return config;
   }
 
@@ -700,9 +874,51 @@ public class JacksonDeserializerConfig extends AbstractConfig {
     if (enabledByDefault != isEnabled) {
       result.put(EAGER_DESERIALIZER_FETCH_CONFIG, Boolean.toString(isEnabled));
     }
+    final DataFormat format = DataFormat.forFormatName(objectMapper.getFactory().getFormatName());
+    if (null != format && DataFormat.JSON != format) {
+      result.put(FORMAT_CONFIG, format.name());
+    }
+    if (ObjectMapperFactory.isAfterburnerRegistered(objectMapper)) {
+      result.put(ACCESSOR_OPTIMIZATION_CONFIG, AccessorOptimization.AFTERBURNER.name());
+    }
     return result;
   }
 
+  static JavaType parseOutputType(String key, String canonical) {
+    if (null == canonical || canonical.trim().isEmpty()) {
+      return null;
+    }
+    try {
+      return TypeFactory.defaultInstance().constructFromCanonical(canonical.trim());
+    } catch (IllegalArgumentException e) {
+      throw new ConfigException(key, canonical, e.getMessage());
+    }
+  }
+
+  /**
+   * Acquires the shared ObjectMapper for this configuration from the {@link ObjectMapperRegistry}.
+   * The caller must pass it to {@link ObjectMapperRegistry#release(ObjectMapper)} once it is done.
+   *
+   * @return shared ObjectMapper
+   */
+  ObjectMapper acquireObjectMapper() {
+    return ObjectMapperRegistry.acquire(
+        ObjectMapperRegistry.key(this, NON_MAPPER_CONFIGS),
+        this::createObjectMapper
+    );
+  }
+
+  /**
+   * Creates an ObjectMapper for the configured format with all of the settings applied.
+   */
+  public ObjectMapper createObjectMapper() {
+    final ObjectMapper objectMapper = ObjectMapperFactory.create(this.format);
+    ObjectMapperFactory.registerAccessorModule(objectMapper, this.accessorOptimization);
+    ObjectMapperFactory.registerGeneratedCodecs(objectMapper, this.generatedCodecsEnable);
+    configure(objectMapper);
+    return objectMapper;
+  }
+
   public void configure(final ObjectMapper objectMapper) {
     if (javaTimeModuleEnable) {
       objectMapper.registerModule(new JavaTimeModule());
@@ -0,0 +1,81 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+/**
+ * Deserializer that returns a {@link Lazy} holding the raw bytes. Binding is deferred until
+ * {@link Lazy#get()} is called, so records that are only routed or forwarded are never bound. Accepts
+ * the same settings as {@link JacksonDeserializer}, which are applied when the value is bound.
+ *
+ * @param <T> type the bytes are bound to
+ */
+public class JacksonLazyDeserializer<T> implements Deserializer<Lazy<T>> {
+  private final JacksonDeserializer<T> deserializer;
+
+  public JacksonLazyDeserializer() {
+    this.deserializer = new JacksonDeserializer<>();
+  }
+
+  public JacksonLazyDeserializer(Class<T> cls) {
+    this.deserializer = new JacksonDeserializer<>(cls);
+  }
+
+  public JacksonLazyDeserializer(TypeReference<T> typeReference) {
+    this.deserializer = new JacksonDeserializer<>(typeReference);
+  }
+
+  @Override
+  public void configure(Map<String, ?> settings, boolean isKey) {
+    this.deserializer.configure(settings, isKey);
+  }
+
+  @Override
+  public Lazy<T> deserialize(String topic, byte[] bytes) {
+    if (null == bytes) {
+      return null;
+    }
+    return new Lazy<>(
+        this.deserializer,
+        this.deserializer.reader(topic),
+        this.deserializer.valueClass(topic, null),
+        bytes
+    );
+  }
+
+  @Override
+  public Lazy<T> deserialize(String topic, Headers headers, byte[] bytes) {
+    if (null == bytes) {
+      return null;
+    }
+    return new Lazy<>(
+        this.deserializer,
+        this.deserializer.reader(topic, headers),
+        this.deserializer.valueClass(topic, headers),
+        bytes
+    );
+  }
+
+  @Override
+  public void close() {
+    this.deserializer.close();
+  }
+}
@@ -0,0 +1,260 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deserializes the values of the records returned by {@code poll()} on a pool of worker threads while
+ * keeping the records of each partition in offset order. Partitions are bound in parallel and partitions
+ * with more than {@code parallel.chunk.size} records are split into several tasks that are put back
+ * together in order. The result is a {@link ConsumerRecords} with the same partitions, offsets, keys and
+ * headers as the input, so {@link #nextOffsets(ConsumerRecords)} can be used to commit it. Accepts the
+ * same settings as {@link JacksonDeserializer}.
+ *
+ * <p>When no executor is supplied a fixed pool of {@code parallel.threads} daemon threads is created in
+ * {@link #configure(Map, boolean)} and shut down in {@link #close()}. Any {@link Executor} can be supplied
+ * instead, for example one that starts a virtual thread per task on runtimes that support them. A supplied
+ * executor is never shut down.</p>
+ *
+ * <p>Records are timed for {@code metrics.enable} and {@code jfr.enable} the same way
+ * {@link JacksonDeserializer} times them.</p>
+ *
+ * @param <T> type the values are bound to
+ */
+public class JacksonParallelDeserializer<T> implements Closeable {
+  private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+  private final JacksonDeserializer<T> deserializer;
+  private final Executor suppliedExecutor;
+  private ExecutorService ownedExecutor;
+  private Executor executor;
+  private int chunkSize;
+
+  public JacksonParallelDeserializer() {
+    this(new JacksonDeserializer<>(), null);
+  }
+
+  public JacksonParallelDeserializer(Class<T> cls) {
+    this(new JacksonDeserializer<>(cls), null);
+  }
+
+  public JacksonParallelDeserializer(TypeReference<T> typeReference) {
+    this(new JacksonDeserializer<>(typeReference), null);
+  }
+
+  public JacksonParallelDeserializer(Class<T> cls, Executor executor) {
+    this(new JacksonDeserializer<>(cls), executor);
+  }
+
+  public JacksonParallelDeserializer(TypeReference<T> typeReference, Executor executor) {
+    this(new JacksonDeserializer<>(typeReference), executor);
+  }
+
+  private JacksonParallelDeserializer(JacksonDeserializer<T> deserializer, Executor executor) {
+    this.deserializer = deserializer;
+    this.suppliedExecutor = executor;
+  }
+
+  public void configure(Map<String, ?> settings, boolean isKey) {
+    this.deserializer.configure(settings, isKey);
+    final JacksonDeserializerConfig config = this.deserializer.config();
+    this.chunkSize = config.parallelChunkSize;
+    shutdownExecutor();
+    if (null != this.suppliedExecutor) {
+      this.executor = this.suppliedExecutor;
+    } else {
+      final int threads = 0 == config.parallelThreads ?
+          Runtime.getRuntime().availableProcessors() :
+          config.parallelThreads;
+      this.ownedExecutor = Executors.newFixedThreadPool(threads, threadFactory());
+      this.executor = this.ownedExecutor;
+    }
+  }
+
+  private static ThreadFactory threadFactory() {
+    final int pool = POOL_NUMBER.incrementAndGet();
+    final AtomicInteger thread = new AtomicInteger();
+    return runnable -> {
+      final Thread result = new Thread(runnable, String.format("jackson-deserializer-%s-%s", pool, thread.incrementAndGet()));
+      result.setDaemon(true);
+      return result;
+    };
+  }
+
+  /**
+   * Deserializer the workers delegate to.
+   *
+   * @return underlying deserializer
+   */
+  public JacksonDeserializer<T> deserializer() {
+    return this.deserializer;
+  }
+
+  /**
+   * Starts deserializing the supplied records and returns without waiting for them. This allows the next
+   * {@code poll()} to overlap with binding the previous batch.
+   *
+   * @param records records returned by {@code poll()}
+   * @param <K>     type of the record keys, which are passed through as is
+   * @return future completed with the deserialized records, or completed exceptionally with the first
+   * failure
+   * @throws IllegalStateException if the deserializer has not been configured or has been closed
+   */
+  public <K> CompletableFuture<ConsumerRecords<K, T>> submit(ConsumerRecords<K, byte[]> records) {
+    final Executor executor = this.executor;
+    if (null == executor) {
+      throw new IllegalStateException(
+          "JacksonParallelDeserializer must be configured before records are submitted, and can not be used once it is closed."
+      );
+    }
+    final int chunkSize = this.chunkSize;
+    final Map<TopicPartition, CompletableFuture<List<ConsumerRecord<K, T>>>> partitions = new LinkedHashMap<>();
+    for (TopicPartition partition : records.partitions()) {
+      partitions.put(partition, submit(executor, chunkSize, partition.topic(), records.records(partition)));
+    }
+    return CompletableFuture.allOf(partitions.values().toArray(new CompletableFuture[0]))
+        .thenApply(ignored -> {
+          final Map<TopicPartition, List<ConsumerRecord<K, T>>> result = new LinkedHashMap<>(partitions.size() * 2);
+          partitions.forEach((partition, future) -> result.put(partition, future.join()));
+          return new ConsumerRecords<>(result);
+        });
+  }
+
+  /**
+   * Deserializes the supplied records and waits for the result.
+   *
+   * @param records records returned by {@code poll()}
+   * @param <K>     type of the record keys, which are passed through as is
+   * @return deserialized records in the same per partition order
+   * @throws IllegalStateException if the deserializer has not been configured or has been closed
+   */
+  public <K> ConsumerRecords<K, T> deserialize(ConsumerRecords<K, byte[]> records) {
+    try {
+      return submit(records).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private <K> CompletableFuture<List<ConsumerRecord<K, T>>> submit(Executor executor, int chunkSize, String topic,
+                                                                   List<ConsumerRecord<K, byte[]>> records) {
+    final ObjectReader topicReader = this.deserializer.reader(topic);
+    final int size = records.size();
+    if (size <= chunkSize) {
+      return CompletableFuture.supplyAsync(() -> bind(topicReader, records), executor);
+    }
+    final List<CompletableFuture<List<ConsumerRecord<K, T>>>> chunks = new ArrayList<>(size / chunkSize + 1);
+    for (int start = 0; start < size; start += chunkSize) {
+      final List<ConsumerRecord<K, byte[]>> chunk = records.subList(start, Math.min(size, start + chunkSize));
+      chunks.add(CompletableFuture.supplyAsync(() -> bind(topicReader, chunk), executor));
+    }
+    return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]))
+        .thenApply(ignored -> {
+          final List<ConsumerRecord<K, T>> result = new ArrayList<>(size);
+          for (CompletableFuture<List<ConsumerRecord<K, T>>> chunk : chunks) {
+            result.addAll(chunk.join());
+          }
+          return result;
+        });
+  }
+
+  private <K> List<ConsumerRecord<K, T>> bind(ObjectReader topicReader, List<ConsumerRecord<K, byte[]>> records) {
+    final boolean typeHeaders = this.deserializer.typeHeaders();
+    final List<ConsumerRecord<K, T>> result = new ArrayList<>(records.size());
+    for (ConsumerRecord<K, byte[]> record : records) {
+      final byte[] bytes = record.value();
+      T value = null;
+      if (null != bytes) {
+        final ObjectReader reader = typeHeaders ?
+            this.deserializer.reader(record.topic(), record.headers()) :
+            topicReader;
+        value = this.deserializer.read(record.topic(), reader, bytes);
+      }
+      result.add(
+          new ConsumerRecord<>(
+              record.topic(),
+              record.partition(),
+              record.offset(),
+              record.timestamp(),
+              record.timestampType(),
+              null,
+              record.serializedKeySize(),
+              record.serializedValueSize(),
+              record.key(),
+              value,
+              record.headers(),
+              record.leaderEpoch()
+          )
+      );
+    }
+    return result;
+  }
+
+  /**
+   * Returns the offsets to commit once the supplied records have been processed, which is the offset
+   * after the last record of each partition.
+   *
+   * @param records records that have been processed
+   * @return offsets to pass to {@code commitSync()} or {@code commitAsync()}
+   */
+  public static Map<TopicPartition, OffsetAndMetadata> nextOffsets(ConsumerRecords<?, ?> records) {
+    final Map<TopicPartition, OffsetAndMetadata> result = new LinkedHashMap<>(records.partitions().size() * 2);
+    for (TopicPartition partition : records.partitions()) {
+      final List<? extends ConsumerRecord<?, ?>> partitionRecords = records.records(partition);
+      if (!partitionRecords.isEmpty()) {
+        final long offset = partitionRecords.get(partitionRecords.size() - 1).offset();
+        result.put(partition, new OffsetAndMetadata(offset + 1));
+      }
+    }
+    return result;
+  }
+
+  private void shutdownExecutor() {
+    if (null != this.ownedExecutor) {
+      this.ownedExecutor.shutdown();
+      this.ownedExecutor = null;
+    }
+  }
+
+  @Override
+  public void close() {
+    shutdownExecutor();
+    this.executor = null;
+    this.deserializer.close();
+  }
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.core.FormatSchema;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Deserializer for values that pack many records, either written with {@code collection.format} set to
+ * {@code NDJSON} or as a JSON array. The returned iterator parses one element at a time as it is advanced
+ * so the whole collection is never materialized. Errors reading an element are thrown from
+ * {@link Iterator#hasNext()} and {@link Iterator#next()} as {@link SerializationException}, the same as errors
+ * reading the start of the value. Elements are bound to {@code output.class} or
+ * {@code output.type}. Accepts the same settings as {@link JacksonDeserializer}, although
+ * {@code projection.paths}, {@code filter.conditions} and {@code object.reuse.enable} are not applied to
+ * the elements.
+ *
+ * @param <T> type the elements are bound to
+ */
+public class JacksonSequenceDeserializer<T> implements Deserializer<MappingIterator<T>> {
+  private final JacksonDeserializer<T> deserializer;
+
+  public JacksonSequenceDeserializer() {
+    this.deserializer = new JacksonDeserializer<>();
+  }
+
+  public JacksonSequenceDeserializer(Class<T> cls) {
+    this.deserializer = new JacksonDeserializer<>(cls);
+  }
+
+  public JacksonSequenceDeserializer(TypeReference<T> typeReference) {
+    this.deserializer = new JacksonDeserializer<>(typeReference);
+  }
+
+  @Override
+  public void configure(Map<String, ?> settings, boolean isKey) {
+    this.deserializer.configure(settings, isKey);
+  }
+
+  @Override
+  public MappingIterator<T> deserialize(String topic, byte[] bytes) {
+    if (null == bytes) {
+      return null;
+    }
+    return readValues(this.deserializer.reader(topic), bytes);
+  }
+
+  @Override
+  public MappingIterator<T> deserialize(String topic, Headers headers, byte[] bytes) {
+    if (null == bytes) {
+      return null;
+    }
+    return readValues(this.deserializer.reader(topic, headers), bytes);
+  }
+
+  private static <T> MappingIterator<T> readValues(ObjectReader reader, byte[] bytes) {
+    try {
+      return new SequenceIterator<>(reader.<T>readValues(bytes));
+    } catch (IOException e) {
+      throw new SerializationException(e);
+    }
+  }
+
+  /**
+   * Returns a sequential stream over the remaining elements of the iterator. Elements are parsed as the
+   * stream is consumed.
+   *
+   * @param iterator iterator returned by {@link #deserialize(String, byte[])}
+   * @param <T>      type of the elements
+   * @return stream of the remaining elements
+   */
+  public static <T> Stream<T> stream(Iterator<T> iterator) {
+    return StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED),
+        false
+    );
+  }
+
+  @Override
+  public void close() {
+    this.deserializer.close();
+  }
+
+  /**
+   * Wraps the iterator of the reader so {@link #hasNext()} and {@link #next()} throw
+   * {@link SerializationException} instead of the runtime exceptions of {@link MappingIterator}. The
+   * methods that declare {@link IOException} are passed through as they are.
+   */
+  static final class SequenceIterator<T> extends MappingIterator<T> {
+    private final MappingIterator<T> iterator;
+
+    SequenceIterator(MappingIterator<T> iterator) {
+      super(null, null, null, null, false, null);
+      this.iterator = iterator;
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        return this.iterator.hasNextValue();
+      } catch (IOException e) {
+        throw new SerializationException(e);
+      }
+    }
+
+    @Override
+    public T next() {
+      try {
+        return this.iterator.nextValue();
+      } catch (IOException e) {
+        throw new SerializationException(e);
+      }
+    }
+
+    @Override
+    public void remove() {
+      this.iterator.remove();
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.iterator.close();
+    }
+
+    @Override
+    public boolean hasNextValue() throws IOException {
+      return this.iterator.hasNextValue();
+    }
+
+    @Override
+    public T nextValue() throws IOException {
+      return this.iterator.nextValue();
+    }
+
+    @Override
+    public List<T> readAll() throws IOException {
+      return this.iterator.readAll();
+    }
+
+    @Override
+    public <L extends List<? super T>> L readAll(L resultList) throws IOException {
+      return this.iterator.readAll(resultList);
+    }
+
+    @Override
+    public <C extends Collection<? super T>> C readAll(C results) throws IOException {
+      return this.iterator.readAll(results);
+    }
+
+    @Override
+    public JsonParser getParser() {
+      return this.iterator.getParser();
+    }
+
+    @Override
+    public FormatSchema getParserSchema() {
+      return this.iterator.getParserSchema();
+    }
+
+    @Override
+    public JsonLocation getCurrentLocation() {
+      return this.iterator.getCurrentLocation();
+    }
+  }
+}
@@ -15,21 +15,25 @@
  */
 package com.github.jcustenborder.kafka.serialization.jackson;
 
-import org.apache.kafka.common.serialization.Deserializer;
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.apache.kafka.common.serialization.Serde;
-import org.apache.kafka.common.serialization.Serializer;
 
 import java.util.Map;
 
 public class JacksonSerde<T> implements Serde<T> {
-  private final Serializer<T> serializer;
-  private final Deserializer<T> deserializer;
+  private final JacksonSerializer<T> serializer;
+  private final JacksonDeserializer<T> deserializer;
 
   private JacksonSerde(Class<T> cls) {
     this.deserializer = new JacksonDeserializer<>(cls);
     this.serializer = new JacksonSerializer<>();
   }
 
+  private JacksonSerde(TypeReference<T> typeReference) {
+    this.deserializer = new JacksonDeserializer<>(typeReference);
+    this.serializer = new JacksonSerializer<>();
+  }
+
   public JacksonSerde() {
     this.deserializer = new JacksonDeserializer<>();
     this.serializer = new JacksonSerializer<>();
@@ -39,6 +43,17 @@ public class JacksonSerde<T> implements Serde<T> {
     return new JacksonSerde<>(cls);
   }
 
+  /**
+   * Creates a serde for a generic type such as {@code new TypeReference<List<Order>>() { }}.
+   *
+   * @param typeReference type to deserialize to
+   * @param <T>           type to deserialize to
+   * @return serde for the type
+   */
+  public static final <T> JacksonSerde<T> of(TypeReference<T> typeReference) {
+    return new JacksonSerde<>(typeReference);
+  }
+
   @Override
   public void configure(Map<String, ?> settings, boolean isKey) {
     this.serializer.configure(settings, isKey);
@@ -52,12 +67,12 @@ public class JacksonSerde<T> implements Serde<T> {
   }
 
   @Override
-  public Serializer<T> serializer() {
+  public JacksonSerializer<T> serializer() {
     return this.serializer;
   }
 
   @Override
-  public Deserializer<T> deserializer() {
+  public JacksonDeserializer<T> deserializer() {
     return this.deserializer;
   }
 }
@@ -15,45 +15,341 @@
  */
 package com.github.jcustenborder.kafka.serialization.jackson;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.metrics.Metrics;
 import org.apache.kafka.common.serialization.Serializer;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class JacksonSerializer<T> implements Serializer<T> {
   private ObjectMapper objectMapper;
   private JacksonSerializerConfig config;
+  private ObjectWriter writer;
+  private ObjectWriter sequenceWriter;
+  private boolean sizeTracking;
+  private TypeIdMapping typeIds;
+  private String typeHeaderName;
+  private String formatName;
+  private PassthroughCache passthrough;
+  private Metrics metricsRegistry;
+  private SerdeMetrics metrics;
+  private SerdeEvents events;
+  private OutputBufferRecycler outputBuffers;
+  private final ConcurrentMap<String, PayloadSizeTracker> payloadSizes = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Class<?>, TypedWriter> typedWriters = new ConcurrentHashMap<>();
 
   public JacksonSerializer() {
-    this.objectMapper = new ObjectMapper();
+    this.formatName = JsonFactory.FORMAT_NAME_JSON;
+  }
+
+  ObjectMapper objectMapper() {
+    return this.objectMapper;
+  }
+
+  SerdeMetrics metrics() {
+    return this.metrics;
   }
 
   public static Map<String, String> nonDefaultSettings(ObjectMapper objectMapper) {
     return JacksonSerializerConfig.nonDefaultSettings(objectMapper);
   }
 
+  /**
+   * Registers the metrics enabled by {@code metrics.enable} with the supplied registry instead of a
+   * registry owned by the serializer. Must be called before {@link #configure(Map, boolean)}.
+   *
+   * @param metrics registry to register the metrics with
+   */
+  public void metricsRegistry(Metrics metrics) {
+    this.metricsRegistry = metrics;
+  }
+
   @Override
   public void configure(Map<String, ?> settings, boolean isKey) {
     this.config = new JacksonSerializerConfig(settings);
-    this.config.configure(this.objectMapper);
+    ObjectMapperRegistry.release(this.objectMapper);
+    this.objectMapper = this.config.acquireObjectMapper();
+    this.writer = this.objectMapper.writer();
+    this.formatName = this.objectMapper.getFactory().getFormatName();
+    this.typedWriters.clear();
+    this.sequenceWriter = CollectionFormat.NDJSON == this.config.collectionFormat ?
+        this.writer.withRootValueSeparator("\n") :
+        null;
+    PassthroughCache.release(this.passthrough);
+    this.passthrough = this.config.passthroughEnable ?
+        PassthroughCache.acquire(this.config.passthroughMaxEntries, this.config.passthroughMaxBytes) :
+        null;
+    if (null != this.outputBuffers) {
+      this.outputBuffers.close();
+    }
+    this.outputBuffers = this.config.bufferRecyclingEnable ?
+        new OutputBufferRecycler(this.config.bufferRecyclingMaxBytes) :
+        null;
+    this.sizeTracking = this.config.bufferRecyclingEnable || this.config.metricsEnable;
+    this.typeHeaderName = this.config.typeHeaderName;
+    this.typeIds = this.config.typeHeaderEnable ?
+        TypeIdMapping.parse(JacksonSerializerConfig.TYPE_ID_MAPPING_CONFIG, this.config.typeIdMapping) :
+        null;
+    if (null != this.metrics) {
+      this.metrics.close();
+    }
+    this.metrics = this.config.metricsEnable ?
+        new SerdeMetrics(
+            this.metricsRegistry,
+            "jackson-serializer-metrics",
+            "serialize-time-ns",
+            settings,
+            isKey,
+            true
+        ) :
+        null;
+    if (null != this.events) {
+      this.events.close();
+    }
+    this.events = this.config.jfrEnable ?
+        SerdeEvents.create("serialize", this.config.jfrDurationThresholdUs, this.config.jfrSizeThresholdBytes) :
+        null;
+    warmup();
+  }
+
+  private void warmup() {
+    if (WarmupMode.NONE == this.config.warmup) {
+      return;
+    }
+    Warmup.serializers(this.objectMapper, this.config.warmupClasses);
+    if (WarmupMode.ROUNDTRIP == this.config.warmup) {
+      Warmup.roundTrip(this.objectMapper, this.config.warmupClasses, this.config.warmupIterations);
+    }
+  }
+
+  /**
+   * Returns a writer bound to the runtime type of the message. Writers are kept for every class that was
+   * written, so topics that interleave types never build a writer again.
+   */
+  TypedWriter typedWriter(Class<?> cls) {
+    final TypedWriter result = this.typedWriters.get(cls);
+    if (null != result) {
+      return result;
+    }
+    return this.typedWriters.computeIfAbsent(cls, this::newTypedWriter);
+  }
+
+  private TypedWriter newTypedWriter(Class<?> cls) {
+    final TypeIdMapping typeIds = this.typeIds;
+    final ObjectWriter writer = null == this.writer ? ObjectMapperFactory.unconfigured().writer() : this.writer;
+    return new TypedWriter(
+        cls,
+        writer.forType(cls),
+        null == typeIds ? null : typeIds.typeId(cls)
+    );
   }
 
   @Override
   public byte[] serialize(String topic, T message) {
+    return serialize(topic, null, message);
+  }
+
+  /**
+   * Serializes the message and, when {@code type.header.enable} is set, writes the type id of the
+   * message to the {@code type.header.name} header so the deserializer knows the class before it starts
+   * parsing.
+   */
+  @Override
+  public byte[] serialize(String topic, Headers headers, T message) {
+    final SerdeMetrics metrics = this.metrics;
+    final SerdeEvents events = this.events;
+    if (null == message || (null == metrics && (null == events || !events.isEnabled()))) {
+      return serializeMessage(topic, headers, message);
+    }
+    final Object event = null == events ? null : events.begin();
+    final long start = System.nanoTime();
+    try {
+      final byte[] result = serializeMessage(topic, headers, message);
+      final long elapsed = System.nanoTime() - start;
+      final int size = null == result ? 0 : result.length;
+      if (null != metrics) {
+        metrics.topic(topic).record(size, elapsed);
+      }
+      if (null != events) {
+        events.record(event, topic, message.getClass(), size, elapsed);
+      }
+      return result;
+    } catch (RuntimeException e) {
+      if (null != metrics) {
+        metrics.topic(topic).error();
+      }
+      throw e;
+    }
+  }
+
+  private byte[] serializeMessage(String topic, Headers headers, T message) {
+    if (message instanceof Lazy) {
+      return serializeLazy(topic, headers, (Lazy<?>) message);
+    }
+    return serializeTyped(topic, headers, message);
+  }
+
+  private byte[] serializeTyped(String topic, Headers headers, Object message) {
     if (null == message) {
       return null;
     }
+    final TypedWriter typedWriter = typedWriter(message.getClass());
+    writeTypeHeader(headers, typedWriter);
+    return write(topic, typedWriter.writer, message);
+  }
+
+  private void writeTypeHeader(Headers headers, TypedWriter typedWriter) {
+    if (null != headers && null != typedWriter.typeId) {
+      headers.remove(this.typeHeaderName);
+      headers.add(this.typeHeaderName, typedWriter.typeId);
+    }
+  }
+
+  /**
+   * Writes the original bytes of a {@link Lazy} that was never materialized and is in the same format.
+   * When {@code type.header.enable} is set the type header is written for the class the bytes are bound
+   * to, and the value is bound first if that class is only known after binding. Otherwise the bound value
+   * is serialized.
+   */
+  private byte[] serializeLazy(String topic, Headers headers, Lazy<?> message) {
+    if (message.isPassthrough(this.formatName)) {
+      if (null == headers || null == this.typeIds) {
+        return message.bytes();
+      }
+      final Class<?> type = message.type();
+      if (null != type) {
+        writeTypeHeader(headers, typedWriter(type));
+        return message.bytes();
+      }
+    }
+    return serializeTyped(topic, headers, message.get());
+  }
+
+  private byte[] write(String topic, ObjectWriter writer, Object message) {
+    final boolean sequence = null != this.sequenceWriter && message instanceof Collection;
+    final PassthroughCache passthrough = this.passthrough;
+    if (null != passthrough && !sequence) {
+      final byte[] bytes = passthrough.get(message, this.formatName);
+      if (null != bytes) {
+        return bytes;
+      }
+    }
     try {
-      return this.objectMapper.writeValueAsBytes(message);
-    } catch (JsonProcessingException e) {
+      final PayloadSizeTracker sizeTracker = this.sizeTracking ? payloadSizeTracker(topic) : null;
+      final byte[] result;
+      final OutputBufferRecycler outputBuffers = this.outputBuffers;
+      if (null != outputBuffers) {
+        final OutputBuffer buffer = outputBuffers.acquire(sizeTracker.sizeClass());
+        try {
+          writeValue(buffer, writer, message);
+          result = buffer.toByteArray();
+        } finally {
+          outputBuffers.release(buffer);
+        }
+      } else if (sequence || (null != sizeTracker && sizeTracker.sizeClass() > PayloadSizeTracker.PRESIZE_THRESHOLD)) {
+        final OutputBuffer buffer = new OutputBuffer(
+            null == sizeTracker ? PayloadSizeTracker.MINIMUM_SIZE : sizeTracker.sizeClass()
+        );
+        writeValue(buffer, writer, message);
+        result = buffer.toByteArray();
+      } else {
+        result = writer.writeValueAsBytes(message);
+      }
+      if (null != sizeTracker) {
+        sizeTracker.record(result.length);
+      }
+      return result;
+    } catch (IOException e) {
       throw new SerializationException(e);
     }
   }
 
+  private void writeValue(OutputStream output, ObjectWriter writer, Object message) throws IOException {
+    if (null != this.sequenceWriter && message instanceof Collection) {
+      writeSequence(output, (Collection<?>) message);
+    } else {
+      writer.writeValue(output, message);
+    }
+  }
+
+  /**
+   * Writes every element of the collection as its own root value when {@code collection.format} is
+   * {@code NDJSON}.
+   */
+  private void writeSequence(OutputStream output, Collection<?> message) throws IOException {
+    try (SequenceWriter sequence = this.sequenceWriter.writeValues(output)) {
+      sequence.writeAll(message);
+    }
+  }
+
+  /**
+   * Returns the capacity of the buffers kept for reuse across all threads that are still running.
+   */
+  long recycledBufferBytes() {
+    final OutputBufferRecycler outputBuffers = this.outputBuffers;
+    return null == outputBuffers ? 0L : outputBuffers.bytes();
+  }
+
+  private PayloadSizeTracker payloadSizeTracker(String topic) {
+    final String key = null == topic ? "" : topic;
+    PayloadSizeTracker result = this.payloadSizes.get(key);
+    if (null == result) {
+      result = this.payloadSizes.computeIfAbsent(key, k -> new PayloadSizeTracker());
+    }
+    return result;
+  }
+
+  /**
+   * Returns the sizes of the records written to each topic so far. Sizes are tracked when
+   * {@code buffer.recycling.enable} or {@code metrics.enable} is set, otherwise the result is empty.
+   *
+   * @return statistics by topic
+   */
+  public Map<String, PayloadSizeStatistics> payloadSizeStatistics() {
+    final Map<String, PayloadSizeStatistics> result = new TreeMap<>();
+    this.payloadSizes.forEach((topic, tracker) -> result.put(topic, new PayloadSizeStatistics(tracker.histogram())));
+    return result;
+  }
+
   @Override
   public void close() {
+    if (null != this.outputBuffers) {
+      this.outputBuffers.close();
+    }
+    PassthroughCache.release(this.passthrough);
+    this.passthrough = null;
+    if (null != this.metrics) {
+      this.metrics.close();
+      this.metrics = null;
+    }
+    if (null != this.events) {
+      this.events.close();
+      this.events = null;
+    }
+    ObjectMapperRegistry.release(this.objectMapper);
+    this.objectMapper = null;
+  }
+
+  static final class TypedWriter {
+    final Class<?> cls;
+    final ObjectWriter writer;
+    final byte[] typeId;
 
+    TypedWriter(Class<?> cls, ObjectWriter writer, byte[] typeId) {
+      this.cls = cls;
+      this.writer = writer;
+      this.typeId = typeId;
+    }
   }
 }
@@ -23,9 +23,13 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.apache.kafka.common.config.AbstractConfig;
 import org.apache.kafka.common.config.ConfigDef;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class JacksonSerializerConfig extends AbstractConfig {
 
@@ -74,6 +78,25 @@ public class JacksonSerializerConfig extends AbstractConfig {
   public final static String WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS_CONFIG = "write.date.timestamps.as.nanoseconds.enable";
   public final static String ORDER_MAP_ENTRIES_BY_KEYS_CONFIG = "order.map.entries.by.keys.enable";
   public final static String USE_EQUALITY_FOR_OBJECT_ID_CONFIG = "use.equality.for.object.id.enable";
+  public final static String BUFFER_RECYCLING_ENABLE_CONFIG = "buffer.recycling.enable";
+  public final static String BUFFER_RECYCLING_MAX_BYTES_CONFIG = "buffer.recycling.max.bytes";
+  public final static String FORMAT_CONFIG = "format";
+  public final static String ACCESSOR_OPTIMIZATION_CONFIG = "accessor.optimization";
+  public final static String WARMUP_CONFIG = "warmup";
+  public final static String WARMUP_CLASSES_CONFIG = "warmup.classes";
+  public final static String WARMUP_ITERATIONS_CONFIG = "warmup.iterations";
+  public final static String TYPE_HEADER_ENABLE_CONFIG = "type.header.enable";
+  public final static String TYPE_HEADER_NAME_CONFIG = "type.header.name";
+  public final static String TYPE_ID_MAPPING_CONFIG = "type.id.mapping";
+  public final static String PASSTHROUGH_ENABLE_CONFIG = "passthrough.enable";
+  public final static String PASSTHROUGH_MAX_ENTRIES_CONFIG = "passthrough.max.entries";
+  public final static String COLLECTION_FORMAT_CONFIG = "collection.format";
+  public final static String METRICS_ENABLE_CONFIG = "metrics.enable";
+  public final static String JFR_ENABLE_CONFIG = "jfr.enable";
+  public final static String JFR_DURATION_THRESHOLD_US_CONFIG = "jfr.duration.threshold.us";
+  public final static String JFR_SIZE_THRESHOLD_BYTES_CONFIG = "jfr.size.threshold.bytes";
+  public final static String PASSTHROUGH_MAX_BYTES_CONFIG = "passthrough.max.bytes";
+  public final static String GENERATED_CODECS_ENABLE_CONFIG = "generated.codecs.enable";
   final static String JAVA_TIME_MODULE_ENABLE_DOC = "Flag to register the java time module.";
   final static String USE_ANNOTATIONS_DOC = "See [USE_ANNOTATIONS](https://fasterxml.github.io/jackson-databind/javadoc/2.9/com/fasterxml/jackson/databind/MapperFeature.html#USE_ANNOTATIONS)";
   final static String USE_GETTERS_AS_SETTERS_DOC = "See [USE_GETTERS_AS_SETTERS](https://fasterxml.github.io/jackson-databind/javadoc/2.9/com/fasterxml/jackson/databind/MapperFeature.html#USE_GETTERS_AS_SETTERS)";
@@ -117,6 +140,25 @@ public class JacksonSerializerConfig extends AbstractConfig {
   final static String WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS_DOC = "See [WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS](https://fasterxml.github.io/jackson-databind/javadoc/2.9/com/fasterxml/jackson/databind/SerializationFeature.html#WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS)";
   final static String ORDER_MAP_ENTRIES_BY_KEYS_DOC = "See [ORDER_MAP_ENTRIES_BY_KEYS](https://fasterxml.github.io/jackson-databind/javadoc/2.9/com/fasterxml/jackson/databind/SerializationFeature.html#ORDER_MAP_ENTRIES_BY_KEYS)";
   final static String USE_EQUALITY_FOR_OBJECT_ID_DOC = "See [USE_EQUALITY_FOR_OBJECT_ID](https://fasterxml.github.io/jackson-databind/javadoc/2.9/com/fasterxml/jackson/databind/SerializationFeature.html#USE_EQUALITY_FOR_OBJECT_ID)";
+  final static String BUFFER_RECYCLING_ENABLE_DOC = "Flag to serialize into a buffer that is reused by each thread instead of allocating a new buffer for every record. Only the final copy required by the Serializer contract is made. The buffer is pre-sized from the sizes of recent records on the topic.";
+  final static String BUFFER_RECYCLING_MAX_BYTES_DOC = "The largest buffer a thread will keep for reuse when `buffer.recycling.enable` is set. Buffers that grow past this size are released once the record has been serialized. Every thread that calls the serializer keeps one buffer, so up to this many bytes per thread stay allocated until the thread ends or the serializer is closed.";
+  final static String FORMAT_DOC = "The data format to read and write. `JSON` is plain JSON. `SMILE`, `CBOR` and `ION` are binary formats that require the matching jackson-dataformat module on the classpath. Smile is configured to write shared property names and string values as back references.";
+  final static String ACCESSOR_OPTIMIZATION_DOC = "How bean properties are accessed. `NONE` uses reflection. `AFTERBURNER` registers the Afterburner module which generates bytecode accessors for every type reached from the serialized classes. Requires jackson-module-afterburner on the classpath.";
+  final static String WARMUP_DOC = "Work done in configure() so the first records do not pay for building serializers and deserializers. `NONE` builds them lazily. `CACHES` walks the type graph of the configured classes and builds them up front. `ROUNDTRIP` also runs synthetic round trips through the configured classes.";
+  final static String WARMUP_CLASSES_DOC = "Classes to warm up when `warmup` is enabled.";
+  final static String WARMUP_ITERATIONS_DOC = "Number of synthetic round trips per class when `warmup` is `ROUNDTRIP`.";
+  final static String TYPE_HEADER_ENABLE_DOC = "Flag to write the type id of each value to the `type.header.name` header. The type id is the alias from `type.id.mapping` or the class name.";
+  final static String TYPE_HEADER_NAME_DOC = "Name of the record header carrying the type id of the value.";
+  final static String TYPE_ID_MAPPING_DOC = "Compact type ids written to the type header. Entries are in the format `<type id>:<class>`, for example `order:com.example.Order`.";
+  final static String PASSTHROUGH_ENABLE_DOC = "Flag to write values that were read by a JacksonDeserializer with `passthrough.enable` set as the bytes they were read from instead of encoding them again. The deserializer only remembers values of classes annotated with `@Immutable` or listed in its `passthrough.classes` setting. Remembered bytes are written whenever the format matches. Settings that change how this serializer writes values, such as naming, inclusion or indentation, are not applied to them, so only enable this when the deserializer reads the same shape this serializer would write.";
+  final static String PASSTHROUGH_MAX_ENTRIES_DOC = "Number of values the pass through cache remembers. Serializers and deserializers configured with the same `passthrough.max.entries` and `passthrough.max.bytes` share a cache.";
+  final static String COLLECTION_FORMAT_DOC = "How messages that are a collection are written. `ARRAY` writes a single JSON array. `NDJSON` writes every element as its own value separated by a newline, which JacksonSequenceDeserializer can read back one element at a time.";
+  final static String METRICS_ENABLE_DOC = "Flag to record per topic record and byte rates, serialize times and error counts and register them with Kafka metrics. Metrics are reported over JMX under the `kafka.serialization.jackson` prefix in the `jackson-serializer-metrics` group.";
+  final static String JFR_ENABLE_DOC = "Flag to emit Java Flight Recorder events for records over `jfr.duration.threshold.us` or `jfr.size.threshold.bytes` and a periodic summary per topic. Nothing is measured while no recording is running. Ignored on runtimes without the jdk.jfr API.";
+  final static String JFR_DURATION_THRESHOLD_US_DOC = "Records that take at least this many microseconds emit a flight recorder event when `jfr.enable` is set.";
+  final static String JFR_SIZE_THRESHOLD_BYTES_DOC = "Records of at least this many bytes emit a flight recorder event when `jfr.enable` is set.";
+  final static String PASSTHROUGH_MAX_BYTES_DOC = "Total size in bytes of the payloads the pass through cache holds. Values are not remembered while the cache is full.";
+  final static String GENERATED_CODECS_ENABLE_DOC = "Flag to use the serializers generated for classes annotated with `@JacksonCodec`. The generated code follows Jackson's default property detection, so the bean serializers are still used for a class whenever the ObjectMapper is configured differently, for example with `sort.properties.alphabetically.enable`, a disabled `auto.detect.*` setting or a serialization inclusion other than `ALWAYS` or `NON_NULL`.";
 
   static {
     final Map<ConfigFeature, String> configFeatureToConfig = new LinkedHashMap();
@@ -209,6 +251,29 @@ public class JacksonSerializerConfig extends AbstractConfig {
     CONFIG_TO_CONFIGFEATURE = Collections.unmodifiableMap(configToConfigFeature);
   }
 
+  /**
+   * Settings that do not change how the ObjectMapper is built. These are left out of the key used to
+   * look up a shared ObjectMapper in the {@link ObjectMapperRegistry}.
+   */
+  static final Set<String> NON_MAPPER_CONFIGS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+      BUFFER_RECYCLING_ENABLE_CONFIG,
+      BUFFER_RECYCLING_MAX_BYTES_CONFIG,
+      WARMUP_CONFIG,
+      WARMUP_CLASSES_CONFIG,
+      WARMUP_ITERATIONS_CONFIG,
+      TYPE_HEADER_ENABLE_CONFIG,
+      TYPE_HEADER_NAME_CONFIG,
+      TYPE_ID_MAPPING_CONFIG,
+      PASSTHROUGH_ENABLE_CONFIG,
+      PASSTHROUGH_MAX_ENTRIES_CONFIG,
+      PASSTHROUGH_MAX_BYTES_CONFIG,
+      COLLECTION_FORMAT_CONFIG,
+      METRICS_ENABLE_CONFIG,
+      JFR_ENABLE_CONFIG,
+      JFR_DURATION_THRESHOLD_US_CONFIG,
+      JFR_SIZE_THRESHOLD_BYTES_CONFIG
+  )));
+
   public final Boolean javaTimeModuleEnable;
   public final Boolean useAnnotations;
   public final Boolean useGettersAsSetters;
@@ -252,6 +317,25 @@ public class JacksonSerializerConfig extends AbstractConfig {
   public final Boolean writeDateTimestampsAsNanoseconds;
   public final Boolean orderMapEntriesByKeys;
   public final Boolean useEqualityForObjectId;
+  public final Boolean bufferRecyclingEnable;
+  public final int bufferRecyclingMaxBytes;
+  public final DataFormat format;
+  public final AccessorOptimization accessorOptimization;
+  public final WarmupMode warmup;
+  public final List<Class<?>> warmupClasses;
+  public final int warmupIterations;
+  public final Boolean typeHeaderEnable;
+  public final String typeHeaderName;
+  public final List<String> typeIdMapping;
+  public final Boolean passthroughEnable;
+  public final int passthroughMaxEntries;
+  public final CollectionFormat collectionFormat;
+  public final Boolean metricsEnable;
+  public final Boolean jfrEnable;
+  public final long jfrDurationThresholdUs;
+  public final int jfrSizeThresholdBytes;
+  public final long passthroughMaxBytes;
+  public final Boolean generatedCodecsEnable;
 
   public JacksonSerializerConfig(Map<String, ?> settings) {
     super(JacksonSerializerConfig.config(), settings);
@@ -298,6 +382,25 @@ public class JacksonSerializerConfig extends AbstractConfig {
     writeDateTimestampsAsNanoseconds = super.getBoolean(WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS_CONFIG);
     orderMapEntriesByKeys = super.getBoolean(ORDER_MAP_ENTRIES_BY_KEYS_CONFIG);
     useEqualityForObjectId = super.getBoolean(USE_EQUALITY_FOR_OBJECT_ID_CONFIG);
+    bufferRecyclingEnable = super.getBoolean(BUFFER_RECYCLING_ENABLE_CONFIG);
+    bufferRecyclingMaxBytes = super.getInt(BUFFER_RECYCLING_MAX_BYTES_CONFIG);
+    format = DataFormat.valueOf(super.getString(FORMAT_CONFIG));
+    accessorOptimization = AccessorOptimization.valueOf(super.getString(ACCESSOR_OPTIMIZATION_CONFIG));
+    warmup = WarmupMode.valueOf(super.getString(WARMUP_CONFIG));
+    warmupClasses = Warmup.loadClasses(WARMUP_CLASSES_CONFIG, super.getList(WARMUP_CLASSES_CONFIG));
+    warmupIterations = super.getInt(WARMUP_ITERATIONS_CONFIG);
+    typeHeaderEnable = super.getBoolean(TYPE_HEADER_ENABLE_CONFIG);
+    typeHeaderName = super.getString(TYPE_HEADER_NAME_CONFIG);
+    typeIdMapping = super.getList(TYPE_ID_MAPPING_CONFIG);
+    passthroughEnable = super.getBoolean(PASSTHROUGH_ENABLE_CONFIG);
+    passthroughMaxEntries = super.getInt(PASSTHROUGH_MAX_ENTRIES_CONFIG);
+    collectionFormat = CollectionFormat.valueOf(super.getString(COLLECTION_FORMAT_CONFIG));
+    metricsEnable = super.getBoolean(METRICS_ENABLE_CONFIG);
+    jfrEnable = super.getBoolean(JFR_ENABLE_CONFIG);
+    jfrDurationThresholdUs = super.getLong(JFR_DURATION_THRESHOLD_US_CONFIG);
+    jfrSizeThresholdBytes = super.getInt(JFR_SIZE_THRESHOLD_BYTES_CONFIG);
+    passthroughMaxBytes = super.getLong(PASSTHROUGH_MAX_BYTES_CONFIG);
+    generatedCodecsEnable = super.getBoolean(GENERATED_CODECS_ENABLE_CONFIG);
   }
 
   public static ConfigDef config() {
@@ -345,6 +448,25 @@ public class JacksonSerializerConfig extends AbstractConfig {
     config.define(WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS_CONFIG, ConfigDef.Type.BOOLEAN, SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS.enabledByDefault(), ConfigDef.Importance.MEDIUM, WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS_DOC);
     config.define(ORDER_MAP_ENTRIES_BY_KEYS_CONFIG, ConfigDef.Type.BOOLEAN, SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS.enabledByDefault(), ConfigDef.Importance.MEDIUM, ORDER_MAP_ENTRIES_BY_KEYS_DOC);
     config.define(USE_EQUALITY_FOR_OBJECT_ID_CONFIG, ConfigDef.Type.BOOLEAN, SerializationFeature.USE_EQUALITY_FOR_OBJECT_ID.enabledByDefault(), ConfigDef.Importance.MEDIUM, USE_EQUALITY_FOR_OBJECT_ID_DOC);
+    config.define(BUFFER_RECYCLING_ENABLE_CONFIG, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.LOW, BUFFER_RECYCLING_ENABLE_DOC);
+    config.define(BUFFER_RECYCLING_MAX_BYTES_CONFIG, ConfigDef.Type.INT, 1024 * 1024, ConfigDef.Range.atLeast(1024), ConfigDef.Importance.LOW, BUFFER_RECYCLING_MAX_BYTES_DOC);
+    config.define(FORMAT_CONFIG, ConfigDef.Type.STRING, DataFormat.JSON.name(), ConfigDef.ValidString.in(DataFormat.JSON.name(), DataFormat.SMILE.name(), DataFormat.CBOR.name(), DataFormat.ION.name()), ConfigDef.Importance.MEDIUM, FORMAT_DOC);
+    config.define(ACCESSOR_OPTIMIZATION_CONFIG, ConfigDef.Type.STRING, AccessorOptimization.NONE.name(), ConfigDef.ValidString.in(AccessorOptimization.NONE.name(), AccessorOptimization.AFTERBURNER.name()), ConfigDef.Importance.LOW, ACCESSOR_OPTIMIZATION_DOC);
+    config.define(WARMUP_CONFIG, ConfigDef.Type.STRING, WarmupMode.NONE.name(), ConfigDef.ValidString.in(WarmupMode.NONE.name(), WarmupMode.CACHES.name(), WarmupMode.ROUNDTRIP.name()), ConfigDef.Importance.LOW, WARMUP_DOC);
+    config.define(WARMUP_CLASSES_CONFIG, ConfigDef.Type.LIST, "", ConfigDef.Importance.LOW, WARMUP_CLASSES_DOC);
+    config.define(WARMUP_ITERATIONS_CONFIG, ConfigDef.Type.INT, 1000, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, WARMUP_ITERATIONS_DOC);
+    config.define(TYPE_HEADER_ENABLE_CONFIG, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.LOW, TYPE_HEADER_ENABLE_DOC);
+    config.define(TYPE_HEADER_NAME_CONFIG, ConfigDef.Type.STRING, "jackson.type", ConfigDef.Importance.LOW, TYPE_HEADER_NAME_DOC);
+    config.define(TYPE_ID_MAPPING_CONFIG, ConfigDef.Type.LIST, "", ConfigDef.Importance.LOW, TYPE_ID_MAPPING_DOC);
+    config.define(PASSTHROUGH_ENABLE_CONFIG, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.LOW, PASSTHROUGH_ENABLE_DOC);
+    config.define(PASSTHROUGH_MAX_ENTRIES_CONFIG, ConfigDef.Type.INT, 16384, ConfigDef.Range.between(1, 1 << 24), ConfigDef.Importance.LOW, PASSTHROUGH_MAX_ENTRIES_DOC);
+    config.define(COLLECTION_FORMAT_CONFIG, ConfigDef.Type.STRING, CollectionFormat.ARRAY.name(), ConfigDef.ValidString.in(CollectionFormat.ARRAY.name(), CollectionFormat.NDJSON.name()), ConfigDef.Importance.LOW, COLLECTION_FORMAT_DOC);
+    config.define(METRICS_ENABLE_CONFIG, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.LOW, METRICS_ENABLE_DOC);
+    config.define(JFR_ENABLE_CONFIG, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.LOW, JFR_ENABLE_DOC);
+    config.define(JFR_DURATION_THRESHOLD_US_CONFIG, ConfigDef.Type.LONG, 10000L, ConfigDef.Range.atLeast(0), ConfigDef.Importance.LOW, JFR_DURATION_THRESHOLD_US_DOC);
+    config.define(JFR_SIZE_THRESHOLD_BYTES_CONFIG, ConfigDef.Type.INT, 1048576, ConfigDef.Range.atLeast(0), ConfigDef.Importance.LOW, JFR_SIZE_THRESHOLD_BYTES_DOC);
+    config.define(PASSTHROUGH_MAX_BYTES_CONFIG, ConfigDef.Type.LONG, 16L * 1024L * 1024L, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, PASSTHROUGH_MAX_BYTES_DOC);
+    config.define(GENERATED_CODECS_ENABLE_CONFIG, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.LOW, GENERATED_CODECS_ENABLE_DOC);
     return config;
   }
 
@@ -562,9 +684,40 @@ public class JacksonSerializerConfig extends AbstractConfig {
     if (enabledByDefault != isEnabled) {
       result.put(USE_EQUALITY_FOR_OBJECT_ID_CONFIG, Boolean.toString(isEnabled));
     }
+    final DataFormat format = DataFormat.forFormatName(objectMapper.getFactory().getFormatName());
+    if (null != format && DataFormat.JSON != format) {
+      result.put(FORMAT_CONFIG, format.name());
+    }
+    if (ObjectMapperFactory.isAfterburnerRegistered(objectMapper)) {
+      result.put(ACCESSOR_OPTIMIZATION_CONFIG, AccessorOptimization.AFTERBURNER.name());
+    }
     return result;
   }
 
+  /**
+   * Acquires the shared ObjectMapper for this configuration from the {@link ObjectMapperRegistry}.
+   * The caller must pass it to {@link ObjectMapperRegistry#release(ObjectMapper)} once it is done.
+   *
+   * @return shared ObjectMapper
+   */
+  ObjectMapper acquireObjectMapper() {
+    return ObjectMapperRegistry.acquire(
+        ObjectMapperRegistry.key(this, NON_MAPPER_CONFIGS),
+        this::createObjectMapper
+    );
+  }
+
+  /**
+   * Creates an ObjectMapper for the configured format with all of the settings applied.
+   */
+  public ObjectMapper createObjectMapper() {
+    final ObjectMapper objectMapper = ObjectMapperFactory.create(this.format);
+    ObjectMapperFactory.registerAccessorModule(objectMapper, this.accessorOptimization);
+    ObjectMapperFactory.registerGeneratedCodecs(objectMapper, this.generatedCodecsEnable);
+    configure(objectMapper);
+    return objectMapper;
+  }
+
   public void configure(final ObjectMapper objectMapper) {
     if (javaTimeModuleEnable) {
       objectMapper.registerModule(new JavaTimeModule());
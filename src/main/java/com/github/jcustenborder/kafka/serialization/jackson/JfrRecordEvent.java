@@ -0,0 +1,55 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for a record that was slower than {@code jfr.duration.threshold.us} or larger
+ * than {@code jfr.size.threshold.bytes}. Only loaded when the runtime ships the {@code jdk.jfr} API.
+ */
+@Name(JfrRecordEvent.NAME)
+@Label("Jackson Record")
+@Category({"Kafka", "Jackson"})
+@Description("A record that was slower or larger than the configured thresholds.")
+@StackTrace(false)
+class JfrRecordEvent extends Event {
+  static final String NAME = "com.github.jcustenborder.kafka.serialization.jackson.Record";
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Topic")
+  String topic;
+
+  @Label("Target Type")
+  Class<?> targetType;
+
+  @Label("Payload Size")
+  @DataAmount
+  long size;
+
+  @Label("Elapsed")
+  @Timespan(Timespan.NANOSECONDS)
+  long elapsed;
+}
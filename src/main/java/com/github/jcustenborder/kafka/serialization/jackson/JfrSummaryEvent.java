@@ -0,0 +1,60 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Periodic flight recorder event with the records handled per topic since the previous summary. Only
+ * loaded when the runtime ships the {@code jdk.jfr} API.
+ */
+@Name(JfrSummaryEvent.NAME)
+@Label("Jackson Summary")
+@Category({"Kafka", "Jackson"})
+@Description("Records serialized or deserialized for a topic since the previous summary.")
+@Period("10 s")
+@StackTrace(false)
+class JfrSummaryEvent extends Event {
+  static final String NAME = "com.github.jcustenborder.kafka.serialization.jackson.Summary";
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Topic")
+  String topic;
+
+  @Label("Records")
+  long records;
+
+  @Label("Bytes")
+  @DataAmount
+  long bytes;
+
+  @Label("Records Over Threshold")
+  long overThreshold;
+
+  @Label("Maximum Elapsed")
+  @Timespan(Timespan.NANOSECONDS)
+  long maxElapsed;
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Holds the serialized bytes of a record and only binds them on the first call to {@link #get()}.
+ * Returned by {@link JacksonLazyDeserializer} so records that are forwarded untouched never pay for
+ * binding. {@link JacksonSerializer} writes the original bytes back out unchanged as long as the value
+ * was never materialized and the formats match.
+ *
+ * @param <T> type the bytes are bound to
+ */
+public final class Lazy<T> {
+  private final JacksonDeserializer<T> deserializer;
+  private final ObjectReader reader;
+  private final Class<?> type;
+  private final byte[] bytes;
+  private volatile boolean materialized;
+  private T value;
+
+  Lazy(JacksonDeserializer<T> deserializer, ObjectReader reader, Class<?> type, byte[] bytes) {
+    this.deserializer = deserializer;
+    this.reader = reader;
+    this.type = type;
+    this.bytes = bytes;
+  }
+
+  /**
+   * Binds the bytes on the first call and returns the same instance afterwards.
+   *
+   * @return bound value
+   */
+  @JsonValue
+  public T get() {
+    if (!this.materialized) {
+      synchronized (this) {
+        if (!this.materialized) {
+          this.value = this.deserializer.read(this.reader, this.bytes);
+          this.materialized = true;
+        }
+      }
+    }
+    return this.value;
+  }
+
+  /**
+   * Returns true once {@link #get()} has been called.
+   *
+   * @return true if the value has been bound
+   */
+  public boolean isMaterialized() {
+    return this.materialized;
+  }
+
+  /**
+   * Returns the serialized bytes the value was read from. The array is not copied and must not be
+   * modified.
+   *
+   * @return serialized bytes
+   */
+  public byte[] bytes() {
+    return this.bytes;
+  }
+
+  /**
+   * Returns the class the bytes are bound to, or null if it is only known once they are bound.
+   */
+  Class<?> type() {
+    return this.type;
+  }
+
+  /**
+   * Returns true if the original bytes can be written back out instead of serializing the value again.
+   */
+  boolean isPassthrough(String formatName) {
+    return !this.materialized && this.reader.getFactory().getFormatName().equals(formatName);
+  }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of non negative values. Each power of two is split into eight linear sub buckets
+ * so percentiles are reported within 12.5% of the recorded value. Values from 0 to 7 are exact and values
+ * above {@link #MAX_VALUE} are recorded as {@link #MAX_VALUE}. Recording is a couple of shifts and two
+ * uncontended atomic increments.
+ */
+class Log2Histogram {
+  static final int SUB_BUCKET_BITS = 3;
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  static final int MAX_EXPONENT = 40;
+  static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+  static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Long::max, 0L);
+
+  static int bucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return value < 0 ? 0 : (int) value;
+    }
+    final long clamped = Math.min(value, MAX_VALUE);
+    final int exponent = 63 - Long.numberOfLeadingZeros(clamped);
+    final int shift = exponent - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) ((clamped >>> shift) & (SUB_BUCKETS - 1));
+  }
+
+  /**
+   * Returns the largest value that is recorded in the bucket.
+   */
+  static long upperBound(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    final int shift = bucket / SUB_BUCKETS - 1;
+    final long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    return lower + (1L << shift) - 1;
+  }
+
+  void record(long value) {
+    this.buckets.incrementAndGet(bucket(value));
+    this.count.increment();
+    this.sum.add(value);
+    this.max.accumulate(value);
+  }
+
+  /**
+   * Adds everything recorded so far to the target histogram.
+   */
+  void addTo(Log2Histogram target) {
+    for (int i = 0; i < BUCKETS; i++) {
+      final long count = this.buckets.get(i);
+      if (0 != count) {
+        target.buckets.addAndGet(i, count);
+      }
+    }
+    target.count.add(count());
+    target.sum.add(sum());
+    target.max.accumulate(max());
+  }
+
+  long count() {
+    return this.count.sum();
+  }
+
+  long sum() {
+    return this.sum.sum();
+  }
+
+  long max() {
+    return this.max.get();
+  }
+
+  double mean() {
+    final long count = count();
+    return 0 == count ? 0D : (double) sum() / count;
+  }
+
+  /**
+   * Returns the upper bound of the bucket holding the value at the percentile, capped at the largest
+   * recorded value.
+   *
+   * @param percentile percentile between 0 and 100
+   * @return value at the percentile, 0 if nothing was recorded
+   */
+  long percentile(double percentile) {
+    long total = 0;
+    final long[] counts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = this.buckets.get(i);
+      total += counts[i];
+    }
+    if (0 == total) {
+      return 0;
+    }
+    final long rank = Math.max(1L, (long) Math.ceil(total * percentile / 100D));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(upperBound(i), max());
+      }
+    }
+    return max();
+  }
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Writes the GraalVM native-image reflection configuration for the types a serializer or deserializer is
+ * configured with. The serde classes themselves are covered by the configuration shipped in
+ * {@code META-INF/native-image} and classes annotated with {@link JacksonCodec} by the configuration the
+ * annotation processor writes, so this is only needed for the remaining classes bound by
+ * {@code output.class}, {@code output.type}, {@code topic.type.mapping}, {@code type.id.mapping} and
+ * {@code warmup.classes}.
+ *
+ * <pre>
+ * java -cp ... com.github.jcustenborder.kafka.serialization.jackson.NativeImageConfig consumer.properties \
+ *   src/main/resources/META-INF/native-image/my-app/reflect-config.json
+ * </pre>
+ */
+public final class NativeImageConfig {
+  private NativeImageConfig() {
+
+  }
+
+  /**
+   * Returns every class reachable from the types configured in the settings. Classes from the JDK are
+   * not included.
+   *
+   * @param settings settings passed to the serializer or deserializer
+   * @return configured classes and the classes of their properties
+   */
+  public static Set<Class<?>> configuredClasses(Map<String, ?> settings) {
+    final JacksonDeserializerConfig deserializerConfig = new JacksonDeserializerConfig(settings);
+    final JacksonSerializerConfig serializerConfig = new JacksonSerializerConfig(settings);
+    final List<JavaType> types = new ArrayList<>();
+    final ObjectMapper objectMapper = deserializerConfig.createObjectMapper();
+    if (null != deserializerConfig.outputClass) {
+      types.add(objectMapper.constructType(deserializerConfig.outputClass));
+    }
+    if (null != deserializerConfig.outputType) {
+      types.add(deserializerConfig.outputType);
+    }
+    addClasses(objectMapper, types, deserializerConfig.warmupClasses);
+    addClasses(objectMapper, types, serializerConfig.warmupClasses);
+    addClasses(
+        objectMapper,
+        types,
+        TypeIdMapping.parse(JacksonDeserializerConfig.TYPE_ID_MAPPING_CONFIG, deserializerConfig.typeIdMapping).classes()
+    );
+    addClasses(
+        objectMapper,
+        types,
+        TypeIdMapping.parse(JacksonSerializerConfig.TYPE_ID_MAPPING_CONFIG, serializerConfig.typeIdMapping).classes()
+    );
+    addClasses(
+        objectMapper,
+        types,
+        TopicTypeRouter.parse(
+            JacksonDeserializerConfig.TOPIC_TYPE_MAPPING_CONFIG,
+            deserializerConfig.topicTypeMapping,
+            objectMapper.reader(),
+            objectMapper.reader()
+        ).classes()
+    );
+
+    final Set<Class<?>> result = new LinkedHashSet<>();
+    for (JavaType type : Warmup.typeGraph(objectMapper, types)) {
+      final Class<?> cls = type.getRawClass();
+      if (!cls.isPrimitive() && !cls.isArray() && !Warmup.isJdkType(cls)) {
+        result.add(cls);
+      }
+    }
+    return result;
+  }
+
+  private static void addClasses(ObjectMapper objectMapper, List<JavaType> types, Collection<Class<?>> classes) {
+    for (Class<?> cls : classes) {
+      types.add(objectMapper.constructType(cls));
+    }
+  }
+
+  /**
+   * Returns the contents of a {@code reflect-config.json} that registers the constructors, fields and
+   * methods of the configured classes, along with the generated codec classes of any that are annotated
+   * with {@link JacksonCodec}.
+   *
+   * @param settings settings passed to the serializer or deserializer
+   * @return reflection configuration in JSON
+   */
+  public static String reflectConfig(Map<String, ?> settings) {
+    final Set<String> beans = new TreeSet<>();
+    final Set<String> codecs = new TreeSet<>();
+    for (Class<?> cls : configuredClasses(settings)) {
+      beans.add(cls.getName());
+      if (GeneratedCodecs.hasCodec(cls)) {
+        final String codecClassName = GeneratedCodecs.codecClassName(cls);
+        codecs.add(codecClassName + GeneratedCodecs.SERIALIZER);
+        codecs.add(codecClassName + GeneratedCodecs.DESERIALIZER);
+      }
+    }
+    final ObjectMapper objectMapper = new ObjectMapper();
+    final ArrayNode result = objectMapper.createArrayNode();
+    for (String name : beans) {
+      result.addObject()
+          .put("name", name)
+          .put("allDeclaredConstructors", true)
+          .put("allPublicConstructors", true)
+          .put("allDeclaredFields", true)
+          .put("allPublicFields", true)
+          .put("allDeclaredMethods", true)
+          .put("allPublicMethods", true);
+    }
+    for (String name : codecs) {
+      final ObjectNode codec = result.addObject().put("name", name);
+      codec.putArray("methods").addObject()
+          .put("name", "<init>")
+          .putArray("parameterTypes");
+    }
+    try {
+      return objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValueAsString(result);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Reads the settings from the properties file in the first argument and writes the reflection
+   * configuration to the file in the second argument, or to standard out when it is omitted.
+   *
+   * @param args properties file and optional output file
+   * @throws IOException thrown if either file could not be read or written
+   */
+  public static void main(String... args) throws IOException {
+    if (args.length < 1 || args.length > 2) {
+      System.err.println("Usage: NativeImageConfig <settings.properties> [reflect-config.json]");
+      System.exit(1);
+    }
+    final Properties properties = new Properties();
+    try (InputStream inputStream = Files.newInputStream(Paths.get(args[0]))) {
+      properties.load(inputStream);
+    }
+    final Map<String, Object> settings = new HashMap<>();
+    for (String name : properties.stringPropertyNames()) {
+      settings.put(name, properties.getProperty(name));
+    }
+    final String reflectConfig = reflectConfig(settings);
+    if (1 == args.length) {
+      System.out.println(reflectConfig);
+      return;
+    }
+    final Path output = Paths.get(args[1]);
+    if (null != output.getParent()) {
+      Files.createDirectories(output.getParent());
+    }
+    Files.write(output, reflectConfig.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.BasicSerializerFactory;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.ion.IonFactory;
+import com.fasterxml.jackson.dataformat.ion.IonObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+
+/**
+ * Creates the ObjectMapper for a {@link DataFormat}. Each optional module lives in its own holder class
+ * so it is only loaded when it is actually configured.
+ */
+final class ObjectMapperFactory {
+  static final String AFTERBURNER_PACKAGE = "com.fasterxml.jackson.module.afterburner.";
+
+  private ObjectMapperFactory() {
+
+  }
+
+  /**
+   * Returns the mapper used by serializers and deserializers that were never configured, for example
+   * instances handed straight to a producer or consumer. It is built the first time one of them is used.
+   */
+  static ObjectMapper unconfigured() {
+    return Unconfigured.OBJECT_MAPPER;
+  }
+
+  static ObjectMapper create(DataFormat format) {
+    switch (format) {
+      case SMILE:
+        return Smile.create();
+      case CBOR:
+        return Cbor.create();
+      case ION:
+        return Ion.create();
+      default:
+        return new ObjectMapper();
+    }
+  }
+
+  static void registerAccessorModule(ObjectMapper objectMapper, AccessorOptimization accessorOptimization) {
+    if (AccessorOptimization.AFTERBURNER == accessorOptimization) {
+      Afterburner.register(objectMapper);
+    }
+  }
+
+  /**
+   * Registers the module that hands out the serializers and deserializers generated for classes
+   * annotated with {@link JacksonCodec} when {@code generated.codecs.enable} is set.
+   */
+  static void registerGeneratedCodecs(ObjectMapper objectMapper, boolean generatedCodecsEnable) {
+    if (generatedCodecsEnable) {
+      objectMapper.registerModule(GeneratedCodecs.module());
+    }
+  }
+
+  /**
+   * Checks the serializer modifiers by class name so the check itself does not load the afterburner module.
+   */
+  static boolean isAfterburnerRegistered(ObjectMapper objectMapper) {
+    if (!(objectMapper.getSerializerFactory() instanceof BasicSerializerFactory)) {
+      return false;
+    }
+    final BasicSerializerFactory serializerFactory = (BasicSerializerFactory) objectMapper.getSerializerFactory();
+    for (BeanSerializerModifier modifier : serializerFactory.getFactoryConfig().serializerModifiers()) {
+      if (modifier.getClass().getName().startsWith(AFTERBURNER_PACKAGE)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static final class Unconfigured {
+    static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  }
+
+  static final class Afterburner {
+    static void register(ObjectMapper objectMapper) {
+      objectMapper.registerModule(new AfterburnerModule());
+    }
+  }
+
+  static final class Smile {
+    static ObjectMapper create() {
+      SmileFactory factory = new SmileFactory();
+      factory.enable(SmileGenerator.Feature.CHECK_SHARED_NAMES);
+      factory.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+      return new ObjectMapper(factory);
+    }
+  }
+
+  static final class Cbor {
+    static ObjectMapper create() {
+      return new ObjectMapper(new CBORFactory());
+    }
+  }
+
+  static final class Ion {
+    static ObjectMapper create() {
+      IonFactory factory = new IonFactory();
+      factory.setCreateBinaryWriters(true);
+      return new IonObjectMapper(factory);
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.config.AbstractConfig;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Process wide registry handing out one ObjectMapper per distinct effective configuration. Serializers
+ * and deserializers acquire their mapper in {@code configure()} and release it in {@code close()}, the
+ * mapper is dropped once the last reference is released. This keeps applications with many serde
+ * instances, for example Kafka Streams applications with a large number of tasks, from building and
+ * warming duplicate serializer and deserializer caches.
+ *
+ * <p>Mappers handed out by the registry are shared so they must never be reconfigured after they are
+ * created. Use {@link ObjectMapper#reader()} and {@link ObjectMapper#writer()} for per instance state.
+ */
+public final class ObjectMapperRegistry {
+  private static final Map<Object, Entry> ENTRIES = new HashMap<>();
+  private static final Map<ObjectMapper, Entry> ACQUIRED = new IdentityHashMap<>();
+
+  private ObjectMapperRegistry() {
+
+  }
+
+  /**
+   * Builds the lookup key for a config. The key is made up of the config type and every parsed value
+   * that changes how the ObjectMapper is built.
+   *
+   * @param config  config to build the key for
+   * @param ignored settings that do not change the ObjectMapper
+   * @return key to pass to {@link #acquire(Object, Supplier)}
+   */
+  static Object key(AbstractConfig config, Set<String> ignored) {
+    final Map<String, Object> settings = new TreeMap<>(config.values());
+    settings.keySet().removeAll(ignored);
+    return Arrays.asList(config.getClass(), settings);
+  }
+
+  /**
+   * Returns the ObjectMapper registered for the key, creating it if there isn't one yet. Each call must
+   * be paired with a call to {@link #release(ObjectMapper)}.
+   */
+  static synchronized ObjectMapper acquire(Object key, Supplier<ObjectMapper> factory) {
+    Entry entry = ENTRIES.get(key);
+    if (null == entry) {
+      entry = new Entry(key, factory.get());
+      ENTRIES.put(key, entry);
+      ACQUIRED.put(entry.objectMapper, entry);
+    }
+    entry.references++;
+    return entry.objectMapper;
+  }
+
+  /**
+   * Releases a reference obtained from {@link #acquire(Object, Supplier)}. Mappers that did not come
+   * from the registry are ignored.
+   */
+  static synchronized void release(ObjectMapper objectMapper) {
+    final Entry entry = ACQUIRED.get(objectMapper);
+    if (null == entry) {
+      return;
+    }
+    entry.references--;
+    if (entry.references <= 0) {
+      ENTRIES.remove(entry.key);
+      ACQUIRED.remove(objectMapper);
+    }
+  }
+
+  /**
+   * Returns the number of ObjectMappers currently held by at least one serializer or deserializer.
+   *
+   * @return number of live ObjectMappers
+   */
+  public static synchronized int liveMappers() {
+    return ENTRIES.size();
+  }
+
+  static synchronized int references(ObjectMapper objectMapper) {
+    final Entry entry = ACQUIRED.get(objectMapper);
+    return null == entry ? 0 : entry.references;
+  }
+
+  static final class Entry {
+    final Object key;
+    final ObjectMapper objectMapper;
+    int references;
+
+    Entry(Object key, ObjectMapper objectMapper) {
+      this.key = key;
+      this.objectMapper = objectMapper;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import java.util.ArrayDeque;
+
+/**
+ * Bounded per thread pool of released instances. Each thread only ever sees the instances it released
+ * itself so no synchronization is needed.
+ */
+final class ObjectPool {
+  private final ThreadLocal<ArrayDeque<Object>> pools = ThreadLocal.withInitial(ArrayDeque::new);
+  private final Class<?> cls;
+  private final int maxSize;
+
+  ObjectPool(Class<?> cls, int maxSize) {
+    this.cls = cls;
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Returns a released instance, null if the pool for the calling thread is empty.
+   */
+  Object poll() {
+    return this.pools.get().pollLast();
+  }
+
+  /**
+   * Returns an instance to the pool of the calling thread. Instances of other classes and instances
+   * beyond the maximum size are dropped.
+   */
+  void offer(Object value) {
+    if (null == value || this.cls != value.getClass()) {
+      return;
+    }
+    final ArrayDeque<Object> pool = this.pools.get();
+    if (pool.size() < this.maxSize) {
+      pool.addLast(value);
+    }
+  }
+
+  int size() {
+    return this.pools.get().size();
+  }
+
+  void clear() {
+    this.pools.remove();
+  }
+}
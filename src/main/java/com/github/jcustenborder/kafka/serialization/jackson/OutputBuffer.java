@@ -0,0 +1,94 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Growable output buffer that is reset and reused between records. Unlike
+ * {@link java.io.ByteArrayOutputStream} nothing is synchronized since an instance is only ever used
+ * by a single thread.
+ */
+class OutputBuffer extends OutputStream {
+  private byte[] buffer;
+  private int count;
+
+  OutputBuffer(int capacity) {
+    this.buffer = new byte[capacity];
+  }
+
+  int capacity() {
+    return this.buffer.length;
+  }
+
+  int size() {
+    return this.count;
+  }
+
+  void reset() {
+    this.count = 0;
+  }
+
+  void ensureCapacity(int capacity) {
+    if (capacity > this.buffer.length) {
+      resize(capacity);
+    }
+  }
+
+  private void grow(int required) {
+    int capacity = Math.max(this.buffer.length << 1, required);
+    if (capacity < 0) {
+      capacity = Integer.MAX_VALUE - 8;
+    }
+    resize(capacity);
+  }
+
+  /**
+   * Moves to a larger array. Only the bytes written so far are copied, which is nothing right after
+   * {@link #reset()}.
+   */
+  private void resize(int capacity) {
+    final byte[] buffer = new byte[capacity];
+    System.arraycopy(this.buffer, 0, buffer, 0, this.count);
+    this.buffer = buffer;
+  }
+
+  @Override
+  public void write(int b) {
+    if (this.count == this.buffer.length) {
+      grow(this.count + 1);
+    }
+    this.buffer[this.count++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) {
+    final int required = this.count + len;
+    if (required > this.buffer.length) {
+      grow(required);
+    }
+    System.arraycopy(b, off, this.buffer, this.count, len);
+    this.count = required;
+  }
+
+  /**
+   * Copies the written bytes to an exactly sized array.
+   */
+  byte[] toByteArray() {
+    return Arrays.copyOf(this.buffer, this.count);
+  }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps one {@link OutputBuffer} per thread for reuse, each at most {@code buffer.recycling.max.bytes}.
+ * Only the thread local holds the slot of a thread strongly, so the buffer goes away with the thread.
+ * Weak references to the slots let {@link #close()} drop the buffers of threads that are still running.
+ */
+final class OutputBufferRecycler {
+  private final int maxBytes;
+  private final Set<Reference<AtomicReference<OutputBuffer>>> slots = ConcurrentHashMap.newKeySet();
+  private final ReferenceQueue<AtomicReference<OutputBuffer>> collected = new ReferenceQueue<>();
+  private final ThreadLocal<AtomicReference<OutputBuffer>> threadSlot = ThreadLocal.withInitial(() -> {
+    expunge();
+    final AtomicReference<OutputBuffer> result = new AtomicReference<>();
+    this.slots.add(new WeakReference<>(result, this.collected));
+    return result;
+  });
+
+  OutputBufferRecycler(int maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Returns the empty buffer of the calling thread with room for the size class, capped at
+   * {@code buffer.recycling.max.bytes}.
+   */
+  OutputBuffer acquire(int sizeClass) {
+    final int capacity = Math.min(sizeClass, this.maxBytes);
+    final AtomicReference<OutputBuffer> slot = this.threadSlot.get();
+    OutputBuffer result = slot.get();
+    if (null == result) {
+      result = new OutputBuffer(capacity);
+      slot.set(result);
+    } else {
+      result.reset();
+      result.ensureCapacity(capacity);
+    }
+    return result;
+  }
+
+  /**
+   * Drops the buffer of the calling thread if it grew past {@code buffer.recycling.max.bytes}. Called once
+   * the contents of the buffer were copied.
+   */
+  void release(OutputBuffer buffer) {
+    if (buffer.capacity() > this.maxBytes) {
+      this.threadSlot.get().set(null);
+    }
+  }
+
+  /**
+   * Forgets the slots of threads that are gone.
+   */
+  private void expunge() {
+    Reference<? extends AtomicReference<OutputBuffer>> reference;
+    while (null != (reference = this.collected.poll())) {
+      this.slots.remove(reference);
+    }
+  }
+
+  /**
+   * Returns the capacity of the buffers kept across all threads that are still running.
+   */
+  long bytes() {
+    expunge();
+    long result = 0;
+    for (Reference<AtomicReference<OutputBuffer>> reference : this.slots) {
+      final AtomicReference<OutputBuffer> slot = reference.get();
+      final OutputBuffer buffer = null == slot ? null : slot.get();
+      if (null != buffer) {
+        result += buffer.capacity();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Drops the buffer of every thread.
+   */
+  void close() {
+    for (Reference<AtomicReference<OutputBuffer>> reference : this.slots) {
+      final AtomicReference<OutputBuffer> slot = reference.get();
+      if (null != slot) {
+        slot.set(null);
+      }
+    }
+    this.threadSlot.remove();
+  }
+}
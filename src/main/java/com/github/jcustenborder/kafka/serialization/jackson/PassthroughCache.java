@@ -0,0 +1,184 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Remembers the bytes deserialized instances were read from so they can be written back out without
+ * being encoded again. The cache is direct mapped on the identity hash of the instance, so it is bounded
+ * and lock free. A newer entry simply replaces whatever was in its slot. Instances are weakly referenced
+ * so the cache never keeps a value alive. Entries whose value was collected are dropped, and their bytes
+ * given back, the next time a value is added.
+ *
+ * <p>The cache does not try to detect values that were changed after they were read. The deserializer
+ * only adds values of classes that are annotated with {@link Immutable} or listed in
+ * {@code passthrough.classes}. The bytes held by the cache are capped by {@code passthrough.max.bytes}.
+ * Caches are shared through {@link #acquire(int, long)} and dropped once the last serializer or
+ * deserializer using them calls {@link #release(PassthroughCache)}.
+ */
+final class PassthroughCache {
+  private static final Map<List<Object>, PassthroughCache> INSTANCES = new HashMap<>();
+  private static final Map<PassthroughCache, Integer> REFERENCES = new IdentityHashMap<>();
+
+  private final AtomicReferenceArray<Entry> slots;
+  private final int mask;
+  private final long maxBytes;
+  private final AtomicLong bytes = new AtomicLong();
+  private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+  private List<Object> key;
+
+  PassthroughCache(int maxEntries, long maxBytes) {
+    int capacity = Integer.highestOneBit(Math.max(maxEntries, 1));
+    if (capacity < maxEntries) {
+      capacity <<= 1;
+    }
+    this.slots = new AtomicReferenceArray<>(capacity);
+    this.mask = capacity - 1;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Returns the cache shared by every serializer and deserializer configured with the same number of
+   * entries and bytes. This lets a serializer find the bytes recorded by a deserializer in another serde.
+   * Every call must be paired with a call to {@link #release(PassthroughCache)}.
+   */
+  static synchronized PassthroughCache acquire(int maxEntries, long maxBytes) {
+    final List<Object> key = Arrays.asList(maxEntries, maxBytes);
+    PassthroughCache result = INSTANCES.get(key);
+    if (null == result) {
+      result = new PassthroughCache(maxEntries, maxBytes);
+      result.key = key;
+      INSTANCES.put(key, result);
+    }
+    REFERENCES.merge(result, 1, Integer::sum);
+    return result;
+  }
+
+  /**
+   * Releases a reference obtained from {@link #acquire(int, long)}. The cache and the bytes it holds are
+   * dropped once the last reference is released.
+   */
+  static synchronized void release(PassthroughCache cache) {
+    if (null == cache) {
+      return;
+    }
+    final Integer references = REFERENCES.get(cache);
+    if (null == references) {
+      return;
+    }
+    if (references <= 1) {
+      REFERENCES.remove(cache);
+      INSTANCES.remove(cache.key);
+    } else {
+      REFERENCES.put(cache, references - 1);
+    }
+  }
+
+  /**
+   * Returns the number of caches currently held by at least one serializer or deserializer.
+   */
+  static synchronized int liveCaches() {
+    return INSTANCES.size();
+  }
+
+  int capacity() {
+    return this.slots.length();
+  }
+
+  /**
+   * Returns the number of payload bytes currently held by the cache.
+   */
+  long bytes() {
+    expunge();
+    return this.bytes.get();
+  }
+
+  /**
+   * Empties the slots of entries whose value was collected. An entry that was already replaced by
+   * {@link #put(Object, byte[], String)} had its bytes given back then.
+   */
+  void expunge() {
+    Reference<?> reference;
+    while (null != (reference = this.collected.poll())) {
+      final Entry entry = (Entry) reference;
+      if (this.slots.compareAndSet(entry.index, entry, null)) {
+        this.bytes.addAndGet(-entry.bytes.length);
+      }
+    }
+  }
+
+  int index(Object value) {
+    final int hash = System.identityHashCode(value);
+    return (hash ^ (hash >>> 16)) & this.mask;
+  }
+
+  /**
+   * Records the bytes the value was read from. The value is not added if it would take the cache over
+   * {@code passthrough.max.bytes}.
+   */
+  void put(Object value, byte[] bytes, String formatName) {
+    if (null == value || null == bytes || bytes.length > this.maxBytes) {
+      return;
+    }
+    expunge();
+    final int index = index(value);
+    final Entry previous = this.slots.get(index);
+    final long delta = bytes.length - (null == previous ? 0L : previous.bytes.length);
+    if (this.bytes.addAndGet(delta) > this.maxBytes) {
+      this.bytes.addAndGet(-delta);
+      return;
+    }
+    if (!this.slots.compareAndSet(index, previous, new Entry(value, index, bytes, formatName, this.collected))) {
+      this.bytes.addAndGet(-delta);
+    }
+  }
+
+  /**
+   * Returns the bytes the value was read from if they are in the requested format.
+   *
+   * @return bytes, null if the value is not in the cache
+   */
+  byte[] get(Object value, String formatName) {
+    final Entry entry = this.slots.get(index(value));
+    if (null == entry || entry.get() != value || !entry.formatName.equals(formatName)) {
+      return null;
+    }
+    return entry.bytes;
+  }
+
+  static final class Entry extends WeakReference<Object> {
+    final int index;
+    final byte[] bytes;
+    final String formatName;
+
+    Entry(Object value, int index, byte[] bytes, String formatName, ReferenceQueue<Object> queue) {
+      super(value, queue);
+      this.index = index;
+      this.bytes = bytes;
+      this.formatName = formatName;
+    }
+  }
+}
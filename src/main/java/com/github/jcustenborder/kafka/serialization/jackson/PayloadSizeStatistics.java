@@ -0,0 +1,97 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+/**
+ * Snapshot of the sizes of the records a {@link JacksonSerializer} wrote to a topic. Percentiles are
+ * within 12.5% of the actual size.
+ */
+public final class PayloadSizeStatistics {
+  private final long count;
+  private final double mean;
+  private final long max;
+  private final long p50;
+  private final long p90;
+  private final long p99;
+  private final long p999;
+
+  PayloadSizeStatistics(Log2Histogram histogram) {
+    this.count = histogram.count();
+    this.mean = histogram.mean();
+    this.max = histogram.max();
+    this.p50 = histogram.percentile(50D);
+    this.p90 = histogram.percentile(90D);
+    this.p99 = histogram.percentile(99D);
+    this.p999 = histogram.percentile(99.9D);
+  }
+
+  /**
+   * @return number of records written
+   */
+  public long count() {
+    return this.count;
+  }
+
+  /**
+   * @return average size in bytes
+   */
+  public double mean() {
+    return this.mean;
+  }
+
+  /**
+   * @return size of the largest record in bytes
+   */
+  public long max() {
+    return this.max;
+  }
+
+  /**
+   * @return median size in bytes
+   */
+  public long p50() {
+    return this.p50;
+  }
+
+  /**
+   * @return 90th percentile of the size in bytes
+   */
+  public long p90() {
+    return this.p90;
+  }
+
+  /**
+   * @return 99th percentile of the size in bytes
+   */
+  public long p99() {
+    return this.p99;
+  }
+
+  /**
+   * @return 99.9th percentile of the size in bytes
+   */
+  public long p999() {
+    return this.p999;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "PayloadSizeStatistics{count=%s, mean=%.1f, max=%s, p50=%s, p90=%s, p99=%s, p999=%s}",
+        this.count, this.mean, this.max, this.p50, this.p90, this.p99, this.p999
+    );
+  }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+/**
+ * Tracks the size of records written to a topic. A histogram keeps the distribution of every size seen.
+ * The estimate used to pre-size output buffers jumps up to the largest record seen and decays slowly
+ * towards smaller records so that a single large record does not pin the estimate forever. The 99th
+ * percentile of the histogram is refreshed every {@link #REFRESH_INTERVAL} records and keeps the estimate
+ * from decaying below the size of records that keep coming back.
+ */
+class PayloadSizeTracker {
+  static final int MINIMUM_SIZE = 256;
+  /**
+   * Size class above which buffers are pre-sized even when buffer recycling is disabled. Smaller
+   * records fit the first segment Jackson allocates anyway.
+   */
+  static final int PRESIZE_THRESHOLD = 8192;
+  static final int REFRESH_INTERVAL = 1024;
+  private final Log2Histogram histogram = new Log2Histogram();
+  private volatile int estimate = MINIMUM_SIZE;
+  private volatile int percentileSize;
+  /**
+   * Updated without synchronization. A lost update only delays the next refresh.
+   */
+  private int sinceRefresh;
+
+  void record(int size) {
+    this.histogram.record(size);
+    final int current = this.estimate;
+    if (size >= current) {
+      this.estimate = size;
+    } else {
+      this.estimate = Math.max(MINIMUM_SIZE, current - ((current - size) >> 4));
+    }
+    if (++this.sinceRefresh >= REFRESH_INTERVAL) {
+      this.sinceRefresh = 0;
+      this.percentileSize = (int) Math.min(Integer.MAX_VALUE, this.histogram.percentile(99D));
+    }
+  }
+
+  Log2Histogram histogram() {
+    return this.histogram;
+  }
+
+  /**
+   * Returns the size class for the estimate, which is the larger of the estimate and the last 99th
+   * percentile rounded up to the next power of two.
+   */
+  int sizeClass() {
+    final int current = Math.max(this.estimate, this.percentileSize);
+    final int highestBit = Integer.highestOneBit(current);
+    return highestBit == current || highestBit >= (1 << 30) ? current : highestBit << 1;
+  }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+import org.apache.kafka.common.config.ConfigException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TokenFilter that only lets the values under a set of JSON pointers through. Everything else is
+ * skipped at the token level with {@code skipChildren()} so it is never bound.
+ */
+final class ProjectionFilter extends TokenFilter {
+  private final List<JsonPointer> pointers;
+
+  private ProjectionFilter(List<JsonPointer> pointers) {
+    this.pointers = pointers;
+  }
+
+  /**
+   * Parses the JSON pointers to project.
+   *
+   * @param key   config key used for error messages
+   * @param paths JSON pointers such as {@code /customer/id}
+   * @return filter for the paths, null if everything is projected
+   */
+  static ProjectionFilter parse(String key, List<String> paths) {
+    final List<JsonPointer> pointers = new ArrayList<>(paths.size());
+    for (String path : paths) {
+      final JsonPointer pointer;
+      try {
+        pointer = JsonPointer.compile(path.trim());
+      } catch (IllegalArgumentException e) {
+        throw new ConfigException(key, path, e.getMessage());
+      }
+      if (pointer.matches()) {
+        return null;
+      }
+      pointers.add(pointer);
+    }
+    return pointers.isEmpty() ? null : new ProjectionFilter(pointers);
+  }
+
+  @Override
+  public TokenFilter includeProperty(String name) {
+    List<JsonPointer> tails = null;
+    for (JsonPointer pointer : this.pointers) {
+      final JsonPointer tail = pointer.matchProperty(name);
+      if (null == tail) {
+        continue;
+      }
+      if (tail.matches()) {
+        return TokenFilter.INCLUDE_ALL;
+      }
+      if (null == tails) {
+        tails = new ArrayList<>(this.pointers.size());
+      }
+      tails.add(tail);
+    }
+    return null == tails ? null : new ProjectionFilter(tails);
+  }
+
+  @Override
+  public TokenFilter includeElement(int index) {
+    List<JsonPointer> tails = null;
+    for (JsonPointer pointer : this.pointers) {
+      final JsonPointer tail = pointer.matchElement(index);
+      if (null == tail) {
+        continue;
+      }
+      if (tail.matches()) {
+        return TokenFilter.INCLUDE_ALL;
+      }
+      if (null == tails) {
+        tails = new ArrayList<>(this.pointers.size());
+      }
+      tails.add(tail);
+    }
+    return null == tails ? null : new ProjectionFilter(tails);
+  }
+
+  @Override
+  protected boolean _includeScalar() {
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return "[ProjectionFilter " + this.pointers + "]";
+  }
+}
@@ -0,0 +1,354 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.config.ConfigException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declarative record filter evaluated on the token stream before a record is bound. Each condition is
+ * in the format {@code <json pointer> <operator> <json literal>} and all conditions must match, so
+ * {@code /amount >= 1, /amount < 10} is a range. Conditions are separated by a comma following the
+ * literal, so commas within quoted strings and pointers are kept as they are. The pointers are compiled
+ * into a tree that is walked along with the tokens. Everything off the tree is skipped with
+ * {@code skipChildren()}, and evaluation stops as soon as one condition fails or all of them have matched.
+ */
+final class RecordFilter {
+  private static final ObjectMapper LITERALS = new ObjectMapper();
+
+  enum Operator {
+    EQ("=="),
+    NE("!="),
+    LT("<"),
+    LE("<="),
+    GT(">"),
+    GE(">=");
+
+    final String symbol;
+
+    Operator(String symbol) {
+      this.symbol = symbol;
+    }
+
+    static Operator forSymbol(String symbol) {
+      for (Operator operator : values()) {
+        if (operator.symbol.equals(symbol)) {
+          return operator;
+        }
+      }
+      return null;
+    }
+
+    boolean test(int comparison) {
+      switch (this) {
+        case EQ:
+          return comparison == 0;
+        case NE:
+          return comparison != 0;
+        case LT:
+          return comparison < 0;
+        case LE:
+          return comparison <= 0;
+        case GT:
+          return comparison > 0;
+        case GE:
+          return comparison >= 0;
+        default:
+          throw new IllegalStateException("Unknown operator " + this);
+      }
+    }
+  }
+
+  static final class Condition {
+    final JsonPointer pointer;
+    final Operator operator;
+    final JsonNode literal;
+
+    Condition(JsonPointer pointer, Operator operator, JsonNode literal) {
+      this.pointer = pointer;
+      this.operator = operator;
+      this.literal = literal;
+    }
+
+    /**
+     * Compares the scalar the parser is positioned on with the literal.
+     */
+    boolean test(JsonParser parser) throws IOException {
+      final JsonToken token = parser.currentToken();
+      switch (token) {
+        case VALUE_NUMBER_INT:
+        case VALUE_NUMBER_FLOAT:
+          if (!this.literal.isNumber()) {
+            return Operator.NE == this.operator;
+          }
+          if (JsonToken.VALUE_NUMBER_INT == token && isLong(this.literal) && JsonParser.NumberType.BIG_INTEGER != parser.getNumberType()) {
+            return this.operator.test(Long.compare(parser.getLongValue(), this.literal.longValue()));
+          }
+          return this.operator.test(Double.compare(parser.getDoubleValue(), this.literal.doubleValue()));
+        case VALUE_STRING:
+          if (!this.literal.isTextual()) {
+            return Operator.NE == this.operator;
+          }
+          return this.operator.test(parser.getText().compareTo(this.literal.textValue()));
+        case VALUE_TRUE:
+        case VALUE_FALSE:
+          if (!this.literal.isBoolean()) {
+            return Operator.NE == this.operator;
+          }
+          return this.operator.test(Boolean.compare(JsonToken.VALUE_TRUE == token, this.literal.booleanValue()));
+        case VALUE_NULL:
+          return this.literal.isNull() ? this.operator.test(0) : Operator.NE == this.operator;
+        default:
+          return false;
+      }
+    }
+  }
+
+  private static boolean isLong(JsonNode literal) {
+    return literal.isIntegralNumber() && literal.canConvertToLong();
+  }
+
+  /**
+   * Node of the tree built from the condition pointers. A segment that is a number matches both an
+   * object property and an array element, the same as {@link JsonPointer} does.
+   */
+  static final class Node {
+    final Map<String, Node> properties = new HashMap<>();
+    final Map<Integer, Node> elements = new HashMap<>();
+    final List<Condition> conditions = new ArrayList<>();
+
+    Node add(JsonPointer pointer, Condition condition) {
+      if (pointer.matches()) {
+        this.conditions.add(condition);
+        return this;
+      }
+      final JsonPointer tail = pointer.tail();
+      this.properties.computeIfAbsent(pointer.getMatchingProperty(), k -> new Node()).add(tail, condition);
+      final int index = pointer.getMatchingIndex();
+      if (index >= 0) {
+        this.elements.computeIfAbsent(index, k -> new Node()).add(tail, condition);
+      }
+      return this;
+    }
+  }
+
+  private final Node root;
+  private final int size;
+
+  private RecordFilter(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  /**
+   * Parses a comma separated list of conditions.
+   *
+   * @param key        config key used for error messages
+   * @param conditions conditions such as {@code /status == "ACTIVE, PENDING", /amount >= 100}
+   * @return filter for the conditions, null if there are none
+   */
+  static RecordFilter parse(String key, String conditions) {
+    return parse(key, split(key, conditions));
+  }
+
+  /**
+   * Splits the conditions at each comma that follows a complete literal. The pointer and the operator
+   * are read up to the next whitespace.
+   */
+  static List<String> split(String key, String conditions) {
+    final List<String> result = new ArrayList<>();
+    final int length = conditions.length();
+    int start = skipWhitespace(conditions, 0);
+    while (start < length) {
+      final int operator = skipWhitespace(conditions, skipToken(conditions, start));
+      final int literal = skipWhitespace(conditions, skipToken(conditions, operator));
+      if (literal == length) {
+        throw new ConfigException(key, conditions.substring(start), "Conditions must be in the format <json pointer> <operator> <json literal>.");
+      }
+      final int end = literalEnd(conditions, literal);
+      result.add(conditions.substring(start, end));
+      final int next = skipWhitespace(conditions, end);
+      if (next == length) {
+        break;
+      }
+      if (',' != conditions.charAt(next)) {
+        throw new ConfigException(key, conditions, String.format("Expected ',' after condition '%s'.", conditions.substring(start, end)));
+      }
+      start = skipWhitespace(conditions, next + 1);
+      if (start == length) {
+        throw new ConfigException(key, conditions, "Conditions must not end with ','.");
+      }
+    }
+    return result;
+  }
+
+  private static int skipWhitespace(String value, int index) {
+    while (index < value.length() && Character.isWhitespace(value.charAt(index))) {
+      index++;
+    }
+    return index;
+  }
+
+  private static int skipToken(String value, int index) {
+    while (index < value.length() && !Character.isWhitespace(value.charAt(index))) {
+      index++;
+    }
+    return index;
+  }
+
+  /**
+   * Returns the end of the literal starting at the index. Strings end at the closing quote that is not
+   * escaped, everything else at the next whitespace or comma. The literal itself is validated by
+   * {@link #parse(String, List)}.
+   */
+  private static int literalEnd(String value, int index) {
+    final int length = value.length();
+    if ('"' == value.charAt(index)) {
+      for (int i = index + 1; i < length; i++) {
+        final char c = value.charAt(i);
+        if ('\\' == c) {
+          i++;
+        } else if ('"' == c) {
+          return i + 1;
+        }
+      }
+      return length;
+    }
+    int i = index;
+    while (i < length && ',' != value.charAt(i) && !Character.isWhitespace(value.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Parses the conditions.
+   *
+   * @param key     config key used for error messages
+   * @param entries conditions such as {@code /status == "ACTIVE"} or {@code /amount >= 100}
+   * @return filter for the conditions, null if there are none
+   */
+  static RecordFilter parse(String key, List<String> entries) {
+    if (entries.isEmpty()) {
+      return null;
+    }
+    final Node root = new Node();
+    for (String entry : entries) {
+      final String[] parts = entry.trim().split("\\s+", 3);
+      if (parts.length != 3) {
+        throw new ConfigException(key, entry, "Conditions must be in the format <json pointer> <operator> <json literal>.");
+      }
+      final JsonPointer pointer;
+      try {
+        pointer = JsonPointer.compile(parts[0]);
+      } catch (IllegalArgumentException e) {
+        throw new ConfigException(key, entry, e.getMessage());
+      }
+      if (pointer.matches()) {
+        throw new ConfigException(key, entry, "Conditions must point to a value within the document.");
+      }
+      final Operator operator = Operator.forSymbol(parts[1]);
+      if (null == operator) {
+        throw new ConfigException(key, entry, String.format("Operator '%s' is not supported. Use ==, !=, <, <=, > or >=.", parts[1]));
+      }
+      final JsonNode literal;
+      try {
+        literal = LITERALS.readTree(parts[2]);
+      } catch (IOException e) {
+        throw new ConfigException(key, entry, String.format("'%s' is not a JSON literal. Strings must be quoted.", parts[2]));
+      }
+      if (null == literal || literal.isContainerNode()) {
+        throw new ConfigException(key, entry, "Literals must be a string, number, boolean or null.");
+      }
+      root.add(pointer, new Condition(pointer, operator, literal));
+    }
+    return new RecordFilter(root, entries.size());
+  }
+
+  /**
+   * Streams the tokens under the condition paths and evaluates the conditions. Values that are missing
+   * or are not scalars do not match.
+   *
+   * @param parser parser positioned before the start of the document, closed before returning
+   * @return true if all of the conditions match
+   */
+  boolean matches(JsonParser parser) throws IOException {
+    try (JsonParser p = parser) {
+      final JsonToken token = p.nextToken();
+      return null != token && 0 == visit(p, token, this.root, this.size);
+    }
+  }
+
+  /**
+   * Evaluates the conditions under the node for the value the parser is positioned on.
+   *
+   * @param remaining number of conditions that have not matched yet
+   * @return conditions still to match after this value, 0 once all of them matched or -1 if one failed
+   */
+  private static int visit(JsonParser parser, JsonToken token, Node node, int remaining) throws IOException {
+    if (!node.conditions.isEmpty()) {
+      if (!token.isScalarValue()) {
+        return -1;
+      }
+      for (Condition condition : node.conditions) {
+        if (!condition.test(parser)) {
+          return -1;
+        }
+      }
+      return remaining - node.conditions.size();
+    }
+    if (JsonToken.START_OBJECT == token && !node.properties.isEmpty()) {
+      while (JsonToken.FIELD_NAME == parser.nextToken()) {
+        final Node child = node.properties.get(parser.getCurrentName());
+        final JsonToken value = parser.nextToken();
+        if (null == child) {
+          parser.skipChildren();
+          continue;
+        }
+        remaining = visit(parser, value, child, remaining);
+        if (remaining <= 0) {
+          return remaining;
+        }
+      }
+    } else if (JsonToken.START_ARRAY == token && !node.elements.isEmpty()) {
+      int index = 0;
+      for (JsonToken value = parser.nextToken(); JsonToken.END_ARRAY != value; value = parser.nextToken(), index++) {
+        final Node child = node.elements.get(index);
+        if (null == child) {
+          parser.skipChildren();
+          continue;
+        }
+        remaining = visit(parser, value, child, remaining);
+        if (remaining <= 0) {
+          return remaining;
+        }
+      }
+    } else {
+      parser.skipChildren();
+    }
+    return remaining;
+  }
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Emits Java Flight Recorder events for a serializer or deserializer. Nothing in this class touches the
+ * {@code jdk.jfr} API directly so it can be loaded on runtimes without it, everything else is in
+ * {@link Jfr} which is only loaded when the API is present. While no recording is running
+ * {@link #isEnabled()} is false and nothing is measured.
+ */
+final class SerdeEvents {
+  static final boolean AVAILABLE = available();
+  private static final Set<SerdeEvents> INSTANCES = Collections.synchronizedSet(
+      Collections.newSetFromMap(new WeakHashMap<>())
+  );
+
+  private final String operation;
+  private final long durationThresholdNanos;
+  private final long sizeThreshold;
+  private final ConcurrentMap<String, Summary> summaries = new ConcurrentHashMap<>();
+
+  private SerdeEvents(String operation, long durationThresholdNanos, long sizeThreshold) {
+    this.operation = operation;
+    this.durationThresholdNanos = durationThresholdNanos;
+    this.sizeThreshold = sizeThreshold;
+  }
+
+  private static boolean available() {
+    try {
+      Class.forName("jdk.jfr.FlightRecorder", false, SerdeEvents.class.getClassLoader());
+      Jfr.register();
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns the events for a serializer or deserializer, or null if the runtime does not support
+   * flight recorder events.
+   */
+  static SerdeEvents create(String operation, long durationThresholdMicros, long sizeThreshold) {
+    if (!AVAILABLE) {
+      return null;
+    }
+    final SerdeEvents result = new SerdeEvents(operation, durationThresholdMicros * 1000L, sizeThreshold);
+    INSTANCES.add(result);
+    return result;
+  }
+
+  /**
+   * Returns true if a running recording has either event enabled.
+   */
+  boolean isEnabled() {
+    return Jfr.recordEnabled() || Jfr.summaryEnabled();
+  }
+
+  /**
+   * Begins the record event before the work is done, so the event spans it. The result is handed back
+   * to {@link #record(Object, String, Class, int, long)}.
+   *
+   * @return the begun event, null when no recording has the record event enabled
+   */
+  Object begin() {
+    return Jfr.recordEnabled() ? Jfr.begin() : null;
+  }
+
+  void record(Object event, String topic, Class<?> targetType, int size, long elapsed) {
+    final boolean overThreshold = elapsed >= this.durationThresholdNanos || size >= this.sizeThreshold;
+    if (overThreshold && null != event) {
+      Jfr.commitRecord(event, this.operation, topic, targetType, size, elapsed);
+    }
+    if (Jfr.summaryEnabled()) {
+      final String key = null == topic ? "" : topic;
+      Summary summary = this.summaries.get(key);
+      if (null == summary) {
+        summary = this.summaries.computeIfAbsent(key, k -> new Summary());
+      }
+      summary.record(size, elapsed, overThreshold);
+    }
+  }
+
+  void close() {
+    INSTANCES.remove(this);
+  }
+
+  /**
+   * Called by the flight recorder once per period to emit a summary per topic and instance.
+   */
+  static void emitSummaries() {
+    final List<SerdeEvents> instances;
+    synchronized (INSTANCES) {
+      instances = new ArrayList<>(INSTANCES);
+    }
+    for (SerdeEvents instance : instances) {
+      for (Map.Entry<String, Summary> entry : instance.summaries.entrySet()) {
+        final Summary summary = entry.getValue();
+        final long records = summary.records.sumThenReset();
+        if (0 == records) {
+          continue;
+        }
+        Jfr.commitSummary(
+            instance.operation,
+            entry.getKey(),
+            records,
+            summary.bytes.sumThenReset(),
+            summary.overThreshold.sumThenReset(),
+            summary.maxElapsed.getThenReset()
+        );
+      }
+    }
+  }
+
+  static final class Summary {
+    final LongAdder records = new LongAdder();
+    final LongAdder bytes = new LongAdder();
+    final LongAdder overThreshold = new LongAdder();
+    final LongAccumulator maxElapsed = new LongAccumulator(Long::max, 0L);
+
+    void record(int size, long elapsed, boolean overThreshold) {
+      this.records.increment();
+      this.bytes.add(size);
+      this.maxElapsed.accumulate(elapsed);
+      if (overThreshold) {
+        this.overThreshold.increment();
+      }
+    }
+  }
+
+  /**
+   * Everything that touches the {@code jdk.jfr} API.
+   */
+  static final class Jfr {
+    private static final EventType RECORD_TYPE = EventType.getEventType(JfrRecordEvent.class);
+    private static final EventType SUMMARY_TYPE = EventType.getEventType(JfrSummaryEvent.class);
+
+    static void register() {
+      FlightRecorder.addPeriodicEvent(JfrSummaryEvent.class, SerdeEvents::emitSummaries);
+    }
+
+    static boolean recordEnabled() {
+      return RECORD_TYPE.isEnabled();
+    }
+
+    static boolean summaryEnabled() {
+      return SUMMARY_TYPE.isEnabled();
+    }
+
+    static Object begin() {
+      final JfrRecordEvent event = new JfrRecordEvent();
+      event.begin();
+      return event;
+    }
+
+    static void commitRecord(Object begun, String operation, String topic, Class<?> targetType, int size, long elapsed) {
+      final JfrRecordEvent event = (JfrRecordEvent) begun;
+      event.end();
+      if (event.shouldCommit()) {
+        event.operation = operation;
+        event.topic = topic;
+        event.targetType = targetType;
+        event.size = size;
+        event.elapsed = elapsed;
+        event.commit();
+      }
+    }
+
+    static void commitSummary(String operation, String topic, long records, long bytes, long overThreshold, long maxElapsed) {
+      final JfrSummaryEvent event = new JfrSummaryEvent();
+      event.operation = operation;
+      event.topic = topic;
+      event.records = records;
+      event.bytes = bytes;
+      event.overThreshold = overThreshold;
+      event.maxElapsed = maxElapsed;
+      event.commit();
+    }
+  }
+}
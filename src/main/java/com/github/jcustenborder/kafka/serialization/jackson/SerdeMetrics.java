@@ -0,0 +1,221 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.JmxReporter;
+import org.apache.kafka.common.metrics.Measurable;
+import org.apache.kafka.common.metrics.MetricConfig;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.metrics.MetricsReporter;
+import org.apache.kafka.common.utils.Time;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Per topic record, byte, error and timing statistics for a serializer or deserializer. Records, bytes and
+ * errors are counted with {@link LongAdder}s whose totals and {@link CounterRate rates} are worked out when
+ * the metrics are read, timings and payload sizes go to a lock free {@link WindowedHistogram} covering the
+ * same window as the rates. Recording a record takes no lock and does not read the clock. Without a
+ * registry of their own, all instances with the same client id share one {@link Metrics} and its
+ * {@link JmxReporter}, which is closed with the last of them. Instances that would register the same metric
+ * names get an {@code instance} tag.
+ */
+class SerdeMetrics implements Closeable {
+  static final String JMX_PREFIX = "kafka.serialization.jackson";
+  private static final AtomicInteger CLIENT_NUMBER = new AtomicInteger();
+  private static final Map<String, Metrics> SHARED = new HashMap<>();
+  private static final Map<String, Integer> REFERENCES = new HashMap<>();
+  private static final Map<Metrics, Set<List<Object>>> IDENTITIES = new IdentityHashMap<>();
+
+  private final Metrics metrics;
+  private final String sharedKey;
+  private final List<Object> identity;
+  private final String group;
+  private final String timeName;
+  private final Map<String, String> tags;
+  private final boolean payloadSizes;
+  private final ConcurrentMap<String, TopicMetrics> topics = new ConcurrentHashMap<>();
+  private final List<MetricName> metricNames = Collections.synchronizedList(new ArrayList<>());
+  private boolean closed;
+
+  SerdeMetrics(Metrics metrics, String group, String timeName, Map<String, ?> settings, boolean isKey) {
+    this(metrics, group, timeName, settings, isKey, false);
+  }
+
+  /**
+   * @param payloadSizes flag to report the size of the records as well
+   */
+  SerdeMetrics(Metrics metrics, String group, String timeName, Map<String, ?> settings, boolean isKey,
+               boolean payloadSizes) {
+    this.group = group;
+    this.timeName = timeName;
+    this.payloadSizes = payloadSizes;
+    final Object clientId = settings.get("client.id");
+    final String client = null == clientId || clientId.toString().isEmpty() ?
+        group + "-" + CLIENT_NUMBER.incrementAndGet() :
+        clientId.toString();
+    this.tags = new LinkedHashMap<>();
+    this.tags.put("client-id", client);
+    this.tags.put("role", isKey ? "key" : "value");
+    synchronized (SerdeMetrics.class) {
+      if (null == metrics) {
+        this.metrics = SHARED.computeIfAbsent(client, k -> {
+          final List<MetricsReporter> reporters = Collections.singletonList(new JmxReporter(JMX_PREFIX));
+          return new Metrics(new MetricConfig(), reporters, Time.SYSTEM);
+        });
+        REFERENCES.merge(client, 1, Integer::sum);
+        this.sharedKey = client;
+      } else {
+        this.metrics = metrics;
+        this.sharedKey = null;
+      }
+      final Set<List<Object>> identities = IDENTITIES.computeIfAbsent(this.metrics, k -> new HashSet<>());
+      int instance = 1;
+      while (!identities.add(Arrays.asList(group, new LinkedHashMap<>(this.tags)))) {
+        this.tags.put("instance", Integer.toString(++instance));
+      }
+      this.identity = Arrays.asList(group, new LinkedHashMap<>(this.tags));
+    }
+  }
+
+  Metrics metrics() {
+    return this.metrics;
+  }
+
+  Map<String, String> tags() {
+    return Collections.unmodifiableMap(this.tags);
+  }
+
+  TopicMetrics topic(String topic) {
+    final String key = null == topic ? "" : topic;
+    TopicMetrics result = this.topics.get(key);
+    if (null == result) {
+      result = this.topics.computeIfAbsent(key, this::register);
+    }
+    return result;
+  }
+
+  private TopicMetrics register(String topic) {
+    final Map<String, String> tags = new LinkedHashMap<>(this.tags);
+    tags.put("topic", topic);
+    final long now = Time.SYSTEM.milliseconds();
+    final WindowedHistogram time = new WindowedHistogram(this.metrics.config(), now);
+    final WindowedHistogram sizes = this.payloadSizes ? new WindowedHistogram(this.metrics.config(), now) : null;
+    final TopicMetrics result = new TopicMetrics(time, sizes);
+    add("record-rate", "Number of records per second.", tags, new CounterRate(result.records, now));
+    add("record-total", "Number of records.", tags, (config, ms) -> result.records.sum());
+    add("bytes-rate", "Number of serialized bytes per second.", tags, new CounterRate(result.bytes, now));
+    add("bytes-total", "Number of serialized bytes.", tags, (config, ms) -> result.bytes.sum());
+    add("error-total", "Number of records that failed.", tags, (config, ms) -> result.errors.sum());
+    addHistogram(this.timeName, "time spent per record in nanoseconds", tags, time);
+    if (null != sizes) {
+      addHistogram("payload-size", "payload size in bytes", tags, sizes);
+    }
+    return result;
+  }
+
+  private void addHistogram(String prefix, String description, Map<String, String> tags, WindowedHistogram histogram) {
+    addHistogram(prefix + "-avg", "Average " + description + ".", tags, histogram, Log2Histogram::mean);
+    addHistogram(prefix + "-max", "Maximum " + description + ".", tags, histogram, Log2Histogram::max);
+    addHistogram(prefix + "-p50", "Median " + description + ".", tags, histogram, h -> h.percentile(50D));
+    addHistogram(prefix + "-p99", "99th percentile of the " + description + ".", tags, histogram, h -> h.percentile(99D));
+    addHistogram(prefix + "-p999", "99.9th percentile of the " + description + ".", tags, histogram, h -> h.percentile(99.9D));
+  }
+
+  private void addHistogram(String name, String description, Map<String, String> tags, WindowedHistogram histogram,
+                            ToDoubleFunction<Log2Histogram> stat) {
+    add(name, description, tags, (config, now) -> stat.applyAsDouble(histogram.snapshot(now)));
+  }
+
+  private MetricName metricName(String name, String description, Map<String, String> tags) {
+    return this.metrics.metricName(name, this.group, description, tags);
+  }
+
+  private void add(String name, String description, Map<String, String> tags, Measurable measurable) {
+    final MetricName metricName = metricName(name, description, tags);
+    this.metrics.addMetric(metricName, measurable);
+    this.metricNames.add(metricName);
+  }
+
+  @Override
+  public void close() {
+    synchronized (SerdeMetrics.class) {
+      if (this.closed) {
+        return;
+      }
+      this.closed = true;
+      synchronized (this.metricNames) {
+        this.metricNames.forEach(this.metrics::removeMetric);
+      }
+      final Set<List<Object>> identities = IDENTITIES.get(this.metrics);
+      identities.remove(this.identity);
+      if (identities.isEmpty()) {
+        IDENTITIES.remove(this.metrics);
+      }
+      if (null != this.sharedKey && 0 == REFERENCES.merge(this.sharedKey, -1, Integer::sum)) {
+        REFERENCES.remove(this.sharedKey);
+        SHARED.remove(this.sharedKey).close();
+      }
+    }
+    this.metricNames.clear();
+    this.topics.clear();
+  }
+
+  /**
+   * Statistics for a single topic.
+   */
+  static final class TopicMetrics {
+    final WindowedHistogram time;
+    final WindowedHistogram sizes;
+    final LongAdder records = new LongAdder();
+    final LongAdder bytes = new LongAdder();
+    final LongAdder errors = new LongAdder();
+
+    TopicMetrics(WindowedHistogram time, WindowedHistogram sizes) {
+      this.time = time;
+      this.sizes = sizes;
+    }
+
+    void record(int size, long nanos) {
+      this.records.increment();
+      this.bytes.add(size);
+      this.time.record(nanos);
+      if (null != this.sizes) {
+        this.sizes.record(size);
+      }
+    }
+
+    void error() {
+      this.errors.increment();
+    }
+  }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Resolves the ObjectReader for a topic from the {@code topic.type.mapping} setting. Exact topic names
+ * are checked first, then each entry is tried as a regular expression in the order it was configured.
+ * Topics that do not match any entry use the fallback reader. The result for each topic is cached so
+ * routing costs a single lock free lookup once a topic has been seen.
+ */
+final class TopicTypeRouter {
+  private final Map<String, ObjectReader> exact;
+  private final List<PatternReader> patterns;
+  private final ObjectReader fallback;
+  private final Set<Class<?>> classes;
+  private final Map<ObjectReader, Class<?>> readerClasses;
+  private final ConcurrentMap<String, ObjectReader> resolved = new ConcurrentHashMap<>();
+
+  private TopicTypeRouter(Map<String, ObjectReader> exact, List<PatternReader> patterns, ObjectReader fallback, Set<Class<?>> classes, Map<ObjectReader, Class<?>> readerClasses) {
+    this.exact = exact;
+    this.patterns = patterns;
+    this.fallback = fallback;
+    this.classes = classes;
+    this.readerClasses = readerClasses;
+  }
+
+  /**
+   * Parses entries in the format {@code <topic or regex>:<class>}.
+   *
+   * @param key          config key used for error messages
+   * @param entries      entries to parse
+   * @param base         reader the readers for each class are derived from
+   * @param fallback     reader for topics that do not match any entry
+   * @return router for the entries
+   */
+  static TopicTypeRouter parse(String key, List<String> entries, ObjectReader base, ObjectReader fallback) {
+    final Map<String, ObjectReader> exact = new HashMap<>();
+    final List<PatternReader> patterns = new ArrayList<>(entries.size());
+    final Set<Class<?>> classes = new LinkedHashSet<>();
+    final Map<ObjectReader, Class<?>> readerClasses = new IdentityHashMap<>();
+    for (String entry : entries) {
+      final int index = entry.lastIndexOf(':');
+      if (index <= 0 || index == entry.length() - 1) {
+        throw new ConfigException(key, entry, "Entries must be in the format <topic or regex>:<class>.");
+      }
+      final String topic = entry.substring(0, index).trim();
+      final String className = entry.substring(index + 1).trim();
+      final Class<?> cls;
+      try {
+        cls = Class.forName(className, true, Utils.getContextOrKafkaClassLoader());
+      } catch (ClassNotFoundException e) {
+        throw new ConfigException(key, entry, String.format("Class '%s' could not be found.", className));
+      }
+      final Pattern pattern;
+      try {
+        pattern = Pattern.compile(topic);
+      } catch (PatternSyntaxException e) {
+        throw new ConfigException(key, entry, String.format("'%s' is not a valid regular expression.", topic));
+      }
+      final ObjectReader reader = base.forType(cls);
+      classes.add(cls);
+      readerClasses.put(reader, cls);
+      exact.putIfAbsent(topic, reader);
+      patterns.add(new PatternReader(pattern, reader));
+    }
+    return new TopicTypeRouter(exact, patterns, fallback, classes, readerClasses);
+  }
+
+  /**
+   * Returns the reader for the topic.
+   *
+   * @param topic topic the data was read from, may be null
+   * @return reader for the topic
+   */
+  ObjectReader reader(String topic) {
+    if (null == topic) {
+      return this.fallback;
+    }
+    final ObjectReader result = this.resolved.get(topic);
+    if (null != result) {
+      return result;
+    }
+    return this.resolved.computeIfAbsent(topic, this::resolve);
+  }
+
+  private ObjectReader resolve(String topic) {
+    final ObjectReader result = this.exact.get(topic);
+    if (null != result) {
+      return result;
+    }
+    for (PatternReader patternReader : this.patterns) {
+      if (patternReader.pattern.matcher(topic).matches()) {
+        return patternReader.reader;
+      }
+    }
+    return this.fallback;
+  }
+
+  /**
+   * Returns the class the reader for the topic binds to.
+   *
+   * @return class, null if the topic uses the fallback reader
+   */
+  Class<?> cls(String topic) {
+    return this.readerClasses.get(reader(topic));
+  }
+
+  /**
+   * Classes referenced by the mapping.
+   */
+  Set<Class<?>> classes() {
+    return this.classes;
+  }
+
+  static final class PatternReader {
+    final Pattern pattern;
+    final ObjectReader reader;
+
+    PatternReader(Pattern pattern, ObjectReader reader) {
+      this.pattern = pattern;
+      this.reader = reader;
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.utils.Utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the compact type ids written to the type header to classes and back. Only classes listed in
+ * {@code type.id.mapping} are ever resolved from a header so a record cannot make the deserializer
+ * instantiate an arbitrary class.
+ */
+final class TypeIdMapping {
+  private final Map<String, Class<?>> classes;
+  private final Map<Class<?>, byte[]> typeIds;
+
+  private TypeIdMapping(Map<String, Class<?>> classes) {
+    this.classes = classes;
+    this.typeIds = new HashMap<>(classes.size());
+    for (Map.Entry<String, Class<?>> e : classes.entrySet()) {
+      this.typeIds.putIfAbsent(e.getValue(), e.getKey().getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Parses entries in the format {@code <type id>:<class>}. An entry that is only a class name uses the
+   * class name as the type id.
+   *
+   * @param key     config key used for error messages
+   * @param entries entries to parse
+   * @return mapping for the entries
+   */
+  static TypeIdMapping parse(String key, List<String> entries) {
+    final Map<String, Class<?>> classes = new LinkedHashMap<>();
+    for (String entry : entries) {
+      final int index = entry.indexOf(':');
+      final String typeId = (index < 0 ? entry : entry.substring(0, index)).trim();
+      final String className = (index < 0 ? entry : entry.substring(index + 1)).trim();
+      if (typeId.isEmpty() || className.isEmpty()) {
+        throw new ConfigException(key, entry, "Entries must be in the format <type id>:<class> or <class>.");
+      }
+      final Class<?> cls;
+      try {
+        cls = Class.forName(className, true, Utils.getContextOrKafkaClassLoader());
+      } catch (ClassNotFoundException e) {
+        throw new ConfigException(key, entry, String.format("Class '%s' could not be found.", className));
+      }
+      if (null != classes.putIfAbsent(typeId, cls)) {
+        throw new ConfigException(key, entry, String.format("Type id '%s' is mapped more than once.", typeId));
+      }
+    }
+    return new TypeIdMapping(classes);
+  }
+
+  /**
+   * Returns the bytes written to the type header for the class. Classes that are not mapped use their
+   * class name.
+   */
+  byte[] typeId(Class<?> cls) {
+    final byte[] result = this.typeIds.get(cls);
+    return null != result ? result : cls.getName().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Builds a reader for every mapped type id. The returned map is keyed by the UTF-8 bytes of the type
+   * id wrapped in a ByteBuffer so header values can be looked up without decoding them.
+   */
+  Map<ByteBuffer, ObjectReader> readers(ObjectReader base) {
+    final Map<ByteBuffer, ObjectReader> result = new HashMap<>(this.classes.size());
+    for (Map.Entry<String, Class<?>> e : this.classes.entrySet()) {
+      result.put(
+          ByteBuffer.wrap(e.getKey().getBytes(StandardCharsets.UTF_8)),
+          base.forType(e.getValue())
+      );
+    }
+    return result;
+  }
+
+  /**
+   * Returns the class mapped to the type id read from a header.
+   *
+   * @return class, null if the type id is not mapped
+   */
+  Class<?> cls(byte[] typeId) {
+    return this.classes.get(new String(typeId, StandardCharsets.UTF_8));
+  }
+
+  Collection<Class<?>> classes() {
+    return this.classes.values();
+  }
+}
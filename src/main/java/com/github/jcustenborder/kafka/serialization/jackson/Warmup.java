@@ -0,0 +1,144 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds Jackson's serializers and deserializers ahead of time. Jackson creates them lazily the first
+ * time a type is seen which makes the first records after a restart or rebalance noticeably slower.
+ */
+final class Warmup {
+  private static final Logger log = LoggerFactory.getLogger(Warmup.class);
+
+  private Warmup() {
+
+  }
+
+  static List<Class<?>> loadClasses(String key, List<String> classNames) {
+    final List<Class<?>> result = new ArrayList<>(classNames.size());
+    for (String className : classNames) {
+      try {
+        result.add(Class.forName(className.trim(), true, Utils.getContextOrKafkaClassLoader()));
+      } catch (ClassNotFoundException e) {
+        throw new ConfigException(key, className, "Class could not be found.");
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Walks the properties of the supplied types and returns every type that is reached. Container and
+   * reference types are followed to their content. Types from the JDK are not walked into.
+   */
+  static Set<JavaType> typeGraph(ObjectMapper objectMapper, Collection<? extends Type> types) {
+    final Set<JavaType> result = new LinkedHashSet<>();
+    for (Type type : types) {
+      walk(objectMapper, objectMapper.constructType(type), result);
+    }
+    return result;
+  }
+
+  private static void walk(ObjectMapper objectMapper, JavaType type, Set<JavaType> visited) {
+    if (null == type || type.isPrimitive() || type.isJavaLangObject() || !visited.add(type)) {
+      return;
+    }
+    if (type.isContainerType() || type.isReferenceType()) {
+      walk(objectMapper, type.getKeyType(), visited);
+      walk(objectMapper, type.getContentType(), visited);
+      return;
+    }
+    if (type.isEnumType() || isJdkType(type.getRawClass())) {
+      return;
+    }
+    final BeanDescription description = objectMapper.getSerializationConfig().introspect(type);
+    for (BeanPropertyDefinition property : description.findProperties()) {
+      walk(objectMapper, property.getPrimaryType(), visited);
+    }
+  }
+
+  static boolean isJdkType(Class<?> cls) {
+    final String name = cls.getName();
+    return name.startsWith("java.") || name.startsWith("javax.");
+  }
+
+  /**
+   * Builds and caches the serializer for every type in the graph of the supplied classes.
+   */
+  static void serializers(ObjectMapper objectMapper, Collection<? extends Type> types) {
+    for (JavaType type : typeGraph(objectMapper, types)) {
+      try {
+        objectMapper.writerFor(type);
+      } catch (RuntimeException e) {
+        log.debug("serializers() - Could not build serializer for {}", type, e);
+      }
+    }
+  }
+
+  /**
+   * Builds and caches the deserializer for every type in the graph of the supplied classes.
+   */
+  static void deserializers(ObjectMapper objectMapper, Collection<? extends Type> types) {
+    for (JavaType type : typeGraph(objectMapper, types)) {
+      try {
+        objectMapper.readerFor(type);
+      } catch (RuntimeException e) {
+        log.debug("deserializers() - Could not build deserializer for {}", type, e);
+      }
+    }
+  }
+
+  /**
+   * Reads an empty object into each of the supplied types and writes the result back out. Types that
+   * cannot be created from an empty object are skipped.
+   */
+  static void roundTrip(ObjectMapper objectMapper, Collection<? extends Type> types, int iterations) {
+    final byte[] empty;
+    try {
+      empty = objectMapper.writeValueAsBytes(objectMapper.createObjectNode());
+    } catch (IOException e) {
+      log.debug("roundTrip() - Could not write empty object", e);
+      return;
+    }
+    for (Type type : types) {
+      try {
+        final ObjectReader reader = objectMapper.readerFor(objectMapper.constructType(type));
+        for (int i = 0; i < iterations; i++) {
+          Object value = reader.readValue(empty);
+          objectMapper.writeValueAsBytes(value);
+        }
+      } catch (IOException | RuntimeException e) {
+        log.debug("roundTrip() - Skipping {}", type.getTypeName(), e);
+      }
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+/**
+ * How much work is done up front in {@code configure()} so the first records do not pay for building
+ * Jackson's serializers and deserializers.
+ */
+public enum WarmupMode {
+  /**
+   * Serializers and deserializers are built lazily on first use.
+   */
+  NONE,
+  /**
+   * Walks the type graph of the configured classes and builds the serializers or deserializers for
+   * every type reached.
+   */
+  CACHES,
+  /**
+   * Everything {@link #CACHES} does followed by a number of synthetic round trips through the
+   * configured classes so the code paths are warm as well.
+   */
+  ROUNDTRIP
+}
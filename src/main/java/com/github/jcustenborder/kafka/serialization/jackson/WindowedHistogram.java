@@ -0,0 +1,77 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import org.apache.kafka.common.metrics.MetricConfig;
+
+/**
+ * {@link Log2Histogram} over the same sliding window Kafka's sampled stats use: a ring of
+ * {@link MetricConfig#samples()} samples, each covering {@link MetricConfig#timeWindowMs()}. Recording is lock
+ * free and does not read the clock. Samples are moved on when the metrics are read, so a sample covers
+ * everything recorded between two reads that are at least a window apart and expires once the window has
+ * passed since it was closed.
+ */
+class WindowedHistogram {
+  private final long windowMs;
+  private final Sample[] samples;
+  private int index;
+  private volatile Sample current;
+
+  WindowedHistogram(MetricConfig config, long now) {
+    this.windowMs = config.timeWindowMs();
+    this.samples = new Sample[Math.max(2, config.samples())];
+    this.current = this.samples[0] = new Sample(now);
+  }
+
+  void record(long value) {
+    this.current.histogram.record(value);
+  }
+
+  /**
+   * Merges the samples that are still inside the window, moving on to the next sample first when the
+   * current one is a window old.
+   *
+   * @param now current time in milliseconds
+   * @return histogram of the values recorded within the window
+   */
+  synchronized Log2Histogram snapshot(long now) {
+    Sample current = this.current;
+    if (now - current.startMs >= this.windowMs) {
+      current.endMs = now;
+      this.index = (this.index + 1) % this.samples.length;
+      current = this.samples[this.index] = new Sample(now);
+      this.current = current;
+    }
+    final Log2Histogram result = new Log2Histogram();
+    final long expired = now - this.windowMs * this.samples.length;
+    for (Sample sample : this.samples) {
+      if (null != sample && (sample == current || sample.endMs > expired)) {
+        sample.histogram.addTo(result);
+      }
+    }
+    return result;
+  }
+
+  static final class Sample {
+    final long startMs;
+    final Log2Histogram histogram = new Log2Histogram();
+    long endMs;
+
+    Sample(long startMs) {
+      this.startMs = startMs;
+    }
+  }
+}
@@ -0,0 +1,1008 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson.processor;
+
+import com.github.jcustenborder.kafka.serialization.jackson.JacksonCodec;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Writes a {@code <Class>_JacksonCodec} class with a streaming serializer and deserializer for every class
+ * annotated with {@link JacksonCodec}. Registered through {@code META-INF/services} so it runs whenever
+ * this library is on the compile classpath. The GraalVM native-image reflection configuration for the
+ * annotated classes and their codecs is written to
+ * {@code META-INF/native-image/<package>/jackson-codecs/reflect-config.json}.
+ */
+@SupportedAnnotationTypes("com.github.jcustenborder.kafka.serialization.jackson.JacksonCodec")
+public class JacksonCodecProcessor extends AbstractProcessor {
+  static final String SUFFIX = "_JacksonCodec";
+  static final String JSON_PROPERTY = "com.fasterxml.jackson.annotation.JsonProperty";
+  static final String JSON_IGNORE = "com.fasterxml.jackson.annotation.JsonIgnore";
+  static final String JSON_IGNORE_PROPERTIES = "com.fasterxml.jackson.annotation.JsonIgnoreProperties";
+  static final String JACKSON_PACKAGE = "com.fasterxml.jackson.";
+  static final String JACKSON_ANNOTATIONS_INSIDE = "com.fasterxml.jackson.annotation.JacksonAnnotationsInside";
+  /**
+   * Jackson annotations the generated code applies, or that do not change how properties are written.
+   */
+  static final Set<String> CLASS_ANNOTATIONS = new HashSet<>(Arrays.asList(
+      JSON_IGNORE_PROPERTIES,
+      "com.fasterxml.jackson.annotation.JsonClassDescription",
+      "com.fasterxml.jackson.annotation.JsonTypeInfo",
+      "com.fasterxml.jackson.annotation.JsonTypeName",
+      "com.fasterxml.jackson.annotation.JsonSubTypes"
+  ));
+  static final Set<String> MEMBER_ANNOTATIONS = new HashSet<>(Arrays.asList(
+      JSON_PROPERTY,
+      JSON_IGNORE,
+      "com.fasterxml.jackson.annotation.JsonPropertyDescription"
+  ));
+  static final List<String> CONTAINER_TYPES = Arrays.asList("java.util.Collection", "java.util.Map");
+  static final String NATIVE_IMAGE_CONFIG = "META-INF/native-image/%s/jackson-codecs/reflect-config.json";
+
+  /**
+   * Binary names of the annotated classes and their codecs by package. Written once all rounds are done.
+   */
+  private final Map<String, Set<String>> nativeImageClasses = new TreeMap<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (Element element : roundEnv.getElementsAnnotatedWith(JacksonCodec.class)) {
+      if (ElementKind.CLASS != element.getKind()) {
+        error(element, "@JacksonCodec can only be used on classes.");
+        continue;
+      }
+      final TypeElement type = (TypeElement) element;
+      final Model model = validate(type) ? model(type) : null;
+      if (null != model) {
+        try {
+          write(type, model);
+        } catch (IOException e) {
+          error(type, "Could not write codec: " + e.getMessage());
+        }
+      }
+    }
+    if (roundEnv.processingOver()) {
+      writeNativeImageConfig();
+    }
+    return true;
+  }
+
+  private void error(Element element, String message) {
+    this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+
+  private void error(Element element, AnnotationMirror mirror, String message) {
+    this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element, mirror);
+  }
+
+  private boolean validate(TypeElement type) {
+    boolean result = true;
+    if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+      error(type, "@JacksonCodec classes can not be abstract.");
+      result = false;
+    }
+    if (type.getModifiers().contains(Modifier.PRIVATE)) {
+      error(type, "@JacksonCodec classes can not be private.");
+      result = false;
+    }
+    if (NestingKind.MEMBER == type.getNestingKind() && !type.getModifiers().contains(Modifier.STATIC)) {
+      error(type, "@JacksonCodec classes nested in another class must be static.");
+      result = false;
+    }
+    if (!type.getTypeParameters().isEmpty()) {
+      error(type, "@JacksonCodec classes can not be generic.");
+      result = false;
+    }
+    boolean hasConstructor = false;
+    for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+        hasConstructor = true;
+      }
+    }
+    if (!hasConstructor) {
+      error(type, "@JacksonCodec classes need a constructor without arguments that is not private.");
+      result = false;
+    }
+    return result;
+  }
+
+  /**
+   * A field, getter or setter. Accessors are linked to a property by their implicit name, the name
+   * Jackson derives from the field or method name before any {@code @JsonProperty} renaming is applied.
+   */
+  static final class Accessor {
+    final Element element;
+    final TypeMirror type;
+    boolean visible;
+    boolean explicit;
+    String explicitName;
+    boolean ignored;
+
+    Accessor(Element element, TypeMirror type, boolean visible) {
+      this.element = element;
+      this.type = type;
+      this.explicit = null != annotation(element, JSON_PROPERTY);
+      this.visible = visible || this.explicit;
+      final String name = propertyName(element, "");
+      this.explicitName = name.isEmpty() ? null : name;
+      this.ignored = ignored(element);
+    }
+
+    /**
+     * Carries over the annotations of the accessor this one overrides or hides, the same way Jackson
+     * merges the annotations of overridden methods.
+     */
+    Accessor inherit(Accessor overridden) {
+      if (null != overridden) {
+        this.ignored |= overridden.ignored;
+        this.explicit |= overridden.explicit;
+        this.visible |= overridden.explicit;
+        if (null == this.explicitName) {
+          this.explicitName = overridden.explicitName;
+        }
+      }
+      return this;
+    }
+  }
+
+  /**
+   * The field, getter and setter sharing an implicit name.
+   */
+  static final class Candidate {
+    final String implicitName;
+    Accessor field;
+    Accessor getter;
+    Accessor setter;
+
+    Candidate(String implicitName) {
+      this.implicitName = implicitName;
+    }
+
+    List<Accessor> accessors() {
+      final List<Accessor> result = new ArrayList<>(3);
+      for (Accessor accessor : Arrays.asList(this.field, this.getter, this.setter)) {
+        if (null != accessor) {
+          result.add(accessor);
+        }
+      }
+      return result;
+    }
+  }
+
+  /**
+   * A single JSON property. A property can be read, written or both.
+   */
+  static final class Property {
+    final String name;
+    final Accessor reader;
+    final Accessor writer;
+    String read;
+    String write;
+
+    Property(String name, Accessor reader, Accessor writer) {
+      this.name = name;
+      this.reader = reader;
+      this.writer = writer;
+    }
+  }
+
+  /**
+   * The properties of a class along with the names that are skipped when reading.
+   */
+  static final class Model {
+    final List<Property> properties;
+    final Set<String> ignoredNames;
+    final boolean ignoreUnknown;
+
+    Model(List<Property> properties, Set<String> ignoredNames, boolean ignoreUnknown) {
+      this.properties = properties;
+      this.ignoredNames = ignoredNames;
+      this.ignoreUnknown = ignoreUnknown;
+    }
+  }
+
+  private static AnnotationMirror annotation(Element element, String annotationType) {
+    for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      if (annotationType.equals(mirror.getAnnotationType().toString())) {
+        return mirror;
+      }
+    }
+    return null;
+  }
+
+  private static Object annotationValue(AnnotationMirror mirror, String name) {
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : mirror.getElementValues().entrySet()) {
+      if (name.contentEquals(e.getKey().getSimpleName())) {
+        return e.getValue().getValue();
+      }
+    }
+    return null;
+  }
+
+  private static boolean ignored(Element element) {
+    final AnnotationMirror ignore = annotation(element, JSON_IGNORE);
+    return null != ignore && !Boolean.FALSE.equals(annotationValue(ignore, "value"));
+  }
+
+  private static String propertyName(Element element, String defaultName) {
+    final AnnotationMirror property = annotation(element, JSON_PROPERTY);
+    if (null != property) {
+      final Object value = annotationValue(property, "value");
+      if (null != value && !value.toString().isEmpty()) {
+        return value.toString();
+      }
+    }
+    return defaultName;
+  }
+
+  /**
+   * Lower cases the leading upper case characters of a getter or setter name the same way Jackson does.
+   */
+  static String mangle(String name) {
+    final StringBuilder result = new StringBuilder(name.length());
+    int i = 0;
+    while (i < name.length() && Character.isUpperCase(name.charAt(i))) {
+      result.append(Character.toLowerCase(name.charAt(i)));
+      i++;
+    }
+    return result.append(name, i, name.length()).toString();
+  }
+
+  static String getterName(ExecutableElement method, TypeMirror returnType) {
+    final String methodName = method.getSimpleName().toString();
+    if (methodName.startsWith("get") && methodName.length() > 3) {
+      return mangle(methodName.substring(3));
+    } else if (methodName.startsWith("is") && methodName.length() > 2 && TypeKind.BOOLEAN == returnType.getKind()) {
+      return mangle(methodName.substring(2));
+    }
+    return null;
+  }
+
+  static String setterName(ExecutableElement method) {
+    final String methodName = method.getSimpleName().toString();
+    return methodName.startsWith("set") && methodName.length() > 3 ? mangle(methodName.substring(3)) : null;
+  }
+
+  /**
+   * Returns the class and its superclasses, excluding {@code java.lang.Object}, starting with the top
+   * most superclass.
+   */
+  static List<TypeElement> hierarchy(TypeElement type) {
+    final List<TypeElement> result = new ArrayList<>();
+    for (TypeElement current = type; null != current && !"java.lang.Object".contentEquals(current.getQualifiedName()); ) {
+      result.add(0, current);
+      final TypeMirror superclass = current.getSuperclass();
+      current = TypeKind.DECLARED == superclass.getKind() ?
+          (TypeElement) ((DeclaredType) superclass).asElement() :
+          null;
+    }
+    return result;
+  }
+
+  private static boolean isJacksonAnnotation(AnnotationMirror mirror) {
+    final Element annotationType = mirror.getAnnotationType().asElement();
+    return mirror.getAnnotationType().toString().startsWith(JACKSON_PACKAGE) ||
+        null != annotation(annotationType, JACKSON_ANNOTATIONS_INSIDE);
+  }
+
+  /**
+   * Reports the Jackson annotations the generated code does not apply. Jackson would honor them, so
+   * silently dropping them would make the codec write and read something different.
+   */
+  private boolean supported(Element element, Set<String> allowed) {
+    boolean result = true;
+    for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      if (!isJacksonAnnotation(mirror)) {
+        continue;
+      }
+      final String name = mirror.getAnnotationType().toString();
+      if (!allowed.contains(name)) {
+        error(element, mirror, "@JacksonCodec does not support @" + name + ". Remove @JacksonCodec to use the bean serializers.");
+        result = false;
+      } else if (JSON_PROPERTY.equals(name)) {
+        final Object access = annotationValue(mirror, "access");
+        if (null != access && !"AUTO".equals(access.toString())) {
+          error(element, mirror, "@JacksonCodec does not support @JsonProperty(access = " + access + ").");
+          result = false;
+        }
+      } else if (JSON_IGNORE_PROPERTIES.equals(name)) {
+        if (Boolean.TRUE.equals(annotationValue(mirror, "allowGetters")) || Boolean.TRUE.equals(annotationValue(mirror, "allowSetters"))) {
+          error(element, mirror, "@JacksonCodec does not support @JsonIgnoreProperties allowGetters or allowSetters.");
+          result = false;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Collects the properties the same way Jackson does with its default settings. Fields, getters and
+   * setters are linked by their implicit name. A {@code @JsonIgnore} on any of them removes the whole
+   * property unless another one is annotated with {@code @JsonProperty}. A non public field is used to
+   * set a property that has a visible getter and no setter. Returns null after reporting an error if the
+   * class can not be modeled.
+   */
+  private Model model(TypeElement type) {
+    final Types types = this.processingEnv.getTypeUtils();
+    final DeclaredType declaredType = (DeclaredType) type.asType();
+    final Map<String, Candidate> candidates = new LinkedHashMap<>();
+    final Set<String> ignoredNames = new TreeSet<>();
+    boolean ignoreUnknown = false;
+    boolean result = true;
+
+    for (TypeElement current : hierarchy(type)) {
+      result &= supported(current, CLASS_ANNOTATIONS);
+      final AnnotationMirror ignoreProperties = annotation(current, JSON_IGNORE_PROPERTIES);
+      if (null != ignoreProperties) {
+        ignoreUnknown |= Boolean.TRUE.equals(annotationValue(ignoreProperties, "ignoreUnknown"));
+        final Object names = annotationValue(ignoreProperties, "value");
+        if (names instanceof List) {
+          for (Object name : (List<?>) names) {
+            ignoredNames.add(((AnnotationValue) name).getValue().toString());
+          }
+        }
+      }
+      for (Element member : current.getEnclosedElements()) {
+        if (member.getModifiers().contains(Modifier.STATIC)) {
+          continue;
+        }
+        if (ElementKind.FIELD == member.getKind()) {
+          result &= supported(member, MEMBER_ANNOTATIONS);
+          final Set<Modifier> modifiers = member.getModifiers();
+          final boolean visible = modifiers.contains(Modifier.PUBLIC) && !modifiers.contains(Modifier.TRANSIENT);
+          final Candidate candidate = candidates.computeIfAbsent(member.getSimpleName().toString(), Candidate::new);
+          candidate.field = new Accessor(member, types.asMemberOf(declaredType, member), visible).inherit(candidate.field);
+        } else if (ElementKind.METHOD == member.getKind()) {
+          result &= supported(member, MEMBER_ANNOTATIONS);
+          final ExecutableElement method = (ExecutableElement) member;
+          final ExecutableType methodType = (ExecutableType) types.asMemberOf(declaredType, method);
+          final boolean explicit = null != annotation(method, JSON_PROPERTY);
+          if (method.getParameters().isEmpty() && TypeKind.VOID != methodType.getReturnType().getKind()) {
+            final String getterName = getterName(method, methodType.getReturnType());
+            final String name = null == getterName && explicit ? method.getSimpleName().toString() : getterName;
+            if (null != name) {
+              final Candidate candidate = candidates.computeIfAbsent(name, Candidate::new);
+              final boolean visible = method.getModifiers().contains(Modifier.PUBLIC);
+              candidate.getter = new Accessor(method, methodType.getReturnType(), visible).inherit(candidate.getter);
+            }
+          } else if (1 == method.getParameters().size()) {
+            final String setterName = setterName(method);
+            final String name = null == setterName && explicit ? method.getSimpleName().toString() : setterName;
+            if (null != name) {
+              final Candidate candidate = candidates.computeIfAbsent(name, Candidate::new);
+              candidate.setter = new Accessor(method, methodType.getParameterTypes().get(0), true).inherit(candidate.setter);
+            }
+          } else if (explicit) {
+            error(method, "@JsonProperty can only be used on fields, getters and setters.");
+            result = false;
+          }
+        } else if (ElementKind.CONSTRUCTOR == member.getKind()) {
+          result &= supported(member, Collections.emptySet());
+        }
+      }
+    }
+
+    final Map<String, Property> properties = new LinkedHashMap<>();
+    for (Candidate candidate : candidates.values()) {
+      if (candidate.accessors().stream().noneMatch(a -> a.visible)) {
+        continue;
+      }
+      if (candidate.accessors().stream().anyMatch(a -> a.ignored)) {
+        if (candidate.accessors().stream().noneMatch(a -> a.explicit)) {
+          ignoredNames.add(candidate.implicitName);
+          continue;
+        }
+        candidate.field = null == candidate.field || candidate.field.ignored ? null : candidate.field;
+        candidate.getter = null == candidate.getter || candidate.getter.ignored ? null : candidate.getter;
+        candidate.setter = null == candidate.setter || candidate.setter.ignored ? null : candidate.setter;
+      }
+      if (null != candidate.getter && !candidate.getter.visible) {
+        candidate.getter = null;
+      }
+      if (null == candidate.getter && null != candidate.field && !candidate.field.visible) {
+        candidate.field = null;
+      }
+      final List<Accessor> accessors = candidate.accessors();
+      if (accessors.isEmpty()) {
+        continue;
+      }
+
+      String name = null;
+      for (Accessor accessor : accessors) {
+        if (null != name && null != accessor.explicitName && !name.equals(accessor.explicitName)) {
+          error(accessor.element, String.format(
+              "@JacksonCodec does not support naming '%s' both '%s' and '%s'.",
+              candidate.implicitName, name, accessor.explicitName
+          ));
+          result = false;
+        } else if (null != accessor.explicitName) {
+          name = accessor.explicitName;
+        }
+      }
+      if (null == name) {
+        name = candidate.implicitName;
+      }
+
+      final Accessor reader = null != candidate.getter ? candidate.getter : candidate.field;
+      final Accessor writer = null != candidate.setter ? candidate.setter : candidate.field;
+      if (null == writer && isContainer(reader.type)) {
+        error(reader.element, String.format(
+            "@JacksonCodec does not support setting '%s' through its getter. Add a setter.", name
+        ));
+        result = false;
+      }
+      if (null != properties.put(name, new Property(name, reader, writer))) {
+        error(accessors.get(0).element, String.format("@JacksonCodec found more than one property named '%s'.", name));
+        result = false;
+      }
+    }
+    for (String name : ignoredNames) {
+      properties.remove(name);
+    }
+    for (Property property : properties.values()) {
+      result &= reachable(type, property.reader);
+      result &= reachable(type, property.writer);
+    }
+    return result ? new Model(new ArrayList<>(properties.values()), ignoredNames, ignoreUnknown) : null;
+  }
+
+  private boolean isContainer(TypeMirror type) {
+    final Types types = this.processingEnv.getTypeUtils();
+    final Elements elements = this.processingEnv.getElementUtils();
+    for (String container : CONTAINER_TYPES) {
+      if (types.isAssignable(types.erasure(type), types.erasure(elements.getTypeElement(container).asType()))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns true if code in the package of the type can use the member directly. Other members are
+   * reached through a method handle.
+   */
+  private boolean isDirect(TypeElement type, Element member) {
+    final Elements elements = this.processingEnv.getElementUtils();
+    final Set<Modifier> modifiers = member.getModifiers();
+    if (modifiers.contains(Modifier.PRIVATE)) {
+      return false;
+    }
+    return modifiers.contains(Modifier.PUBLIC) || elements.getPackageOf(member).equals(elements.getPackageOf(type));
+  }
+
+  /**
+   * Method handles are looked up on the class declaring the member, so that class has to be visible
+   * to the generated code.
+   */
+  private boolean reachable(TypeElement type, Accessor accessor) {
+    if (null == accessor || isDirect(type, accessor.element)) {
+      return true;
+    }
+    final Element declaringType = accessor.element.getEnclosingElement();
+    if (!isDirect(type, declaringType)) {
+      error(accessor.element, String.format(
+          "@JacksonCodec can not reach %s because %s is not visible to the generated code.",
+          accessor.element.getSimpleName(),
+          declaringType
+      ));
+      return false;
+    }
+    return true;
+  }
+
+  static String constant(int index) {
+    return "NAME_" + index;
+  }
+
+  static String quote(String value) {
+    final StringBuilder result = new StringBuilder(value.length() + 2).append('"');
+    for (char c : value.toCharArray()) {
+      switch (c) {
+        case '"':
+          result.append("\\\"");
+          break;
+        case '\\':
+          result.append("\\\\");
+          break;
+        case '\n':
+          result.append("\\n");
+          break;
+        default:
+          if (c < 0x20) {
+            result.append(String.format("\\u%04x", (int) c));
+          } else {
+            result.append(c);
+          }
+      }
+    }
+    return result.append('"').toString();
+  }
+
+  /**
+   * Returns the method of StdDeserializer that parses the primitive, null if the type is not handled
+   * inline.
+   */
+  static String primitiveParser(TypeMirror type) {
+    switch (type.getKind()) {
+      case BOOLEAN:
+        return "_parseBooleanPrimitive";
+      case BYTE:
+        return "_parseBytePrimitive";
+      case SHORT:
+        return "_parseShortPrimitive";
+      case INT:
+        return "_parseIntPrimitive";
+      case LONG:
+        return "_parseLongPrimitive";
+      case FLOAT:
+        return "_parseFloatPrimitive";
+      case DOUBLE:
+        return "_parseDoublePrimitive";
+      default:
+        return null;
+    }
+  }
+
+  static boolean isString(TypeMirror type) {
+    return TypeKind.DECLARED == type.getKind() && "java.lang.String".equals(type.toString());
+  }
+
+  static String boxed(TypeMirror type) {
+    switch (type.getKind()) {
+      case CHAR:
+        return "java.lang.Character";
+      case BOOLEAN:
+        return "java.lang.Boolean";
+      case BYTE:
+        return "java.lang.Byte";
+      case SHORT:
+        return "java.lang.Short";
+      case INT:
+        return "java.lang.Integer";
+      case LONG:
+        return "java.lang.Long";
+      case FLOAT:
+        return "java.lang.Float";
+      case DOUBLE:
+        return "java.lang.Double";
+      default:
+        return type.toString();
+    }
+  }
+
+  /**
+   * Returns the expression that constructs the JavaType of a property handled by a delegate deserializer.
+   */
+  static String javaType(TypeMirror type) {
+    if (type.getKind().isPrimitive()) {
+      return "ctxt.constructType(" + type + ".class)";
+    }
+    final String name = type.toString();
+    if (TypeKind.DECLARED == type.getKind() && !name.contains("<")) {
+      return "ctxt.constructType(" + name + ".class)";
+    }
+    return "ctxt.getTypeFactory().constructType(new com.fasterxml.jackson.core.type.TypeReference<" + name + ">() { })";
+  }
+
+  private void write(TypeElement type, Model model) throws IOException {
+    final List<Property> properties = model.properties;
+    final PackageElement packageElement = this.processingEnv.getElementUtils().getPackageOf(type);
+    final String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+    final String typeName = type.getQualifiedName().toString();
+    final String binaryName = this.processingEnv.getElementUtils().getBinaryName(type).toString();
+    final String flatName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+        .replace('$', '_');
+    final String codecName = flatName + SUFFIX;
+
+    final StringBuilder handles = new StringBuilder();
+    for (int i = 0; i < properties.size(); i++) {
+      final Property property = properties.get(i);
+      if (null != property.reader) {
+        property.read = read(type, typeName, property.reader, i, handles);
+      }
+      if (null != property.writer) {
+        property.write = write(type, typeName, property.writer, i, handles);
+      }
+    }
+
+    final StringBuilder source = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      source.append("package ").append(packageName).append(";\n\n");
+    }
+    source.append("/**\n")
+        .append(" * Streaming serializer and deserializer for {@link ").append(typeName).append("}.\n")
+        .append(" * Generated by ").append(JacksonCodecProcessor.class.getName()).append(". Do not edit.\n")
+        .append(" */\n")
+        .append("public final class ").append(codecName).append(" {\n");
+    for (int i = 0; i < properties.size(); i++) {
+      source.append("  static final com.fasterxml.jackson.core.io.SerializedString ").append(constant(i))
+          .append(" = new com.fasterxml.jackson.core.io.SerializedString(").append(quote(properties.get(i).name)).append(");\n");
+    }
+    source.append("\n  private ").append(codecName).append("() {\n  }\n\n");
+    if (handles.length() > 0) {
+      source.append(handles);
+      writeHandleLookups(source);
+    }
+
+    writeSerializer(source, typeName, properties);
+    writeDeserializer(source, typeName, model);
+    source.append("}\n");
+
+    final JavaFileObject file = this.processingEnv.getFiler().createSourceFile(
+        packageName.isEmpty() ? codecName : packageName + "." + codecName,
+        type
+    );
+    try (Writer writer = file.openWriter()) {
+      writer.write(source.toString());
+    }
+
+    final String codecBinaryName = packageName.isEmpty() ? codecName : packageName + "." + codecName;
+    final Set<String> classes = this.nativeImageClasses.computeIfAbsent(
+        packageName.isEmpty() ? "default" : packageName,
+        k -> new TreeSet<>()
+    );
+    classes.add(binaryName);
+    classes.add(codecBinaryName + "$Serializer");
+    classes.add(codecBinaryName + "$Deserializer");
+  }
+
+  private String erasure(TypeMirror type) {
+    return this.processingEnv.getTypeUtils().erasure(type).toString();
+  }
+
+  /**
+   * Returns the method handle lookup for a member the generated code can not use directly.
+   */
+  private String handle(Accessor accessor, boolean setter, String methodType) {
+    final Element element = accessor.element;
+    final String declaringClass = erasure(element.getEnclosingElement().asType()) + ".class";
+    final String name = quote(element.getSimpleName().toString());
+    if (ElementKind.FIELD == element.getKind()) {
+      return "field(" + declaringClass + ", " + name + ", " + setter + ", " + methodType + ")";
+    }
+    final StringBuilder result = new StringBuilder("method(").append(declaringClass).append(", ").append(name).append(", ").append(methodType);
+    for (VariableElement parameter : ((ExecutableElement) element).getParameters()) {
+      result.append(", ").append(erasure(parameter.asType())).append(".class");
+    }
+    return result.append(')').toString();
+  }
+
+  /**
+   * Returns the expression that reads the property from {@code value}.
+   */
+  private String read(TypeElement type, String typeName, Accessor accessor, int index, StringBuilder handles) {
+    final Element element = accessor.element;
+    final boolean field = ElementKind.FIELD == element.getKind();
+    if (isDirect(type, element)) {
+      return "value." + element.getSimpleName() + (field ? "" : "()");
+    }
+    final String handle = "GET_" + index;
+    final String methodType = "java.lang.invoke.MethodType.methodType(" + erasure(accessor.type) + ".class, " + typeName + ".class)";
+    handles.append("  static final java.lang.invoke.MethodHandle ").append(handle).append(" = ").append(handle(accessor, false, methodType)).append(";\n\n")
+        .append("  static ").append(accessor.type).append(" get").append(index).append("(").append(typeName).append(" value) throws java.io.IOException {\n")
+        .append("    try {\n")
+        .append("      return (").append(accessor.type).append(") ").append(handle).append(".invokeExact(value);\n")
+        .append("    } catch (Throwable t) {\n")
+        .append("      throw rethrow(t);\n")
+        .append("    }\n")
+        .append("  }\n\n");
+    return "get" + index + "(value)";
+  }
+
+  /**
+   * Returns the statement format that sets the property on {@code bean}.
+   */
+  private String write(TypeElement type, String typeName, Accessor accessor, int index, StringBuilder handles) {
+    final Element element = accessor.element;
+    final boolean field = ElementKind.FIELD == element.getKind();
+    if (isDirect(type, element) && !(field && element.getModifiers().contains(Modifier.FINAL))) {
+      return "bean." + element.getSimpleName() + (field ? " = %s" : "(%s)");
+    }
+    final String handle = "SET_" + index;
+    final String methodType = "java.lang.invoke.MethodType.methodType(void.class, " + typeName + ".class, " + erasure(accessor.type) + ".class)";
+    handles.append("  static final java.lang.invoke.MethodHandle ").append(handle).append(" = ").append(handle(accessor, true, methodType)).append(";\n\n")
+        .append("  static void set").append(index).append("(").append(typeName).append(" bean, ").append(accessor.type).append(" value) throws java.io.IOException {\n")
+        .append("    try {\n")
+        .append("      ").append(handle).append(".invokeExact(bean, value);\n")
+        .append("    } catch (Throwable t) {\n")
+        .append("      throw rethrow(t);\n")
+        .append("    }\n")
+        .append("  }\n\n");
+    return "set" + index + "(bean, %s)";
+  }
+
+  /**
+   * Writes the helpers that look up method handles for members the generated code can not use directly,
+   * including final fields that Jackson would set.
+   */
+  private void writeHandleLookups(StringBuilder source) {
+    source.append("  static java.lang.invoke.MethodHandle field(Class<?> declaringClass, String name, boolean setter, java.lang.invoke.MethodType type) {\n")
+        .append("    try {\n")
+        .append("      final java.lang.reflect.Field field = declaringClass.getDeclaredField(name);\n")
+        .append("      field.setAccessible(true);\n")
+        .append("      final java.lang.invoke.MethodHandles.Lookup lookup = java.lang.invoke.MethodHandles.lookup();\n")
+        .append("      return (setter ? lookup.unreflectSetter(field) : lookup.unreflectGetter(field)).asType(type);\n")
+        .append("    } catch (ReflectiveOperationException e) {\n")
+        .append("      throw new IllegalStateException(\"Could not access \" + declaringClass.getName() + \".\" + name, e);\n")
+        .append("    }\n")
+        .append("  }\n\n")
+        .append("  static java.lang.invoke.MethodHandle method(Class<?> declaringClass, String name, java.lang.invoke.MethodType type, Class<?>... parameterTypes) {\n")
+        .append("    try {\n")
+        .append("      final java.lang.reflect.Method method = declaringClass.getDeclaredMethod(name, parameterTypes);\n")
+        .append("      method.setAccessible(true);\n")
+        .append("      return java.lang.invoke.MethodHandles.lookup().unreflect(method).asType(type);\n")
+        .append("    } catch (ReflectiveOperationException e) {\n")
+        .append("      throw new IllegalStateException(\"Could not access \" + declaringClass.getName() + \".\" + name, e);\n")
+        .append("    }\n")
+        .append("  }\n\n")
+        .append("  static java.io.IOException rethrow(Throwable t) {\n")
+        .append("    if (t instanceof java.io.IOException) {\n")
+        .append("      return (java.io.IOException) t;\n")
+        .append("    } else if (t instanceof RuntimeException) {\n")
+        .append("      throw (RuntimeException) t;\n")
+        .append("    } else if (t instanceof Error) {\n")
+        .append("      throw (Error) t;\n")
+        .append("    }\n")
+        .append("    return new java.io.IOException(t);\n")
+        .append("  }\n\n");
+  }
+
+  /**
+   * Writes a reflection configuration per package. Jackson still introspects the annotated classes and
+   * the codecs are created reflectively, so native images need both registered.
+   */
+  private void writeNativeImageConfig() {
+    for (Map.Entry<String, Set<String>> e : this.nativeImageClasses.entrySet()) {
+      final StringBuilder json = new StringBuilder("[\n");
+      String separator = "";
+      for (String name : e.getValue()) {
+        json.append(separator)
+            .append("  {\n")
+            .append("    \"name\": ").append(quote(name)).append(",\n")
+            .append("    \"allDeclaredConstructors\": true,\n")
+            .append("    \"allPublicConstructors\": true,\n")
+            .append("    \"allDeclaredFields\": true,\n")
+            .append("    \"allPublicFields\": true,\n")
+            .append("    \"allDeclaredMethods\": true,\n")
+            .append("    \"allPublicMethods\": true\n")
+            .append("  }");
+        separator = ",\n";
+      }
+      json.append("\n]\n");
+      try {
+        final FileObject file = this.processingEnv.getFiler().createResource(
+            StandardLocation.CLASS_OUTPUT,
+            "",
+            String.format(NATIVE_IMAGE_CONFIG, e.getKey())
+        );
+        try (Writer writer = file.openWriter()) {
+          writer.write(json.toString());
+        }
+      } catch (IOException ex) {
+        this.processingEnv.getMessager().printMessage(
+            Diagnostic.Kind.ERROR,
+            "Could not write native-image configuration: " + ex.getMessage()
+        );
+      }
+    }
+    this.nativeImageClasses.clear();
+  }
+
+  private void writeSerializer(StringBuilder source, String typeName, List<Property> properties) {
+    source.append("  public static final class Serializer extends com.fasterxml.jackson.databind.ser.std.StdSerializer<").append(typeName).append("> {\n")
+        .append("    private static final long serialVersionUID = 1L;\n\n")
+        .append("    public Serializer() {\n")
+        .append("      super(").append(typeName).append(".class);\n")
+        .append("    }\n\n")
+        .append("    @Override\n")
+        .append("    public void serialize(").append(typeName).append(" value, com.fasterxml.jackson.core.JsonGenerator gen, com.fasterxml.jackson.databind.SerializerProvider provider) throws java.io.IOException {\n")
+        .append("      gen.writeStartObject(value);\n")
+        .append("      writeFields(value, gen, provider);\n")
+        .append("      gen.writeEndObject();\n")
+        .append("    }\n\n")
+        .append("    @Override\n")
+        .append("    public void serializeWithType(").append(typeName).append(" value, com.fasterxml.jackson.core.JsonGenerator gen, com.fasterxml.jackson.databind.SerializerProvider provider, com.fasterxml.jackson.databind.jsontype.TypeSerializer typeSer) throws java.io.IOException {\n")
+        .append("      final com.fasterxml.jackson.core.type.WritableTypeId typeId = typeSer.writeTypePrefix(gen, typeSer.typeId(value, com.fasterxml.jackson.core.JsonToken.START_OBJECT));\n")
+        .append("      writeFields(value, gen, provider);\n")
+        .append("      typeSer.writeTypeSuffix(gen, typeId);\n")
+        .append("    }\n\n")
+        .append("    private void writeFields(").append(typeName).append(" value, com.fasterxml.jackson.core.JsonGenerator gen, com.fasterxml.jackson.databind.SerializerProvider provider) throws java.io.IOException {\n")
+        .append("      final com.fasterxml.jackson.annotation.JsonInclude.Include inclusion = provider.getConfig().getDefaultPropertyInclusion().getValueInclusion();\n")
+        .append("      final boolean skipNulls = com.fasterxml.jackson.annotation.JsonInclude.Include.ALWAYS != inclusion &&\n")
+        .append("          com.fasterxml.jackson.annotation.JsonInclude.Include.USE_DEFAULTS != inclusion;\n");
+    for (int i = 0; i < properties.size(); i++) {
+      final Property property = properties.get(i);
+      if (null == property.read) {
+        continue;
+      }
+      final String local = "v" + i;
+      final TypeMirror type = property.reader.type;
+      source.append("      final ").append(type).append(' ').append(local).append(" = ").append(property.read).append(";\n");
+      switch (type.getKind()) {
+        case BOOLEAN:
+          source.append("      gen.writeFieldName(").append(constant(i)).append(");\n")
+              .append("      gen.writeBoolean(").append(local).append(");\n");
+          break;
+        case CHAR:
+          source.append("      gen.writeFieldName(").append(constant(i)).append(");\n")
+              .append("      gen.writeString(String.valueOf(").append(local).append("));\n");
+          break;
+        case BYTE:
+        case SHORT:
+        case INT:
+        case LONG:
+        case FLOAT:
+        case DOUBLE:
+          source.append("      gen.writeFieldName(").append(constant(i)).append(");\n")
+              .append("      gen.writeNumber(").append(local).append(");\n");
+          break;
+        default:
+          source.append("      if (null != ").append(local).append(" || !skipNulls) {\n")
+              .append("        gen.writeFieldName(").append(constant(i)).append(");\n");
+          if (isString(type)) {
+            source.append("        if (null == ").append(local).append(") {\n")
+                .append("          gen.writeNull();\n")
+                .append("        } else {\n")
+                .append("          gen.writeString(").append(local).append(");\n")
+                .append("        }\n");
+          } else {
+            source.append("        provider.defaultSerializeValue(").append(local).append(", gen);\n");
+          }
+          source.append("      }\n");
+      }
+    }
+    source.append("    }\n")
+        .append("  }\n\n");
+  }
+
+  private void writeDeserializer(StringBuilder source, String typeName, Model model) {
+    final List<Property> properties = model.properties;
+    source.append("  public static final class Deserializer extends com.fasterxml.jackson.databind.deser.std.StdDeserializer<").append(typeName).append(">\n")
+        .append("      implements com.fasterxml.jackson.databind.deser.ResolvableDeserializer {\n");
+    final List<Integer> delegates = new ArrayList<>();
+    for (int i = 0; i < properties.size(); i++) {
+      final Property property = properties.get(i);
+      if (null != property.write && null == primitiveParser(property.writer.type) && !isString(property.writer.type)) {
+        delegates.add(i);
+        source.append("    private com.fasterxml.jackson.databind.JsonDeserializer<Object> d").append(i).append(";\n");
+      }
+    }
+    source.append("    private static final long serialVersionUID = 1L;\n")
+        .append("\n    public Deserializer() {\n")
+        .append("      super(").append(typeName).append(".class);\n")
+        .append("    }\n\n")
+        .append("    @Override\n")
+        .append("    public void resolve(com.fasterxml.jackson.databind.DeserializationContext ctxt) throws com.fasterxml.jackson.databind.JsonMappingException {\n");
+    for (int i : delegates) {
+      source.append("      this.d").append(i).append(" = ctxt.findRootValueDeserializer(").append(javaType(properties.get(i).writer.type)).append(");\n");
+    }
+    source.append("    }\n\n")
+        .append("    @Override\n")
+        .append("    public ").append(typeName).append(" deserialize(com.fasterxml.jackson.core.JsonParser p, com.fasterxml.jackson.databind.DeserializationContext ctxt) throws java.io.IOException {\n")
+        .append("      return deserialize(p, ctxt, new ").append(typeName).append("());\n")
+        .append("    }\n\n")
+        .append("    @Override\n")
+        .append("    @SuppressWarnings(\"unchecked\")\n")
+        .append("    public ").append(typeName).append(" deserialize(com.fasterxml.jackson.core.JsonParser p, com.fasterxml.jackson.databind.DeserializationContext ctxt, ").append(typeName).append(" bean) throws java.io.IOException {\n")
+        .append("      com.fasterxml.jackson.core.JsonToken t = p.currentToken();\n")
+        .append("      if (com.fasterxml.jackson.core.JsonToken.START_OBJECT == t) {\n")
+        .append("        t = p.nextToken();\n")
+        .append("      } else if (com.fasterxml.jackson.core.JsonToken.FIELD_NAME != t && com.fasterxml.jackson.core.JsonToken.END_OBJECT != t) {\n")
+        .append("        return (").append(typeName).append(") ctxt.handleUnexpectedToken(").append(typeName).append(".class, p);\n")
+        .append("      }\n")
+        .append("      for (; com.fasterxml.jackson.core.JsonToken.FIELD_NAME == t; t = p.nextToken()) {\n")
+        .append("        final String name = p.getText();\n")
+        .append("        p.nextToken();\n")
+        .append("        switch (name) {\n");
+    for (int i = 0; i < properties.size(); i++) {
+      final Property property = properties.get(i);
+      if (null == property.write) {
+        continue;
+      }
+      final TypeMirror type = property.writer.type;
+      source.append("          case ").append(quote(property.name)).append(":\n");
+      final String parser = primitiveParser(type);
+      if (null != parser) {
+        source.append("            ").append(String.format(property.write, parser + "(p, ctxt)")).append(";\n");
+      } else if (isString(type)) {
+        source.append("            ").append(String.format(property.write, "p.hasToken(com.fasterxml.jackson.core.JsonToken.VALUE_NULL) ? null : _parseString(p, ctxt)")).append(";\n");
+      } else {
+        source.append("            {\n")
+            .append("              final Object value = p.hasToken(com.fasterxml.jackson.core.JsonToken.VALUE_NULL) ?\n")
+            .append("                  this.d").append(i).append(".getNullValue(ctxt) :\n")
+            .append("                  this.d").append(i).append(".deserialize(p, ctxt);\n");
+        if (type.getKind().isPrimitive()) {
+          source.append("              if (null != value) {\n")
+              .append("                ").append(String.format(property.write, "(" + boxed(type) + ") value")).append(";\n")
+              .append("              }\n");
+        } else {
+          source.append("              ").append(String.format(property.write, "(" + type + ") value")).append(";\n");
+        }
+        source.append("            }\n");
+      }
+      source.append("            break;\n");
+    }
+    final Set<String> names = new TreeSet<>();
+    for (Property property : properties) {
+      if (null != property.write) {
+        names.add(property.name);
+      }
+    }
+    for (String ignoredName : model.ignoredNames) {
+      if (names.contains(ignoredName)) {
+        continue;
+      }
+      source.append("          case ").append(quote(ignoredName)).append(":\n")
+          .append("            if (ctxt.isEnabled(com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_IGNORED_PROPERTIES)) {\n")
+          .append("              throw com.fasterxml.jackson.databind.exc.IgnoredPropertyException.from(p, bean, name, null);\n")
+          .append("            }\n")
+          .append("            p.skipChildren();\n")
+          .append("            break;\n");
+    }
+    source.append("          default:\n");
+    if (model.ignoreUnknown) {
+      source.append("            p.skipChildren();\n");
+    } else {
+      source.append("            ctxt.handleUnknownProperty(p, this, bean, name);\n");
+    }
+    source.append("        }\n")
+        .append("      }\n")
+        .append("      return bean;\n")
+        .append("    }\n")
+        .append("  }\n");
+  }
+}
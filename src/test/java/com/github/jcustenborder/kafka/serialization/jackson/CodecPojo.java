@@ -0,0 +1,94 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+
+@JacksonCodec
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CodecPojo {
+  public int id;
+  public long timestamp;
+  public boolean active;
+  public double score;
+  public char grade;
+  public String name;
+  public Long version;
+  public List<String> tags;
+  public Map<String, Integer> counts;
+  public TestPojo owner;
+  @JsonProperty("email_address")
+  public String emailAddress;
+  @JsonIgnore
+  public String secret;
+  private String description;
+  @JsonProperty("order_id")
+  private String orderId;
+  @JsonIgnore
+  private String token;
+  int count;
+  private final String region;
+
+  public CodecPojo() {
+    this("default");
+  }
+
+  CodecPojo(String region) {
+    this.region = region;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public void setDescription(String description) {
+    this.description = description;
+  }
+
+  public String orderId() {
+    return orderId;
+  }
+
+  public void orderId(String orderId) {
+    this.orderId = orderId;
+  }
+
+  public String getToken() {
+    return token;
+  }
+
+  public void setToken(String token) {
+    this.token = token;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  public String getRegion() {
+    return region;
+  }
+
+  @JacksonCodec
+  public static class Strict {
+    public String value;
+  }
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import org.apache.kafka.common.metrics.MetricConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CounterRateTest {
+  final MetricConfig config = new MetricConfig().samples(2).timeWindow(1000, TimeUnit.MILLISECONDS);
+
+  @Test
+  public void rate() {
+    LongAdder counter = new LongAdder();
+    CounterRate rate = new CounterRate(counter, 0L);
+    counter.add(10L);
+    assertEquals(10D, rate.measure(this.config, 100L), 0.001D);
+    counter.add(30L);
+    assertEquals(20D, rate.measure(this.config, 2000L), 0.001D);
+    counter.add(20L);
+    assertEquals(20D, rate.measure(this.config, 3000L), 0.001D);
+  }
+}
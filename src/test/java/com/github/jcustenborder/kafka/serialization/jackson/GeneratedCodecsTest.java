@@ -0,0 +1,237 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+public class GeneratedCodecsTest {
+  static final ImmutableMap<String, String> SETTINGS = ImmutableMap.of(
+      JacksonSerializerConfig.GENERATED_CODECS_ENABLE_CONFIG, "true"
+  );
+
+  static CodecPojo pojo() {
+    CodecPojo result = new CodecPojo("region");
+    result.id = 12;
+    result.timestamp = 1234567890123L;
+    result.active = true;
+    result.score = 1.5D;
+    result.grade = 'A';
+    result.name = "name";
+    result.version = 3L;
+    result.tags = ImmutableList.of("one", "two");
+    result.counts = ImmutableMap.of("a", 1, "b", 2);
+    result.owner = new TestPojo();
+    result.owner.firstName = "first";
+    result.owner.lastName = "last";
+    result.emailAddress = "user@example.com";
+    result.secret = "secret";
+    result.setDescription("description");
+    result.orderId("order");
+    result.setToken("token");
+    result.count = 7;
+    return result;
+  }
+
+  static void assertPojo(CodecPojo expected, CodecPojo actual) {
+    assertNotNull(actual);
+    assertEquals(expected.id, actual.id);
+    assertEquals(expected.timestamp, actual.timestamp);
+    assertEquals(expected.active, actual.active);
+    assertEquals(expected.score, actual.score);
+    assertEquals(expected.grade, actual.grade);
+    assertEquals(expected.name, actual.name);
+    assertEquals(expected.version, actual.version);
+    assertEquals(expected.tags, actual.tags);
+    assertEquals(expected.counts, actual.counts);
+    assertEquals(expected.owner.firstName, actual.owner.firstName);
+    assertEquals(expected.owner.lastName, actual.owner.lastName);
+    assertEquals(expected.emailAddress, actual.emailAddress);
+    assertNull(actual.secret);
+    assertEquals(expected.getDescription(), actual.getDescription());
+    assertEquals(expected.orderId(), actual.orderId());
+    assertNull(actual.getToken());
+    assertEquals(expected.getCount(), actual.getCount());
+    assertEquals(expected.getRegion(), actual.getRegion());
+  }
+
+  @Test
+  public void codecClassName() {
+    assertEquals(
+        "com.github.jcustenborder.kafka.serialization.jackson.CodecPojo_JacksonCodec",
+        GeneratedCodecs.codecClassName(CodecPojo.class)
+    );
+    assertEquals(
+        "com.github.jcustenborder.kafka.serialization.jackson.CodecPojo_Strict_JacksonCodec",
+        GeneratedCodecs.codecClassName(CodecPojo.Strict.class)
+    );
+  }
+
+  @Test
+  public void hasCodec() {
+    assertTrue(GeneratedCodecs.hasCodec(CodecPojo.class));
+    assertTrue(GeneratedCodecs.hasCodec(CodecPojo.Strict.class));
+    assertFalse(GeneratedCodecs.hasCodec(TestPojo.class));
+    assertSame(CodecPojo_JacksonCodec.Serializer.class, GeneratedCodecs.serializer(CodecPojo.class).getClass());
+    assertSame(CodecPojo_JacksonCodec.Deserializer.class, GeneratedCodecs.deserializer(CodecPojo.class).getClass());
+    assertNull(GeneratedCodecs.serializer(TestPojo.class));
+  }
+
+  @Test
+  public void matchesDatabind() throws Exception {
+    JacksonSerializer<CodecPojo> serializer = new JacksonSerializer<>();
+    serializer.configure(SETTINGS, false);
+    final CodecPojo expected = pojo();
+    final ObjectMapper objectMapper = new ObjectMapper();
+    final JsonNode generated = objectMapper.readTree(serializer.serialize("topic", expected));
+    assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(expected)), generated);
+    assertTrue(generated.has("email_address"));
+    assertFalse(generated.has("secret"));
+    assertEquals("order", generated.get("order_id").asText());
+    assertFalse(generated.has("token"));
+    assertEquals(7, generated.get("count").asInt());
+    assertEquals("region", generated.get("region").asText());
+    serializer.close();
+  }
+
+  @TestFactory
+  public Stream<DynamicTest> roundTrip() {
+    return Arrays.stream(DataFormat.values()).map(format -> dynamicTest(format.name(), () -> {
+      final ImmutableMap<String, String> settings = ImmutableMap.of(
+          JacksonSerializerConfig.FORMAT_CONFIG, format.name(),
+          JacksonSerializerConfig.GENERATED_CODECS_ENABLE_CONFIG, "true"
+      );
+      JacksonSerializer<CodecPojo> serializer = new JacksonSerializer<>();
+      serializer.configure(settings, false);
+      JacksonDeserializer<CodecPojo> deserializer = new JacksonDeserializer<>(CodecPojo.class);
+      deserializer.configure(settings, false);
+      final CodecPojo expected = pojo();
+      assertPojo(expected, deserializer.deserialize("topic", serializer.serialize("topic", expected)));
+      serializer.close();
+      deserializer.close();
+    }));
+  }
+
+  @Test
+  public void nulls() {
+    JacksonDeserializer<CodecPojo> deserializer = new JacksonDeserializer<>(CodecPojo.class);
+    deserializer.configure(SETTINGS, false);
+    CodecPojo actual = deserializer.deserialize(
+        "topic",
+        "{\"name\":null,\"version\":null,\"tags\":null,\"owner\":null,\"grade\":\"B\",\"unknown\":{\"a\":[1]}}".getBytes(StandardCharsets.UTF_8)
+    );
+    assertNull(actual.name);
+    assertNull(actual.version);
+    assertNull(actual.tags);
+    assertNull(actual.owner);
+    assertEquals('B', actual.grade);
+    deserializer.close();
+  }
+
+  @Test
+  public void unknownProperty() {
+    JacksonDeserializer<CodecPojo.Strict> deserializer = new JacksonDeserializer<>(CodecPojo.Strict.class);
+    deserializer.configure(SETTINGS, false);
+    assertEquals("a", deserializer.deserialize("topic", "{\"value\":\"a\"}".getBytes(StandardCharsets.UTF_8)).value);
+    assertThrows(SerializationException.class, () ->
+        deserializer.deserialize("topic", "{\"value\":\"a\",\"unknown\":1}".getBytes(StandardCharsets.UTF_8))
+    );
+    deserializer.close();
+  }
+
+  @Test
+  public void objectReuse() {
+    JacksonDeserializer<CodecPojo> deserializer = new JacksonDeserializer<>(CodecPojo.class);
+    deserializer.configure(
+        ImmutableMap.of(
+            JacksonDeserializerConfig.OBJECT_REUSE_ENABLE_CONFIG, "true",
+            JacksonDeserializerConfig.GENERATED_CODECS_ENABLE_CONFIG, "true"
+        ),
+        false
+    );
+    CodecPojo first = deserializer.deserialize("topic", "{\"id\":1,\"name\":\"first\"}".getBytes(StandardCharsets.UTF_8));
+    deserializer.release(first);
+    CodecPojo second = deserializer.deserialize("topic", "{\"id\":2}".getBytes(StandardCharsets.UTF_8));
+    assertSame(first, second);
+    assertEquals(2, second.id);
+    assertEquals("first", second.name);
+    deserializer.close();
+  }
+
+  static Class<?> serializerClass(JacksonSerializer<?> serializer) throws Exception {
+    return serializer.objectMapper().getSerializerProviderInstance().findValueSerializer(CodecPojo.class).getClass();
+  }
+
+  @Test
+  public void disabledByDefault() throws Exception {
+    JacksonSerializer<CodecPojo> serializer = new JacksonSerializer<>();
+    serializer.configure(ImmutableMap.of(), false);
+    assertNotEquals(CodecPojo_JacksonCodec.Serializer.class, serializerClass(serializer));
+    serializer.close();
+  }
+
+  @Test
+  public void enabled() throws Exception {
+    JacksonSerializer<CodecPojo> serializer = new JacksonSerializer<>();
+    serializer.configure(SETTINGS, false);
+    assertEquals(CodecPojo_JacksonCodec.Serializer.class, serializerClass(serializer));
+    serializer.close();
+  }
+
+  @Test
+  public void mapperSettings() throws Exception {
+    JacksonSerializer<CodecPojo> serializer = new JacksonSerializer<>();
+    serializer.configure(ImmutableMap.of(
+        JacksonSerializerConfig.GENERATED_CODECS_ENABLE_CONFIG, "true",
+        JacksonSerializerConfig.SORT_PROPERTIES_ALPHABETICALLY_CONFIG, "true"
+    ), false);
+    assertNotEquals(CodecPojo_JacksonCodec.Serializer.class, serializerClass(serializer));
+    final JsonNode actual = new ObjectMapper().readTree(serializer.serialize("topic", pojo()));
+    assertEquals("active", actual.fieldNames().next());
+    serializer.close();
+  }
+
+  @Test
+  public void projectionView() {
+    JacksonDeserializer<CodecPojo> deserializer = new JacksonDeserializer<>(CodecPojo.class);
+    assertThrows(ConfigException.class, () -> deserializer.configure(ImmutableMap.of(
+        JacksonDeserializerConfig.GENERATED_CODECS_ENABLE_CONFIG, "true",
+        JacksonDeserializerConfig.PROJECTION_VIEW_CONFIG, Object.class.getName()
+    ), false));
+    deserializer.close();
+  }
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.metrics.Metrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JacksonBatchDeserializerTest {
+  JacksonBatchDeserializer<TestPojo> deserializer;
+
+  @AfterEach
+  public void afterEach() {
+    if (null != this.deserializer) {
+      this.deserializer.close();
+    }
+  }
+
+  static byte[] json(int i) {
+    return String.format("{\"firstName\":\"first%s\",\"lastName\":\"last%s\"}", i, i).getBytes(StandardCharsets.UTF_8);
+  }
+
+  JacksonBatchDeserializer<TestPojo> configure(Map<String, ?> settings) {
+    this.deserializer = new JacksonBatchDeserializer<>(TestPojo.class);
+    this.deserializer.configure(settings, false);
+    return this.deserializer;
+  }
+
+  @Test
+  public void deserializeList() {
+    configure(ImmutableMap.of());
+    List<TestPojo> actual = this.deserializer.deserialize("topic", Arrays.asList(json(0), null, json(2)));
+    assertEquals(3, actual.size());
+    assertEquals("first0", actual.get(0).firstName);
+    assertNull(actual.get(1));
+    assertEquals("last2", actual.get(2).lastName);
+  }
+
+  @Test
+  public void deserializeConsumerRecords() {
+    configure(ImmutableMap.of());
+    Map<TopicPartition, List<ConsumerRecord<byte[], byte[]>>> partitions = new LinkedHashMap<>();
+    int offset = 0;
+    for (int partition = 0; partition < 3; partition++) {
+      List<ConsumerRecord<byte[], byte[]>> records = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        records.add(new ConsumerRecord<>("topic", partition, i, null, json(offset++)));
+      }
+      partitions.put(new TopicPartition("topic", partition), records);
+    }
+    List<TestPojo> actual = this.deserializer.deserialize(new ConsumerRecords<>(partitions));
+    assertEquals(15, actual.size());
+    for (int i = 0; i < actual.size(); i++) {
+      assertEquals("first" + i, actual.get(i).firstName);
+    }
+  }
+
+  @Test
+  public void parallel() {
+    configure(
+        ImmutableMap.of(
+            JacksonDeserializerConfig.BATCH_PARALLELISM_CONFIG, "4",
+            JacksonDeserializerConfig.BATCH_PARALLEL_THRESHOLD_CONFIG, "100"
+        )
+    );
+    List<byte[]> values = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      values.add(json(i));
+    }
+    List<TestPojo> actual = this.deserializer.deserialize("topic", values);
+    assertEquals(values.size(), actual.size());
+    for (int i = 0; i < actual.size(); i++) {
+      assertEquals("first" + i, actual.get(i).firstName);
+    }
+  }
+
+  @Test
+  public void parallelFailure() {
+    configure(
+        ImmutableMap.of(
+            JacksonDeserializerConfig.BATCH_PARALLELISM_CONFIG, "4",
+            JacksonDeserializerConfig.BATCH_PARALLEL_THRESHOLD_CONFIG, "100"
+        )
+    );
+    List<byte[]> values = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      values.add(json(i));
+    }
+    values.set(700, "{".getBytes(StandardCharsets.UTF_8));
+    SerializationException e = assertThrows(SerializationException.class, () -> this.deserializer.deserialize("topic", values));
+    assertTrue(e.getMessage().contains("Record 700 of the batch for topic 'topic'"), e.getMessage());
+  }
+
+  @Test
+  public void failureNamesOffset() {
+    configure(ImmutableMap.of());
+    Map<TopicPartition, List<ConsumerRecord<byte[], byte[]>>> partitions = new LinkedHashMap<>();
+    partitions.put(
+        new TopicPartition("orders", 3),
+        Arrays.asList(
+            new ConsumerRecord<>("orders", 3, 41L, null, json(0)),
+            new ConsumerRecord<>("orders", 3, 42L, null, "{".getBytes(StandardCharsets.UTF_8))
+        )
+    );
+    SerializationException e = assertThrows(
+        SerializationException.class,
+        () -> this.deserializer.deserialize(new ConsumerRecords<>(partitions))
+    );
+    assertEquals("Record 1 of the batch at topic 'orders' partition 3 offset 42 could not be deserialized.", e.getMessage());
+  }
+
+  @Test
+  public void metrics() {
+    try (Metrics metrics = new Metrics()) {
+      this.deserializer = new JacksonBatchDeserializer<>(TestPojo.class);
+      this.deserializer.deserializer().metricsRegistry(metrics);
+      this.deserializer.configure(
+          ImmutableMap.of(
+              JacksonDeserializerConfig.METRICS_ENABLE_CONFIG, "true",
+              "client.id", "batch"
+          ),
+          false
+      );
+      this.deserializer.deserialize("orders", Arrays.asList(json(0), null, json(2)));
+      MetricName recordTotal = metrics.metricName(
+          "record-total",
+          "jackson-deserializer-metrics",
+          ImmutableMap.of("client-id", "batch", "role", "value", "topic", "orders")
+      );
+      assertEquals(2D, (double) metrics.metric(recordTotal).metricValue());
+      this.deserializer.close();
+      this.deserializer = null;
+    }
+  }
+}
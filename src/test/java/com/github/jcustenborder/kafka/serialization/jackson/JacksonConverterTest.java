@@ -0,0 +1,282 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.kafka.connect.data.Date;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaAndValue;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Timestamp;
+import org.apache.kafka.connect.errors.DataException;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+public class JacksonConverterTest {
+  static final Schema ADDRESS_SCHEMA = SchemaBuilder.struct()
+      .optional()
+      .field("street", Schema.OPTIONAL_STRING_SCHEMA)
+      .field("city", Schema.OPTIONAL_STRING_SCHEMA)
+      .build();
+  static final Schema SCHEMA = SchemaBuilder.struct()
+      .field("id", Schema.INT32_SCHEMA)
+      .field("name", Schema.STRING_SCHEMA)
+      .field("score", Schema.FLOAT64_SCHEMA)
+      .field("active", Schema.BOOLEAN_SCHEMA)
+      .field("tags", SchemaBuilder.array(Schema.STRING_SCHEMA).build())
+      .field("counts", SchemaBuilder.map(Schema.STRING_SCHEMA, Schema.INT64_SCHEMA).build())
+      .field("address", ADDRESS_SCHEMA)
+      .field("note", Schema.OPTIONAL_STRING_SCHEMA)
+      .build();
+
+  static Struct struct(int id) {
+    return new Struct(SCHEMA)
+        .put("id", id)
+        .put("name", "name-" + id)
+        .put("score", 1.5D)
+        .put("active", true)
+        .put("tags", ImmutableList.of("one", "two"))
+        .put("counts", ImmutableMap.of("a", 1L))
+        .put("address", new Struct(ADDRESS_SCHEMA).put("street", "Main").put("city", "Springfield"));
+  }
+
+  static JacksonConverter converter(String format) {
+    JacksonConverter converter = new JacksonConverter();
+    converter.configure(ImmutableMap.of(JacksonSerializerConfig.FORMAT_CONFIG, format), false);
+    return converter;
+  }
+
+  @Test
+  public void fromConnectData() throws Exception {
+    JacksonConverter converter = converter("JSON");
+    byte[] buffer = converter.fromConnectData("topic", SCHEMA, struct(1));
+    JsonNode expected = new ObjectMapper().readTree(
+        "{\"id\":1,\"name\":\"name-1\",\"score\":1.5,\"active\":true,\"tags\":[\"one\",\"two\"]," +
+            "\"counts\":{\"a\":1},\"address\":{\"street\":\"Main\",\"city\":\"Springfield\"},\"note\":null}"
+    );
+    assertEquals(expected, new ObjectMapper().readTree(buffer));
+    converter.close();
+  }
+
+  @Test
+  public void indentOutput() throws Exception {
+    JacksonConverter converter = new JacksonConverter();
+    converter.configure(ImmutableMap.of(JacksonSerializerConfig.INDENT_OUTPUT_CONFIG, "true"), false);
+    Schema schema = SchemaBuilder.struct()
+        .field("id", Schema.INT32_SCHEMA)
+        .field("name", Schema.STRING_SCHEMA)
+        .build();
+    byte[] actual = converter.fromConnectData("topic", schema, new Struct(schema).put("id", 1).put("name", "one"));
+    String expected = new ObjectMapper()
+        .enable(SerializationFeature.INDENT_OUTPUT)
+        .writeValueAsString(ImmutableMap.of("id", 1, "name", "one"));
+    assertEquals(expected, new String(actual, StandardCharsets.UTF_8));
+    assertEquals(Long.valueOf(1L), ((Struct) converter.toConnectData("topic", actual).value()).getInt64("id"));
+    converter.close();
+  }
+
+  @TestFactory
+  public Stream<DynamicTest> roundTrip() {
+    return Arrays.stream(DataFormat.values()).map(format -> dynamicTest(format.name(), () -> {
+      JacksonConverter converter = converter(format.name());
+      SchemaAndValue actual = converter.toConnectData("topic", converter.fromConnectData("topic", SCHEMA, struct(1)));
+      Struct struct = (Struct) actual.value();
+      assertEquals(Schema.Type.STRUCT, actual.schema().type());
+      assertEquals(Long.valueOf(1L), struct.getInt64("id"));
+      assertEquals("name-1", struct.getString("name"));
+      assertEquals(Double.valueOf(1.5D), struct.getFloat64("score"));
+      assertEquals(true, struct.getBoolean("active"));
+      assertEquals(ImmutableList.of("one", "two"), struct.getArray("tags"));
+      assertEquals(Long.valueOf(1L), struct.getStruct("counts").getInt64("a"));
+      assertEquals("Springfield", struct.getStruct("address").getString("city"));
+      assertNull(struct.get("note"));
+      converter.close();
+    }));
+  }
+
+  @Test
+  public void schemaReused() {
+    JacksonConverter converter = converter("JSON");
+    SchemaAndValue first = converter.toConnectData("topic", converter.fromConnectData("topic", SCHEMA, struct(1)));
+    SchemaAndValue second = converter.toConnectData("topic", converter.fromConnectData("topic", SCHEMA, struct(2)));
+    assertSame(first.schema(), second.schema());
+    assertEquals(Long.valueOf(2L), ((Struct) second.value()).getInt64("id"));
+
+    SchemaAndValue other = converter.toConnectData(
+        "topic",
+        "{\"id\":3,\"name\":\"other\"}".getBytes(StandardCharsets.UTF_8)
+    );
+    assertNotSame(first.schema(), other.schema());
+    assertEquals(2, other.schema().fields().size());
+    converter.close();
+  }
+
+  @Test
+  public void nullsKeepSchema() {
+    JacksonConverter converter = converter("JSON");
+    SchemaAndValue first = converter.toConnectData("topic", "{\"id\":1,\"tags\":[\"a\"]}".getBytes(StandardCharsets.UTF_8));
+    SchemaAndValue second = converter.toConnectData("topic", "{\"id\":null,\"tags\":[]}".getBytes(StandardCharsets.UTF_8));
+    assertSame(first.schema(), second.schema());
+    assertNull(((Struct) second.value()).get("id"));
+    converter.close();
+  }
+
+  @Test
+  public void logicalTypes() throws Exception {
+    Schema schema = SchemaBuilder.struct()
+        .field("amount", Decimal.schema(2))
+        .field("day", Date.SCHEMA)
+        .field("at", Timestamp.SCHEMA)
+        .field("data", Schema.BYTES_SCHEMA)
+        .build();
+    Struct struct = new Struct(schema)
+        .put("amount", new BigDecimal("12.34"))
+        .put("day", new java.util.Date(86400000L * 2))
+        .put("at", new java.util.Date(1234L))
+        .put("data", new byte[]{1, 2, 3});
+    JacksonConverter converter = converter("JSON");
+    JsonNode actual = new ObjectMapper().readTree(converter.fromConnectData("topic", schema, struct));
+    assertEquals("12.34", actual.get("amount").asText());
+    assertEquals(2, actual.get("day").asInt());
+    assertEquals(1234L, actual.get("at").asLong());
+    assertArrayEquals(new byte[]{1, 2, 3}, actual.get("data").binaryValue());
+    converter.close();
+  }
+
+  @Test
+  public void schemaless() throws Exception {
+    JacksonConverter converter = converter("JSON");
+    byte[] buffer = converter.fromConnectData(
+        "topic",
+        null,
+        ImmutableMap.of("name", "first", "values", ImmutableList.of(1, 2))
+    );
+    assertEquals(
+        new ObjectMapper().readTree("{\"name\":\"first\",\"values\":[1,2]}"),
+        new ObjectMapper().readTree(buffer)
+    );
+    converter.close();
+  }
+
+  @Test
+  public void jacksonSerializerCompatible() {
+    JacksonSerializer<TestPojo> serializer = new JacksonSerializer<>();
+    serializer.configure(ImmutableMap.of(), false);
+    TestPojo pojo = new TestPojo();
+    pojo.firstName = "first";
+    pojo.lastName = "last";
+    JacksonConverter converter = converter("JSON");
+    Struct struct = (Struct) converter.toConnectData("topic", serializer.serialize("topic", pojo)).value();
+    assertEquals("first", struct.getString("firstName"));
+    assertEquals("last", struct.getString("lastName"));
+
+    JacksonDeserializer<TestPojo> deserializer = new JacksonDeserializer<>(TestPojo.class);
+    deserializer.configure(ImmutableMap.of(), false);
+    TestPojo actual = deserializer.deserialize("topic", converter.fromConnectData("topic", struct.schema(), struct));
+    assertEquals("first", actual.firstName);
+    assertEquals("last", actual.lastName);
+    serializer.close();
+    deserializer.close();
+    converter.close();
+  }
+
+  @Test
+  public void nulls() {
+    JacksonConverter converter = converter("JSON");
+    assertNull(converter.fromConnectData("topic", SCHEMA, null));
+    assertSame(SchemaAndValue.NULL, converter.toConnectData("topic", null));
+    converter.close();
+  }
+
+  @Test
+  public void mixedArray() {
+    JacksonConverter converter = converter("JSON");
+    assertThrows(DataException.class, () ->
+        converter.toConnectData("topic", "{\"values\":[1,\"two\"]}".getBytes(StandardCharsets.UTF_8))
+    );
+    List<?> values = (List<?>) converter.toConnectData("topic", "[1,null,3]".getBytes(StandardCharsets.UTF_8)).value();
+    assertEquals(Arrays.asList(1L, null, 3L), values);
+    converter.close();
+  }
+
+  @Test
+  public void widenedNumbers() {
+    JacksonConverter converter = converter("JSON");
+    SchemaAndValue actual = converter.toConnectData("topic", "[1, 2.5]".getBytes(StandardCharsets.UTF_8));
+    assertEquals(Schema.Type.FLOAT64, actual.schema().valueSchema().type());
+    assertEquals(Arrays.asList(1D, 2.5D), actual.value());
+    converter.close();
+  }
+
+  @Test
+  public void mergedStructs() {
+    JacksonConverter converter = converter("JSON");
+    byte[] input = "[{\"a\":1},{\"a\":1,\"b\":2},{\"a\":1.5}]".getBytes(StandardCharsets.UTF_8);
+    SchemaAndValue actual = converter.toConnectData("topic", input);
+    Schema elementSchema = actual.schema().valueSchema();
+    assertEquals(Schema.Type.FLOAT64, elementSchema.field("a").schema().type());
+    assertEquals(Schema.Type.INT64, elementSchema.field("b").schema().type());
+    List<?> values = (List<?>) actual.value();
+    assertEquals(3, values.size());
+    Struct first = (Struct) values.get(0);
+    assertSame(elementSchema, first.schema());
+    assertEquals(1D, first.get("a"));
+    assertNull(first.get("b"));
+    assertEquals(2L, ((Struct) values.get(1)).get("b"));
+    assertEquals(1.5D, ((Struct) values.get(2)).get("a"));
+    first.validate();
+
+    SchemaAndValue again = converter.toConnectData("topic", input);
+    assertSame(actual.schema(), again.schema(), "a topic with a stable shape should keep its schema.");
+    assertEquals(
+        "[{\"a\":1.0,\"b\":null},{\"a\":1.0,\"b\":2},{\"a\":1.5,\"b\":null}]",
+        new String(converter.fromConnectData("topic", actual.schema(), actual.value()), StandardCharsets.UTF_8)
+    );
+    converter.close();
+  }
+
+  @Test
+  public void recycledBuffers() {
+    JacksonConverter converter = new JacksonConverter();
+    converter.configure(ImmutableMap.of(JacksonSerializerConfig.BUFFER_RECYCLING_ENABLE_CONFIG, "true"), false);
+    for (int i = 0; i < 3; i++) {
+      byte[] buffer = converter.fromConnectData("topic", SCHEMA, struct(i));
+      assertEquals("name-" + i, ((Struct) converter.toConnectData("topic", buffer).value()).getString("name"));
+    }
+    converter.close();
+  }
+}
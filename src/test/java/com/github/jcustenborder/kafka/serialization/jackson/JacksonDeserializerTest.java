@@ -15,24 +15,33 @@
  */
 package com.github.jcustenborder.kafka.serialization.jackson;
 
+import com.fasterxml.jackson.annotation.JsonView;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import org.apache.kafka.common.config.ConfigException;
 import org.apache.kafka.common.errors.SerializationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.DynamicTest.dynamicTest;
@@ -57,6 +66,43 @@ public class JacksonDeserializerTest {
     assertTrue(actual.isObject());
     JsonNode converted = this.mapper.convertValue(input, JsonNode.class);
     assertEquals(converted, actual);
+    deserializer.close();
+  }
+
+  @TestFactory
+  public Stream<DynamicTest> deserializeByteBuffer() throws JsonProcessingException {
+    Map<String, String> input = ImmutableMap.of("foo", "bar");
+    final byte[] json = this.mapper.writeValueAsBytes(input);
+    final JsonNode expected = this.mapper.convertValue(input, JsonNode.class);
+    final byte[] padded = new byte[json.length + 20];
+    System.arraycopy(json, 0, padded, 10, json.length);
+    final ByteBuffer direct = ByteBuffer.allocateDirect(json.length);
+    direct.put(json);
+    direct.flip();
+    final ByteBuffer slice = ByteBuffer.wrap(padded, 10, json.length).slice();
+    final ByteBuffer offset = ByteBuffer.wrap(padded, 10, json.length);
+
+    Map<String, ByteBuffer> tests = ImmutableMap.of(
+        "heap", ByteBuffer.wrap(json),
+        "slice", slice,
+        "offset", offset,
+        "direct", direct
+    );
+    JacksonDeserializer<JsonNode> deserializer = new JacksonDeserializer<>();
+    deserializer.configure(ImmutableMap.of(), false);
+
+    return tests.entrySet().stream().map(e -> dynamicTest(e.getKey(), () -> {
+      final int position = e.getValue().position();
+      JsonNode actual = deserializer.deserializeByteBuffer("dummy", e.getValue());
+      assertEquals(expected, actual);
+      assertEquals(position, e.getValue().position(), "position should not change.");
+    })).onClose(deserializer::close);
+  }
+
+  @Test
+  public void deserializeNullByteBuffer() {
+    JacksonDeserializer<JsonNode> deserializer = new JacksonDeserializer<>();
+    assertNull(deserializer.deserializeByteBuffer("dummy", null));
   }
 
   @Test
@@ -64,6 +110,161 @@ public class JacksonDeserializerTest {
     JacksonDeserializer<String> deserializer = new JacksonDeserializer<>(String.class);
     deserializer.configure(ImmutableMap.of(), false);
     assertEquals(String.class, deserializer.cls);
+    deserializer.close();
+  }
+
+  @Test
+  public void outputType() throws JsonProcessingException {
+    JacksonDeserializer<Map<String, List<TestPojo>>> deserializer = new JacksonDeserializer<>();
+    deserializer.configure(
+        ImmutableMap.of(
+            JacksonDeserializerConfig.OUTPUT_TYPE_CONFIG, "java.util.Map<java.lang.String,java.util.List<" + TestPojo.class.getName() + ">>"
+        ),
+        false
+    );
+    assertEquals(Map.class, deserializer.cls);
+    TestPojo pojo = new TestPojo();
+    pojo.firstName = "first";
+    byte[] buffer = this.mapper.writeValueAsBytes(ImmutableMap.of("key", ImmutableList.of(pojo)));
+    Map<String, List<TestPojo>> actual = deserializer.deserialize("topic", buffer);
+    assertEquals("first", actual.get("key").get(0).firstName);
+    deserializer.close();
+  }
+
+  @Test
+  public void outputTypeInvalid() {
+    JacksonDeserializer<Object> deserializer = new JacksonDeserializer<>();
+    assertThrows(ConfigException.class, () -> deserializer.configure(
+        ImmutableMap.of(JacksonDeserializerConfig.OUTPUT_TYPE_CONFIG, "java.util.List<com.example.DoesNotExist>"),
+        false
+    ));
+  }
+
+  @Test
+  public void typeReference() throws JsonProcessingException {
+    JacksonDeserializer<List<TestPojo>> deserializer = new JacksonDeserializer<>(new TypeReference<List<TestPojo>>() {
+    });
+    deserializer.configure(
+        ImmutableMap.of(JacksonDeserializerConfig.OUTPUT_CLASS_CONFIG, String.class.getName()),
+        false
+    );
+    TestPojo pojo = new TestPojo();
+    pojo.firstName = "first";
+    List<TestPojo> actual = deserializer.deserialize("topic", this.mapper.writeValueAsBytes(ImmutableList.of(pojo)));
+    assertEquals("first", actual.get(0).firstName);
+    deserializer.close();
+  }
+
+  public static class Views {
+    public static class Summary {
+    }
+  }
+
+  public static class ProjectedPojo {
+    @JsonView(Views.Summary.class)
+    public String id;
+    public String name;
+    public List<TestPojo> items;
+    public Map<String, Object> attributes;
+  }
+
+  static final String PROJECTION_JSON = "{\"id\":\"1234\",\"name\":\"name\",\"attributes\":{\"a\":1,\"b\":{\"c\":[1,2,3]}}," +
+      "\"items\":[{\"firstName\":\"first0\",\"lastName\":\"last0\"},{\"firstName\":\"first1\",\"lastName\":\"last1\"}]}";
+
+  JacksonDeserializer<ProjectedPojo> projected(Map<String, ?> settings) {
+    JacksonDeserializer<ProjectedPojo> deserializer = new JacksonDeserializer<>(ProjectedPojo.class);
+    deserializer.configure(settings, false);
+    return deserializer;
+  }
+
+  @Test
+  public void projectionPaths() {
+    JacksonDeserializer<ProjectedPojo> deserializer = projected(
+        ImmutableMap.of(JacksonDeserializerConfig.PROJECTION_PATHS_CONFIG, "/id,/items/1/firstName,/attributes/b")
+    );
+    ProjectedPojo actual = deserializer.deserialize("topic", PROJECTION_JSON.getBytes(StandardCharsets.UTF_8));
+    assertEquals("1234", actual.id);
+    assertNull(actual.name);
+    assertEquals(1, actual.items.size());
+    assertEquals("first1", actual.items.get(0).firstName);
+    assertNull(actual.items.get(0).lastName);
+    assertEquals(ImmutableMap.of("b", ImmutableMap.of("c", ImmutableList.of(1, 2, 3))), actual.attributes);
+
+    ProjectedPojo fromBuffer = deserializer.deserializeByteBuffer(
+        "topic",
+        ByteBuffer.wrap(PROJECTION_JSON.getBytes(StandardCharsets.UTF_8))
+    );
+    assertEquals("1234", fromBuffer.id);
+    assertNull(fromBuffer.name);
+    deserializer.close();
+  }
+
+  @Test
+  public void projectionNoMatch() {
+    JacksonDeserializer<ProjectedPojo> deserializer = projected(
+        ImmutableMap.of(JacksonDeserializerConfig.PROJECTION_PATHS_CONFIG, "/missing")
+    );
+    ProjectedPojo actual = deserializer.deserialize("topic", PROJECTION_JSON.getBytes(StandardCharsets.UTF_8));
+    assertNotNull(actual);
+    assertNull(actual.id);
+    deserializer.close();
+  }
+
+  @Test
+  public void projectionView() {
+    JacksonDeserializer<ProjectedPojo> deserializer = projected(
+        ImmutableMap.of(
+            JacksonDeserializerConfig.PROJECTION_VIEW_CONFIG, Views.Summary.class.getName(),
+            JacksonDeserializerConfig.DEFAULT_VIEW_INCLUSION_CONFIG, "false"
+        )
+    );
+    ProjectedPojo actual = deserializer.deserialize("topic", PROJECTION_JSON.getBytes(StandardCharsets.UTF_8));
+    assertEquals("1234", actual.id);
+    assertNull(actual.name);
+    assertNull(actual.items);
+    deserializer.close();
+  }
+
+  @Test
+  public void projectionPathsInvalid() {
+    JacksonDeserializer<ProjectedPojo> deserializer = new JacksonDeserializer<>(ProjectedPojo.class);
+    assertThrows(ConfigException.class, () -> deserializer.configure(
+        ImmutableMap.of(JacksonDeserializerConfig.PROJECTION_PATHS_CONFIG, "id"),
+        false
+    ));
+    deserializer.close();
+  }
+
+  @Test
+  public void objectReuse() {
+    JacksonDeserializer<TestPojo> deserializer = new JacksonDeserializer<>(TestPojo.class);
+    deserializer.configure(
+        ImmutableMap.of(
+            JacksonDeserializerConfig.OBJECT_REUSE_ENABLE_CONFIG, "true",
+            JacksonDeserializerConfig.OBJECT_REUSE_POOL_SIZE_CONFIG, "1"
+        ),
+        false
+    );
+    TestPojo first = deserializer.deserialize("topic", "{\"firstName\":\"first\",\"lastName\":\"last\"}".getBytes(StandardCharsets.UTF_8));
+    deserializer.release(first);
+    deserializer.release(new TestPojo());
+    TestPojo second = deserializer.deserialize("topic", "{\"firstName\":\"second\",\"lastName\":null}".getBytes(StandardCharsets.UTF_8));
+    assertSame(first, second);
+    assertEquals("second", second.firstName);
+    assertNull(second.lastName);
+    TestPojo third = deserializer.deserialize("topic", "{\"firstName\":\"third\",\"lastName\":null}".getBytes(StandardCharsets.UTF_8));
+    assertNotSame(second, third);
+    deserializer.close();
+  }
+
+  @Test
+  public void objectReuseUnsupportedType() {
+    JacksonDeserializer<JsonNode> deserializer = new JacksonDeserializer<>();
+    assertThrows(ConfigException.class, () -> deserializer.configure(
+        ImmutableMap.of(JacksonDeserializerConfig.OBJECT_REUSE_ENABLE_CONFIG, "true"),
+        false
+    ));
+    deserializer.close();
   }
 
   @Test
@@ -80,6 +281,7 @@ public class JacksonDeserializerTest {
     assertThrows(SerializationException.class, () -> {
       deserializer.deserialize("dummy", "{".getBytes());
     });
+    deserializer.close();
   }
 
   @TestFactory
@@ -102,6 +304,46 @@ public class JacksonDeserializerTest {
         }));
   }
 
+  @Test
+  public void topicTypeMapping() throws JsonProcessingException {
+    JacksonDeserializer<Object> deserializer = new JacksonDeserializer<>();
+    deserializer.configure(
+        ImmutableMap.of(
+            JacksonDeserializerConfig.TOPIC_TYPE_MAPPING_CONFIG, "pojo:" + TestPojo.class.getName() + ",maps-.*:" + Map.class.getName() + ",pojo-.*:" + TestPojo.class.getName()
+        ),
+        false
+    );
+    TestPojo pojo = new TestPojo();
+    pojo.firstName = "first";
+    byte[] buffer = this.mapper.writeValueAsBytes(pojo);
+
+    assertTrue(deserializer.deserialize("pojo", buffer) instanceof TestPojo);
+    assertTrue(deserializer.deserialize("pojo-archive", buffer) instanceof TestPojo);
+    assertTrue(deserializer.deserialize("maps-1", buffer) instanceof Map);
+    assertTrue(deserializer.deserialize("unmapped", buffer) instanceof JsonNode);
+    assertTrue(deserializer.deserialize(null, buffer) instanceof JsonNode);
+    assertTrue(deserializer.deserializeByteBuffer("pojo", ByteBuffer.wrap(buffer)) instanceof TestPojo);
+    deserializer.close();
+  }
+
+  @TestFactory
+  public Stream<DynamicTest> topicTypeMappingInvalid() {
+    return Stream.of(
+        "pojo",
+        ":" + TestPojo.class.getName(),
+        "pojo:",
+        "pojo:com.example.DoesNotExist",
+        "pojo[:" + TestPojo.class.getName()
+    ).map(entry -> dynamicTest(entry, () -> {
+      JacksonDeserializer<Object> deserializer = new JacksonDeserializer<>();
+      assertThrows(ConfigException.class, () -> deserializer.configure(
+          ImmutableMap.of(JacksonDeserializerConfig.TOPIC_TYPE_MAPPING_CONFIG, entry),
+          false
+      ));
+      deserializer.close();
+    }));
+  }
+
   @Test
   public void toMarkdown() {
     System.out.println(
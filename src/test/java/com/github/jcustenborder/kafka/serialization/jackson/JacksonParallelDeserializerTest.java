@@ -0,0 +1,173 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.metrics.Metrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JacksonParallelDeserializerTest {
+  static final int PARTITIONS = 4;
+  static final int RECORDS = 1000;
+
+  JacksonParallelDeserializer<TestPojo> deserializer;
+
+  @AfterEach
+  public void afterEach() {
+    if (null != this.deserializer) {
+      this.deserializer.close();
+    }
+  }
+
+  static byte[] json(int partition, long offset) {
+    return String.format("{\"firstName\":\"%s\",\"lastName\":\"%s\"}", partition, offset).getBytes(StandardCharsets.UTF_8);
+  }
+
+  static ConsumerRecords<byte[], byte[]> records() {
+    Map<TopicPartition, List<ConsumerRecord<byte[], byte[]>>> partitions = new LinkedHashMap<>();
+    for (int partition = 0; partition < PARTITIONS; partition++) {
+      List<ConsumerRecord<byte[], byte[]>> records = new ArrayList<>();
+      for (long offset = 100; offset < 100 + RECORDS; offset++) {
+        byte[] value = offset == 150 ? null : json(partition, offset);
+        records.add(new ConsumerRecord<>("topic", partition, offset, null, value));
+      }
+      partitions.put(new TopicPartition("topic", partition), records);
+    }
+    return new ConsumerRecords<>(partitions);
+  }
+
+  void configure(JacksonParallelDeserializer<TestPojo> deserializer) {
+    this.deserializer = deserializer;
+    this.deserializer.configure(
+        ImmutableMap.of(
+            JacksonDeserializerConfig.PARALLEL_THREADS_CONFIG, "4",
+            JacksonDeserializerConfig.PARALLEL_CHUNK_SIZE_CONFIG, "64"
+        ),
+        false
+    );
+  }
+
+  static void assertOrdered(ConsumerRecords<byte[], TestPojo> actual) {
+    assertEquals(PARTITIONS * RECORDS, actual.count());
+    for (TopicPartition partition : actual.partitions()) {
+      long expectedOffset = 100;
+      for (ConsumerRecord<byte[], TestPojo> record : actual.records(partition)) {
+        assertEquals(expectedOffset, record.offset());
+        if (expectedOffset == 150) {
+          assertNull(record.value());
+        } else {
+          assertEquals(Integer.toString(partition.partition()), record.value().firstName);
+          assertEquals(Long.toString(expectedOffset), record.value().lastName);
+        }
+        expectedOffset++;
+      }
+    }
+  }
+
+  @Test
+  public void deserialize() {
+    configure(new JacksonParallelDeserializer<>(TestPojo.class));
+    assertOrdered(this.deserializer.deserialize(records()));
+  }
+
+  @Test
+  public void suppliedExecutor() {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      configure(new JacksonParallelDeserializer<>(TestPojo.class, executor));
+      assertOrdered(this.deserializer.submit(records()).join());
+      this.deserializer.close();
+      this.deserializer = null;
+      assertFalse(executor.isShutdown());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void failure() {
+    configure(new JacksonParallelDeserializer<>(TestPojo.class));
+    Map<TopicPartition, List<ConsumerRecord<byte[], byte[]>>> partitions = new LinkedHashMap<>();
+    List<ConsumerRecord<byte[], byte[]>> records = new ArrayList<>();
+    records.add(new ConsumerRecord<>("topic", 0, 0, null, "{".getBytes(StandardCharsets.UTF_8)));
+    partitions.put(new TopicPartition("topic", 0), records);
+    assertThrows(SerializationException.class, () -> this.deserializer.deserialize(new ConsumerRecords<>(partitions)));
+  }
+
+  @Test
+  public void notConfigured() {
+    this.deserializer = new JacksonParallelDeserializer<>(TestPojo.class);
+    assertThrows(IllegalStateException.class, () -> this.deserializer.submit(records()));
+    configure(this.deserializer);
+    this.deserializer.close();
+    assertThrows(IllegalStateException.class, () -> this.deserializer.deserialize(records()));
+    this.deserializer = null;
+  }
+
+  @Test
+  public void metrics() {
+    try (Metrics metrics = new Metrics()) {
+      this.deserializer = new JacksonParallelDeserializer<>(TestPojo.class);
+      this.deserializer.deserializer().metricsRegistry(metrics);
+      this.deserializer.configure(
+          ImmutableMap.of(
+              JacksonDeserializerConfig.METRICS_ENABLE_CONFIG, "true",
+              JacksonDeserializerConfig.PARALLEL_CHUNK_SIZE_CONFIG, "64",
+              "client.id", "parallel"
+          ),
+          false
+      );
+      this.deserializer.deserialize(records());
+      MetricName recordTotal = metrics.metricName(
+          "record-total",
+          "jackson-deserializer-metrics",
+          ImmutableMap.of("client-id", "parallel", "role", "value", "topic", "topic")
+      );
+      assertEquals(PARTITIONS * (RECORDS - 1D), (double) metrics.metric(recordTotal).metricValue());
+      this.deserializer.close();
+      this.deserializer = null;
+    }
+  }
+
+  @Test
+  public void nextOffsets() {
+    Map<TopicPartition, OffsetAndMetadata> actual = JacksonParallelDeserializer.nextOffsets(records());
+    assertEquals(PARTITIONS, actual.size());
+    for (int partition = 0; partition < PARTITIONS; partition++) {
+      assertEquals(100 + RECORDS, actual.get(new TopicPartition("topic", partition)).offset());
+    }
+  }
+}
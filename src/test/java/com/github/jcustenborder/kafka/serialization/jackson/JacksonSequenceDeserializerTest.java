@@ -0,0 +1,140 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.google.common.collect.ImmutableMap;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JacksonSequenceDeserializerTest {
+  JacksonSequenceDeserializer<TestPojo> deserializer;
+
+  @BeforeEach
+  public void beforeEach() {
+    this.deserializer = new JacksonSequenceDeserializer<>(TestPojo.class);
+    this.deserializer.configure(ImmutableMap.of(), false);
+  }
+
+  @AfterEach
+  public void afterEach() {
+    this.deserializer.close();
+  }
+
+  static List<TestPojo> pojos(int count) {
+    List<TestPojo> result = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      TestPojo pojo = new TestPojo();
+      pojo.firstName = "first" + i;
+      pojo.lastName = "last" + i;
+      result.add(pojo);
+    }
+    return result;
+  }
+
+  void assertRoundTrip(String bufferRecycling) {
+    JacksonSerializer<List<TestPojo>> serializer = new JacksonSerializer<>();
+    serializer.configure(
+        ImmutableMap.of(
+            JacksonSerializerConfig.COLLECTION_FORMAT_CONFIG, CollectionFormat.NDJSON.name(),
+            JacksonSerializerConfig.BUFFER_RECYCLING_ENABLE_CONFIG, bufferRecycling
+        ),
+        false
+    );
+    byte[] bytes = serializer.serialize("topic", pojos(3));
+    serializer.close();
+    assertEquals(
+        "{\"firstName\":\"first0\",\"lastName\":\"last0\"}\n" +
+            "{\"firstName\":\"first1\",\"lastName\":\"last1\"}\n" +
+            "{\"firstName\":\"first2\",\"lastName\":\"last2\"}",
+        new String(bytes, StandardCharsets.UTF_8)
+    );
+    List<String> actual = JacksonSequenceDeserializer.stream(this.deserializer.deserialize("topic", bytes))
+        .map(p -> p.firstName)
+        .collect(Collectors.toList());
+    assertEquals(3, actual.size());
+    assertEquals("first2", actual.get(2));
+  }
+
+  @Test
+  public void ndjson() {
+    assertRoundTrip("false");
+  }
+
+  @Test
+  public void ndjsonRecycled() {
+    assertRoundTrip("true");
+  }
+
+  @Test
+  public void array() {
+    byte[] bytes = "[{\"firstName\":\"first0\"},{\"firstName\":\"first1\"}]".getBytes(StandardCharsets.UTF_8);
+    List<TestPojo> actual = JacksonSequenceDeserializer.stream(this.deserializer.deserialize("topic", bytes))
+        .collect(Collectors.toList());
+    assertEquals(2, actual.size());
+    assertEquals("first1", actual.get(1).firstName);
+  }
+
+  @Test
+  public void incremental() {
+    byte[] bytes = "{\"firstName\":\"first0\"}\n{\"firstName\":".getBytes(StandardCharsets.UTF_8);
+    MappingIterator<TestPojo> iterator = this.deserializer.deserialize("topic", bytes);
+    assertTrue(iterator.hasNext());
+    assertEquals("first0", iterator.next().firstName);
+    assertThrows(SerializationException.class, () -> {
+      iterator.hasNext();
+      iterator.next();
+    });
+  }
+
+  @Test
+  public void mappingError() {
+    byte[] bytes = "{\"firstName\":\"first0\"}\n{\"firstName\":[1]}".getBytes(StandardCharsets.UTF_8);
+    MappingIterator<TestPojo> iterator = this.deserializer.deserialize("topic", bytes);
+    assertEquals("first0", iterator.next().firstName);
+    assertThrows(SerializationException.class, iterator::next);
+    assertThrows(
+        SerializationException.class,
+        () -> JacksonSequenceDeserializer.stream(this.deserializer.deserialize("topic", bytes)).count()
+    );
+  }
+
+  @Test
+  public void deserializeNull() {
+    assertNull(this.deserializer.deserialize("topic", null));
+  }
+
+  @Test
+  public void arrayFormatUnchanged() {
+    JacksonSerializer<List<TestPojo>> serializer = new JacksonSerializer<>();
+    serializer.configure(ImmutableMap.of(), false);
+    byte[] bytes = serializer.serialize("topic", pojos(2));
+    serializer.close();
+    assertEquals('[', bytes[0]);
+  }
+}
@@ -15,12 +15,31 @@
  */
 package com.github.jcustenborder.kafka.serialization.jackson;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.google.common.collect.ImmutableMap;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.apache.kafka.common.serialization.Serde;
+import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
 
 public class JacksonSerdeTest {
 
@@ -40,6 +59,131 @@ public class JacksonSerdeTest {
     serde.close();
   }
 
+  @Test
+  public void byteBuffer() {
+    JacksonSerde<TestPojo> serde = JacksonSerde.of(TestPojo.class);
+    serde.configure(ImmutableMap.of(), false);
+
+    TestPojo expected = new TestPojo();
+    expected.firstName = "first";
+    expected.lastName = "last";
+    byte[] buffer = serde.serializer().serialize("topic", expected);
+    TestPojo actual = serde.deserializer().deserializeByteBuffer("topic", ByteBuffer.wrap(buffer));
+    assertNotNull(actual);
+    assertEquals(expected.firstName, actual.firstName);
+    assertEquals(expected.lastName, actual.lastName);
+    serde.close();
+  }
+
+  @TestFactory
+  public Stream<DynamicTest> formats() {
+    return Arrays.stream(DataFormat.values()).map(format -> dynamicTest(format.name(), () -> {
+      Serde<TestPojo> serde = JacksonSerde.of(TestPojo.class);
+      serde.configure(ImmutableMap.of(
+          JacksonSerializerConfig.FORMAT_CONFIG, format.name()
+      ), false);
+
+      TestPojo expected = new TestPojo();
+      expected.firstName = "first";
+      expected.lastName = "last";
+      byte[] buffer = serde.serializer().serialize("topic", expected);
+      assertEquals(DataFormat.JSON == format, '{' == buffer[0]);
+      TestPojo actual = serde.deserializer().deserialize("topic", buffer);
+      assertNotNull(actual);
+      assertEquals(expected.firstName, actual.firstName);
+      assertEquals(expected.lastName, actual.lastName);
+      serde.close();
+    }));
+  }
+
+  @Test
+  public void nonDefaultSettingsFormat() {
+    ObjectMapper objectMapper = new ObjectMapper(new SmileFactory());
+    Map<String, String> expected = ImmutableMap.of(JacksonSerializerConfig.FORMAT_CONFIG, DataFormat.SMILE.name());
+    assertEquals(expected, JacksonSerializer.nonDefaultSettings(objectMapper));
+    assertEquals(expected, JacksonDeserializer.nonDefaultSettings(objectMapper));
+  }
+
+  @Test
+  public void afterburner() {
+    Serde<TestPojo> serde = new JacksonSerde<>();
+    serde.configure(ImmutableMap.of(
+        JacksonDeserializerConfig.OUTPUT_CLASS_CONFIG, TestPojo.class.getName(),
+        JacksonDeserializerConfig.ACCESSOR_OPTIMIZATION_CONFIG, AccessorOptimization.AFTERBURNER.name()
+    ), false);
+
+    TestPojo expected = new TestPojo();
+    expected.firstName = "first";
+    expected.lastName = "last";
+    byte[] buffer = serde.serializer().serialize("topic", expected);
+    TestPojo actual = serde.deserializer().deserialize("topic", buffer);
+    assertNotNull(actual);
+    assertEquals(expected.firstName, actual.firstName);
+    assertEquals(expected.lastName, actual.lastName);
+
+    serde.close();
+  }
+
+  @Test
+  public void nonDefaultSettingsAccessorOptimization() {
+    ObjectMapper objectMapper = new ObjectMapper();
+    ObjectMapperFactory.registerAccessorModule(objectMapper, AccessorOptimization.AFTERBURNER);
+    Map<String, String> expected = ImmutableMap.of(
+        JacksonSerializerConfig.ACCESSOR_OPTIMIZATION_CONFIG, AccessorOptimization.AFTERBURNER.name()
+    );
+    assertEquals(expected, JacksonSerializer.nonDefaultSettings(objectMapper));
+    assertEquals(expected, JacksonDeserializer.nonDefaultSettings(objectMapper));
+  }
+
+  @Test
+  public void typeHeader() {
+    Serde<Object> serde = new JacksonSerde<>();
+    serde.configure(ImmutableMap.of(
+        JacksonSerializerConfig.TYPE_HEADER_ENABLE_CONFIG, "true",
+        JacksonSerializerConfig.TYPE_ID_MAPPING_CONFIG, "pojo:" + TestPojo.class.getName()
+    ), false);
+
+    TestPojo expected = new TestPojo();
+    expected.firstName = "first";
+    Headers headers = new RecordHeaders();
+    byte[] buffer = serde.serializer().serialize("topic", headers, expected);
+    assertEquals("pojo", new String(headers.lastHeader("jackson.type").value(), StandardCharsets.UTF_8));
+
+    Object actual = serde.deserializer().deserialize("topic", headers, buffer);
+    assertTrue(actual instanceof TestPojo);
+    assertEquals(expected.firstName, ((TestPojo) actual).firstName);
+    assertTrue(serde.deserializer().deserialize("topic", new RecordHeaders(), buffer) instanceof JsonNode);
+    assertTrue(serde.deserializer().deserialize("topic", buffer) instanceof JsonNode);
+
+    Headers unknown = new RecordHeaders();
+    unknown.add("jackson.type", "java.lang.Runtime".getBytes(StandardCharsets.UTF_8));
+    assertThrows(SerializationException.class, () -> serde.deserializer().deserialize("topic", unknown, buffer));
+    serde.close();
+  }
+
+  @Test
+  public void typeHeaderClassName() {
+    JacksonSerializer<Object> serializer = new JacksonSerializer<>();
+    serializer.configure(ImmutableMap.of(JacksonSerializerConfig.TYPE_HEADER_ENABLE_CONFIG, "true"), false);
+    Headers headers = new RecordHeaders();
+    serializer.serialize("topic", headers, new TestPojo());
+    assertEquals(TestPojo.class.getName(), new String(headers.lastHeader("jackson.type").value(), StandardCharsets.UTF_8));
+    serializer.close();
+  }
+
+  @Test
+  public void typeReference() {
+    JacksonSerde<List<TestPojo>> serde = JacksonSerde.of(new TypeReference<List<TestPojo>>() {
+    });
+    serde.configure(ImmutableMap.of(), false);
+    TestPojo pojo = new TestPojo();
+    pojo.firstName = "first";
+    byte[] buffer = serde.serializer().serialize("topic", Arrays.asList(pojo));
+    List<TestPojo> actual = serde.deserializer().deserialize("topic", buffer);
+    assertEquals("first", actual.get(0).firstName);
+    serde.close();
+  }
+
   @Test
   public void configured() {
     Serde<TestPojo> serde = new JacksonSerde<>();
@@ -19,8 +19,10 @@ import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
 import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Test;
@@ -29,8 +31,11 @@ import org.junit.jupiter.api.TestFactory;
 import java.util.Map;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.DynamicTest.dynamicTest;
 
 public class JacksonSerializerTest {
@@ -47,6 +52,11 @@ public class JacksonSerializerTest {
     this.serializer.configure(settings, true);
   }
 
+  @AfterEach
+  public void after() {
+    this.serializer.close();
+  }
+
   @Test
   public void serializeNull() {
     assertNull(this.serializer.serialize("dummy", null));
@@ -65,6 +75,85 @@ public class JacksonSerializerTest {
     }));
   }
 
+  @Test
+  public void serializeAlternatingTypes() {
+    TestPojo pojo = new TestPojo();
+    pojo.firstName = "first";
+    pojo.lastName = "last";
+    Map<String, Object> tests = ImmutableMap.of(
+        "{\"foo\":\"bar\"}", ImmutableMap.of("foo", "bar"),
+        "{\"firstName\":\"first\",\"lastName\":\"last\"}", pojo,
+        "\"text\"", "text"
+    );
+
+    for (int i = 0; i < 2; i++) {
+      tests.forEach((expected, input) -> {
+        byte[] buffer = this.serializer.serialize("topic", input);
+        assertEquals(expected, new String(buffer, Charsets.UTF_8));
+      });
+    }
+  }
+
+  @Test
+  public void serializeBufferRecycling() {
+    Serializer<Object> recycling = new JacksonSerializer<>();
+    recycling.configure(
+        ImmutableMap.of(
+            JacksonSerializerConfig.BUFFER_RECYCLING_ENABLE_CONFIG, "true",
+            JacksonSerializerConfig.BUFFER_RECYCLING_MAX_BYTES_CONFIG, "4096"
+        ),
+        false
+    );
+
+    for (int length : new int[]{10, 1000, 10000, 10, 100000, 10}) {
+      TestPojo pojo = new TestPojo();
+      pojo.firstName = Strings.repeat("a", length);
+      pojo.lastName = "last";
+      byte[] expected = this.serializer.serialize("topic", pojo);
+      byte[] actual = recycling.serialize("topic", pojo);
+      assertArrayEquals(expected, actual, "length = " + length);
+    }
+    recycling.close();
+  }
+
+  @Test
+  public void closeReleasesRecycledBuffers() throws InterruptedException {
+    JacksonSerializer<Object> recycling = new JacksonSerializer<>();
+    recycling.configure(ImmutableMap.of(JacksonSerializerConfig.BUFFER_RECYCLING_ENABLE_CONFIG, "true"), false);
+    recycling.serialize("topic", ImmutableMap.of("id", 1));
+    Thread thread = new Thread(() -> recycling.serialize("topic", ImmutableMap.of("id", 2)));
+    thread.start();
+    thread.join();
+    assertTrue(recycling.recycledBufferBytes() > 0);
+    recycling.close();
+    assertEquals(0L, recycling.recycledBufferBytes());
+  }
+
+  @Test
+  public void interleavedTypesReuseWriters() {
+    JacksonSerializer<Object> serializer = (JacksonSerializer<Object>) this.serializer;
+    JacksonSerializer.TypedWriter pojo = serializer.typedWriter(TestPojo.class);
+    JacksonSerializer.TypedWriter string = serializer.typedWriter(String.class);
+    assertSame(pojo, serializer.typedWriter(TestPojo.class));
+    assertSame(string, serializer.typedWriter(String.class));
+  }
+
+  @Test
+  public void finishedThreadReleasesRecycledBuffer() throws InterruptedException {
+    JacksonSerializer<Object> recycling = new JacksonSerializer<>();
+    recycling.configure(ImmutableMap.of(JacksonSerializerConfig.BUFFER_RECYCLING_ENABLE_CONFIG, "true"), false);
+    Thread thread = new Thread(() -> recycling.serialize("topic", ImmutableMap.of("id", 1)));
+    thread.start();
+    thread.join();
+    thread = null;
+    for (int i = 0; i < 100 && recycling.recycledBufferBytes() > 0; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertEquals(0L, recycling.recycledBufferBytes(), "buffer of a finished thread must not be kept.");
+    recycling.close();
+  }
+
   @TestFactory
   public Stream<DynamicTest> nonDefaultSettings() {
     return JacksonSerializerConfig.CONFIG_TO_CONFIGFEATURE.entrySet()
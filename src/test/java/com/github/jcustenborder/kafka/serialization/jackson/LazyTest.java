@@ -0,0 +1,161 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LazyTest {
+  static final byte[] JSON = "{\"firstName\":\"first\",  \"lastName\":\"last\"}".getBytes(StandardCharsets.UTF_8);
+
+  JacksonLazyDeserializer<TestPojo> deserializer;
+
+  @BeforeEach
+  public void beforeEach() {
+    this.deserializer = new JacksonLazyDeserializer<>(TestPojo.class);
+    this.deserializer.configure(ImmutableMap.of(), false);
+  }
+
+  @AfterEach
+  public void afterEach() {
+    this.deserializer.close();
+  }
+
+  @Test
+  public void deferred() {
+    Lazy<TestPojo> lazy = this.deserializer.deserialize("topic", JSON);
+    assertFalse(lazy.isMaterialized());
+    TestPojo actual = lazy.get();
+    assertTrue(lazy.isMaterialized());
+    assertEquals("first", actual.firstName);
+    assertSame(actual, lazy.get());
+  }
+
+  @Test
+  public void deserializeNull() {
+    assertNull(this.deserializer.deserialize("topic", null));
+  }
+
+  @Test
+  public void passthrough() {
+    JacksonSerializer<Lazy<TestPojo>> serializer = new JacksonSerializer<>();
+    serializer.configure(ImmutableMap.of(), false);
+    Lazy<TestPojo> lazy = this.deserializer.deserialize("topic", JSON);
+    assertSame(JSON, serializer.serialize("topic", lazy));
+    assertFalse(lazy.isMaterialized());
+    serializer.close();
+  }
+
+  @Test
+  public void materialized() {
+    JacksonSerializer<Lazy<TestPojo>> serializer = new JacksonSerializer<>();
+    serializer.configure(ImmutableMap.of(), false);
+    Lazy<TestPojo> lazy = this.deserializer.deserialize("topic", JSON);
+    lazy.get().firstName = "changed";
+    byte[] actual = serializer.serialize("topic", lazy);
+    assertNotSame(JSON, actual);
+    assertEquals("{\"firstName\":\"changed\",\"lastName\":\"last\"}", new String(actual, StandardCharsets.UTF_8));
+    serializer.close();
+  }
+
+  @Test
+  public void formatMismatch() {
+    JacksonSerializer<Lazy<TestPojo>> serializer = new JacksonSerializer<>();
+    serializer.configure(ImmutableMap.of(JacksonSerializerConfig.FORMAT_CONFIG, DataFormat.SMILE.name()), false);
+    Lazy<TestPojo> lazy = this.deserializer.deserialize("topic", JSON);
+    byte[] actual = serializer.serialize("topic", lazy);
+    assertNotSame(JSON, actual);
+    assertTrue(lazy.isMaterialized());
+    serializer.close();
+  }
+
+  @Test
+  public void typeHeader() {
+    JacksonSerializer<Lazy<TestPojo>> serializer = new JacksonSerializer<>();
+    serializer.configure(ImmutableMap.of(
+        JacksonSerializerConfig.TYPE_HEADER_ENABLE_CONFIG, "true",
+        JacksonSerializerConfig.TYPE_ID_MAPPING_CONFIG, "pojo:" + TestPojo.class.getName()
+    ), false);
+    Headers passthrough = new RecordHeaders();
+    Lazy<TestPojo> lazy = this.deserializer.deserialize("topic", JSON);
+    assertSame(JSON, serializer.serialize("topic", passthrough, lazy));
+    assertFalse(lazy.isMaterialized());
+    assertEquals("pojo", new String(passthrough.lastHeader("jackson.type").value(), StandardCharsets.UTF_8));
+
+    Headers materialized = new RecordHeaders();
+    lazy = this.deserializer.deserialize("topic", JSON);
+    lazy.get();
+    serializer.serialize("topic", materialized, lazy);
+    assertEquals("pojo", new String(materialized.lastHeader("jackson.type").value(), StandardCharsets.UTF_8));
+    serializer.close();
+  }
+
+  @Test
+  public void typeHeaderFromRecord() {
+    JacksonLazyDeserializer<Object> deserializer = new JacksonLazyDeserializer<>();
+    deserializer.configure(ImmutableMap.of(
+        JacksonDeserializerConfig.TYPE_ID_MAPPING_CONFIG, "pojo:" + TestPojo.class.getName()
+    ), false);
+    JacksonSerializer<Lazy<Object>> serializer = new JacksonSerializer<>();
+    serializer.configure(ImmutableMap.of(
+        JacksonSerializerConfig.TYPE_HEADER_ENABLE_CONFIG, "true",
+        JacksonSerializerConfig.TYPE_ID_MAPPING_CONFIG, "person:" + TestPojo.class.getName()
+    ), false);
+
+    Headers input = new RecordHeaders();
+    input.add("jackson.type", "pojo".getBytes(StandardCharsets.UTF_8));
+    Headers output = new RecordHeaders();
+    Lazy<Object> lazy = deserializer.deserialize("topic", input, JSON);
+    assertSame(JSON, serializer.serialize("topic", output, lazy));
+    assertFalse(lazy.isMaterialized());
+    assertEquals("person", new String(output.lastHeader("jackson.type").value(), StandardCharsets.UTF_8));
+
+    Headers untyped = new RecordHeaders();
+    lazy = deserializer.deserialize("topic", new RecordHeaders(), JSON);
+    serializer.serialize("topic", untyped, lazy);
+    assertTrue(lazy.isMaterialized(), "the class is only known once the value is bound.");
+    assertEquals(
+        lazy.get().getClass().getName(),
+        new String(untyped.lastHeader("jackson.type").value(), StandardCharsets.UTF_8)
+    );
+    serializer.close();
+    deserializer.close();
+  }
+
+  @Test
+  public void jsonValue() throws IOException {
+    Lazy<TestPojo> lazy = this.deserializer.deserialize("topic", JSON);
+    assertEquals(
+        "{\"firstName\":\"first\",\"lastName\":\"last\"}",
+        new ObjectMapper().writeValueAsString(lazy)
+    );
+  }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class Log2HistogramTest {
+
+  @Test
+  public void buckets() {
+    for (long value = 0; value < 1_000_000; value += 7) {
+      int bucket = Log2Histogram.bucket(value);
+      assertTrue(Log2Histogram.upperBound(bucket) >= value, "upper bound of " + value);
+      assertTrue(bucket == 0 || Log2Histogram.upperBound(bucket - 1) < value, "lower bound of " + value);
+    }
+    assertEquals(Log2Histogram.BUCKETS - 1, Log2Histogram.bucket(Long.MAX_VALUE));
+    assertEquals(Log2Histogram.MAX_VALUE, Log2Histogram.upperBound(Log2Histogram.BUCKETS - 1));
+  }
+
+  @Test
+  public void percentiles() {
+    Log2Histogram histogram = new Log2Histogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i);
+    }
+    assertEquals(1000, histogram.count());
+    assertEquals(1000, histogram.max());
+    assertEquals(500.5D, histogram.mean());
+    long p50 = histogram.percentile(50D);
+    assertTrue(p50 >= 500 && p50 <= 500 * 1.125, "p50 " + p50);
+    long p99 = histogram.percentile(99D);
+    assertTrue(p99 >= 990 && p99 <= 1000, "p99 " + p99);
+    assertEquals(1000, histogram.percentile(100D));
+  }
+
+  @Test
+  public void empty() {
+    assertEquals(0, new Log2Histogram().percentile(99D));
+  }
+}
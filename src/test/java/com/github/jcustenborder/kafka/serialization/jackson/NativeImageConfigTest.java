@@ -0,0 +1,121 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NativeImageConfigTest {
+  static final String LIBRARY_CONFIG = "/META-INF/native-image/com.github.jcustenborder.kafka/kafka-jackson/reflect-config.json";
+  static final String CODEC_CONFIG = "/META-INF/native-image/com.github.jcustenborder.kafka.serialization.jackson/jackson-codecs/reflect-config.json";
+
+  static Set<String> names(JsonNode reflectConfig) {
+    final Set<String> result = new LinkedHashSet<>();
+    for (JsonNode entry : reflectConfig) {
+      result.add(entry.get("name").asText());
+    }
+    return result;
+  }
+
+  static JsonNode resource(String name) throws IOException {
+    try (InputStream inputStream = NativeImageConfigTest.class.getResourceAsStream(name)) {
+      assertNotNull(inputStream, name + " was not found");
+      return new ObjectMapper().readTree(inputStream);
+    }
+  }
+
+  @Test
+  public void libraryConfig() throws Exception {
+    final Set<String> names = names(resource(LIBRARY_CONFIG));
+    assertTrue(names.contains(JacksonSerializer.class.getName()));
+    assertTrue(names.contains(JacksonDeserializer.class.getName()));
+    assertTrue(names.contains(JacksonSerde.class.getName()));
+    for (String name : names) {
+      final Class<?> cls = Class.forName(name);
+      assertTrue(Modifier.isPublic(cls.getConstructor().getModifiers()), name);
+    }
+  }
+
+  @Test
+  public void codecConfig() throws Exception {
+    final Set<String> names = names(resource(CODEC_CONFIG));
+    assertTrue(names.contains(CodecPojo.class.getName()));
+    assertTrue(names.contains(CodecPojo.Strict.class.getName()));
+    assertTrue(names.contains(CodecPojo_JacksonCodec.Serializer.class.getName()));
+    assertTrue(names.contains(CodecPojo_JacksonCodec.Deserializer.class.getName()));
+    for (String name : names) {
+      Class.forName(name);
+    }
+  }
+
+  @Test
+  public void configuredClasses() {
+    final Set<Class<?>> classes = NativeImageConfig.configuredClasses(
+        ImmutableMap.of(
+            JacksonDeserializerConfig.OUTPUT_CLASS_CONFIG, CodecPojo.class.getName(),
+            JacksonDeserializerConfig.TOPIC_TYPE_MAPPING_CONFIG, "orders:" + CodecPojo.Strict.class.getName()
+        )
+    );
+    assertTrue(classes.contains(CodecPojo.class));
+    assertTrue(classes.contains(CodecPojo.Strict.class));
+    assertTrue(classes.contains(TestPojo.class), "Property types should be walked");
+    assertFalse(classes.contains(String.class));
+  }
+
+  @Test
+  public void reflectConfig() throws Exception {
+    final Path settings = Files.createTempFile("native", ".properties");
+    final Path output = Files.createTempFile("reflect-config", ".json");
+    try {
+      Files.write(
+          settings,
+          ("output.class=" + CodecPojo.class.getName() + "\n").getBytes(StandardCharsets.UTF_8)
+      );
+      NativeImageConfig.main(settings.toString(), output.toString());
+      final JsonNode reflectConfig = new ObjectMapper().readTree(output.toFile());
+      final Set<String> names = names(reflectConfig);
+      assertTrue(names.contains(CodecPojo.class.getName()));
+      assertTrue(names.contains(TestPojo.class.getName()));
+      assertTrue(names.contains(CodecPojo_JacksonCodec.Serializer.class.getName()));
+      assertTrue(names.contains(CodecPojo_JacksonCodec.Deserializer.class.getName()));
+      assertEquals(4, names.size());
+    } finally {
+      Files.deleteIfExists(settings);
+      Files.deleteIfExists(output);
+    }
+  }
+
+  @Test
+  public void roundTrip() throws Exception {
+    NativeRoundTrip.run();
+  }
+}
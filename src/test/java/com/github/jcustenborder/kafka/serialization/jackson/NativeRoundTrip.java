@@ -0,0 +1,87 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import org.apache.kafka.common.serialization.Serde;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Round trips records through {@link JacksonSerde}. Built into a native image by the {@code native}
+ * profile and run as a plain test on the JVM by {@link NativeImageConfigTest}.
+ */
+public class NativeRoundTrip {
+  static final String SETTINGS = "/native-roundtrip.properties";
+
+  static Map<String, Object> settings() throws IOException {
+    final Properties properties = new Properties();
+    try (InputStream inputStream = NativeRoundTrip.class.getResourceAsStream(SETTINGS)) {
+      properties.load(inputStream);
+    }
+    final Map<String, Object> result = new HashMap<>();
+    for (String name : properties.stringPropertyNames()) {
+      result.put(name, properties.getProperty(name));
+    }
+    return result;
+  }
+
+  static void check(boolean condition, String message) {
+    if (!condition) {
+      throw new IllegalStateException(message);
+    }
+  }
+
+  static void run() throws IOException {
+    final Map<String, Object> settings = settings();
+
+    try (Serde<TestPojo> serde = new JacksonSerde<>()) {
+      serde.configure(settings, false);
+      final TestPojo expected = new TestPojo();
+      expected.firstName = "first";
+      expected.lastName = "last";
+      final TestPojo actual = serde.deserializer().deserialize("topic", serde.serializer().serialize("topic", expected));
+      check(Objects.equals(expected.firstName, actual.firstName), "firstName does not match");
+      check(Objects.equals(expected.lastName, actual.lastName), "lastName does not match");
+    }
+
+    try (Serde<CodecPojo> serde = JacksonSerde.of(CodecPojo.class)) {
+      serde.configure(settings, false);
+      final CodecPojo expected = new CodecPojo();
+      expected.id = 12;
+      expected.name = "name";
+      expected.emailAddress = "user@example.com";
+      expected.owner = new TestPojo();
+      expected.owner.firstName = "first";
+      final CodecPojo actual = serde.deserializer().deserialize("topic", serde.serializer().serialize("topic", expected));
+      check(GeneratedCodecs.hasCodec(CodecPojo.class), "Generated codec for CodecPojo was not found");
+      check(expected.id == actual.id, "id does not match");
+      check(Objects.equals(expected.name, actual.name), "name does not match");
+      check(Objects.equals(expected.emailAddress, actual.emailAddress), "emailAddress does not match");
+      check(Objects.equals(expected.owner.firstName, actual.owner.firstName), "owner does not match");
+    }
+  }
+
+  public static void main(String... args) throws IOException {
+    final long start = System.nanoTime();
+    run();
+    System.out.printf("Round trip completed in %d ms%n", (System.nanoTime() - start) / 1000000L);
+  }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ObjectMapperRegistryTest {
+
+  @Test
+  public void shared() {
+    final int before = ObjectMapperRegistry.liveMappers();
+    Map<String, Object> settings = ImmutableMap.of(
+        JacksonSerializerConfig.INDENT_OUTPUT_CONFIG, "true"
+    );
+    JacksonSerializer<Object> first = new JacksonSerializer<>();
+    first.configure(settings, false);
+    JacksonSerializer<Object> second = new JacksonSerializer<>();
+    second.configure(
+        ImmutableMap.of(
+            JacksonSerializerConfig.INDENT_OUTPUT_CONFIG, "true",
+            JacksonSerializerConfig.BUFFER_RECYCLING_ENABLE_CONFIG, "true"
+        ),
+        false
+    );
+    assertSame(first.objectMapper(), second.objectMapper());
+    assertEquals(2, ObjectMapperRegistry.references(first.objectMapper()));
+    assertEquals(before + 1, ObjectMapperRegistry.liveMappers());
+
+    first.close();
+    assertEquals(before + 1, ObjectMapperRegistry.liveMappers());
+    second.close();
+    assertEquals(before, ObjectMapperRegistry.liveMappers());
+  }
+
+  @Test
+  public void distinct() {
+    final int before = ObjectMapperRegistry.liveMappers();
+    JacksonDeserializer<Object> first = new JacksonDeserializer<>();
+    first.configure(ImmutableMap.of(JacksonDeserializerConfig.OUTPUT_CLASS_CONFIG, TestPojo.class.getName()), false);
+    JacksonDeserializer<Object> second = new JacksonDeserializer<>();
+    second.configure(
+        ImmutableMap.of(
+            JacksonDeserializerConfig.OUTPUT_CLASS_CONFIG, TestPojo.class.getName(),
+            JacksonDeserializerConfig.FAIL_ON_UNKNOWN_PROPERTIES_CONFIG, "false"
+        ),
+        false
+    );
+    assertNotSame(first.objectMapper(), second.objectMapper());
+    assertEquals(before + 2, ObjectMapperRegistry.liveMappers());
+    first.close();
+    second.close();
+    assertEquals(before, ObjectMapperRegistry.liveMappers());
+  }
+
+  @Test
+  public void reconfigure() {
+    final int before = ObjectMapperRegistry.liveMappers();
+    JacksonSerializer<Object> serializer = new JacksonSerializer<>();
+    serializer.configure(ImmutableMap.of(), false);
+    serializer.configure(ImmutableMap.of(JacksonSerializerConfig.INDENT_OUTPUT_CONFIG, "true"), false);
+    assertEquals(before + 1, ObjectMapperRegistry.liveMappers());
+    serializer.close();
+    serializer.close();
+    assertEquals(before, ObjectMapperRegistry.liveMappers());
+  }
+
+  @Test
+  public void unconfigured() {
+    final int before = ObjectMapperRegistry.liveMappers();
+    JacksonSerializer<TestPojo> serializer = new JacksonSerializer<>();
+    JacksonDeserializer<TestPojo> deserializer = new JacksonDeserializer<>(TestPojo.class);
+    assertNull(serializer.objectMapper());
+    assertNull(deserializer.objectMapper());
+    TestPojo pojo = new TestPojo();
+    pojo.firstName = "first";
+    assertEquals("first", deserializer.deserialize("topic", serializer.serialize("topic", pojo)).firstName);
+    assertEquals(before, ObjectMapperRegistry.liveMappers());
+    serializer.close();
+    deserializer.close();
+  }
+}
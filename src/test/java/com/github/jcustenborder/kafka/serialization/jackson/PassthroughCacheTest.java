@@ -0,0 +1,217 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class PassthroughCacheTest {
+  static final byte[] BYTES = "{}".getBytes(StandardCharsets.UTF_8);
+  static final byte[] INPUT = "{\"id\" : \"1\", \"name\" : \"first\"}".getBytes(StandardCharsets.UTF_8);
+
+  @Immutable
+  public static class ImmutablePojo {
+    public String id;
+    public String name;
+  }
+
+  public static class MutablePojo {
+    public String id;
+    public String name;
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof MutablePojo && Objects.equals(this.id, ((MutablePojo) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(this.id);
+    }
+  }
+
+  @Test
+  public void capacity() {
+    assertEquals(1, new PassthroughCache(1, 1024).capacity());
+    assertEquals(1024, new PassthroughCache(1000, 1024).capacity());
+    assertEquals(1024, new PassthroughCache(1024, 1024).capacity());
+  }
+
+  @Test
+  public void get() {
+    PassthroughCache cache = new PassthroughCache(16, 1024);
+    Map<String, String> value = new HashMap<>();
+    value.put("key", "value");
+    cache.put(value, BYTES, "JSON");
+    assertSame(BYTES, cache.get(value, "JSON"));
+    assertNull(cache.get(value, "Smile"));
+    assertNull(cache.get(new HashMap<>(value), "JSON"));
+  }
+
+  @Test
+  public void maxBytes() {
+    PassthroughCache cache = new PassthroughCache(16, 3);
+    Object first = new Object();
+    Object second = new Object();
+    while (cache.index(first) == cache.index(second)) {
+      second = new Object();
+    }
+    cache.put(first, BYTES, "JSON");
+    cache.put(second, BYTES, "JSON");
+    assertSame(BYTES, cache.get(first, "JSON"));
+    assertNull(cache.get(second, "JSON"), "second value would take the cache over passthrough.max.bytes.");
+    assertEquals(2, cache.bytes());
+    cache.put(second, new byte[4], "JSON");
+    assertEquals(2, cache.bytes());
+  }
+
+  @Test
+  public void collected() throws InterruptedException {
+    PassthroughCache cache = new PassthroughCache(1024, 100);
+    List<Object> values = new ArrayList<>();
+    while (cache.bytes() < 100) {
+      Object value = new Object();
+      values.add(value);
+      cache.put(value, new byte[10], "JSON");
+    }
+    Object larger = new Object();
+    cache.put(larger, new byte[50], "JSON");
+    assertNull(cache.get(larger, "JSON"), "cache is full.");
+
+    values.clear();
+    for (int i = 0; i < 100 && cache.bytes() > 0; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertEquals(0, cache.bytes(), "bytes of collected values should be given back.");
+    byte[] bytes = new byte[50];
+    cache.put(larger, bytes, "JSON");
+    assertSame(bytes, cache.get(larger, "JSON"));
+    assertEquals(50, cache.bytes());
+  }
+
+  @Test
+  public void acquireRelease() {
+    final int before = PassthroughCache.liveCaches();
+    PassthroughCache first = PassthroughCache.acquire(7, 1024);
+    PassthroughCache second = PassthroughCache.acquire(7, 1024);
+    PassthroughCache other = PassthroughCache.acquire(7, 2048);
+    assertSame(first, second);
+    assertNotSame(first, other);
+    assertEquals(before + 2, PassthroughCache.liveCaches());
+    PassthroughCache.release(other);
+    PassthroughCache.release(first);
+    assertEquals(before + 1, PassthroughCache.liveCaches());
+    PassthroughCache.release(second);
+    PassthroughCache.release(second);
+    assertEquals(before, PassthroughCache.liveCaches());
+  }
+
+  <T> void roundTrip(Class<T> cls, Map<String, Object> deserializerSettings, Check<T> check) {
+    JacksonDeserializer<T> deserializer = new JacksonDeserializer<>(cls);
+    deserializer.configure(deserializerSettings, false);
+    JacksonSerializer<T> serializer = new JacksonSerializer<>();
+    serializer.configure(ImmutableMap.of(JacksonSerializerConfig.PASSTHROUGH_ENABLE_CONFIG, "true"), false);
+    try {
+      T value = deserializer.deserialize("input", INPUT);
+      check.check(value, serializer.serialize("output", value));
+    } finally {
+      serializer.close();
+      deserializer.close();
+    }
+  }
+
+  interface Check<T> {
+    void check(T value, byte[] output);
+  }
+
+  @Test
+  public void immutable() {
+    roundTrip(
+        ImmutablePojo.class,
+        ImmutableMap.of(JacksonDeserializerConfig.PASSTHROUGH_ENABLE_CONFIG, "true"),
+        (value, output) -> assertSame(INPUT, output)
+    );
+  }
+
+  @Test
+  public void mutable() {
+    JacksonDeserializer<MutablePojo> deserializer = new JacksonDeserializer<>(MutablePojo.class);
+    deserializer.configure(ImmutableMap.of(JacksonDeserializerConfig.PASSTHROUGH_ENABLE_CONFIG, "true"), false);
+    JacksonSerializer<MutablePojo> serializer = new JacksonSerializer<>();
+    serializer.configure(ImmutableMap.of(JacksonSerializerConfig.PASSTHROUGH_ENABLE_CONFIG, "true"), false);
+    MutablePojo value = deserializer.deserialize("input", INPUT);
+    value.name = "changed";
+    assertEquals(
+        "{\"id\":\"1\",\"name\":\"changed\"}",
+        new String(serializer.serialize("output", value), StandardCharsets.UTF_8),
+        "MutablePojo is neither annotated nor listed so it must be encoded even though hashCode() is unchanged."
+    );
+    serializer.close();
+    deserializer.close();
+  }
+
+  @Test
+  public void projection() {
+    roundTrip(
+        ImmutablePojo.class,
+        ImmutableMap.of(
+            JacksonDeserializerConfig.PASSTHROUGH_ENABLE_CONFIG, "true",
+            JacksonDeserializerConfig.PROJECTION_PATHS_CONFIG, "/id"
+        ),
+        (value, output) -> assertEquals("{\"id\":\"1\",\"name\":null}", new String(output, StandardCharsets.UTF_8))
+    );
+  }
+
+  @Test
+  public void serde() {
+    Map<String, Object> settings = ImmutableMap.of(
+        JacksonDeserializerConfig.PASSTHROUGH_ENABLE_CONFIG, "true",
+        JacksonDeserializerConfig.PASSTHROUGH_CLASSES_CONFIG, JsonNode.class.getName()
+    );
+    JacksonDeserializer<JsonNode> deserializer = new JacksonDeserializer<>();
+    deserializer.configure(settings, false);
+    JacksonSerializer<JsonNode> serializer = new JacksonSerializer<>();
+    serializer.configure(ImmutableMap.of(JacksonSerializerConfig.PASSTHROUGH_ENABLE_CONFIG, "true"), false);
+
+    byte[] input = "{\"first\" : \"value\"}".getBytes(StandardCharsets.UTF_8);
+    JsonNode node = deserializer.deserialize("input", input);
+    assertSame(input, serializer.serialize("output", node));
+
+    ObjectNode other = (ObjectNode) deserializer.deserialize("input", input);
+    ObjectNode copy = other.deepCopy();
+    copy.put("second", "value");
+    byte[] output = serializer.serialize("output", copy);
+    assertNotSame(input, output);
+    assertEquals("{\"first\":\"value\",\"second\":\"value\"}", new String(output, StandardCharsets.UTF_8));
+    serializer.close();
+    deserializer.close();
+  }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PayloadSizeTrackerTest {
+
+  @Test
+  public void sizeClass() {
+    PayloadSizeTracker tracker = new PayloadSizeTracker();
+    assertEquals(PayloadSizeTracker.MINIMUM_SIZE, tracker.sizeClass());
+    tracker.record(1000);
+    assertEquals(1024, tracker.sizeClass());
+    tracker.record(5000);
+    assertEquals(8192, tracker.sizeClass());
+  }
+
+  @Test
+  public void decay() {
+    PayloadSizeTracker tracker = new PayloadSizeTracker();
+    tracker.record(100000);
+    assertEquals(131072, tracker.sizeClass());
+    for (int i = 0; i < 500; i++) {
+      tracker.record(100);
+    }
+    assertEquals(PayloadSizeTracker.MINIMUM_SIZE, tracker.sizeClass());
+  }
+
+  @Test
+  public void percentileHoldsRecurringLargeRecords() {
+    PayloadSizeTracker tracker = new PayloadSizeTracker();
+    for (int i = 0; i < PayloadSizeTracker.REFRESH_INTERVAL * 2; i++) {
+      tracker.record(i % 20 == 0 ? 100000 : 100);
+    }
+    for (int i = 0; i < 500; i++) {
+      tracker.record(100);
+    }
+    assertEquals(131072, tracker.sizeClass());
+    assertEquals(PayloadSizeTracker.REFRESH_INTERVAL * 2 + 500, tracker.histogram().count());
+  }
+}
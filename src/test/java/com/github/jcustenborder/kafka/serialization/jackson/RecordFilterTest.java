@@ -0,0 +1,166 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.kafka.common.config.ConfigException;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+public class RecordFilterTest {
+  static final String JSON = "{\"status\":\"ACTIVE\",\"amount\":150,\"price\":9.99,\"paid\":true,\"note\":null," +
+      "\"customer\":{\"id\":\"c-1\",\"tags\":[\"a\",\"b\"]},\"items\":[{\"sku\":\"x\"},{\"sku\":\"y\"}]}";
+  static final JsonFactory FACTORY = new JsonFactory();
+
+  static boolean matches(String... conditions) throws IOException {
+    RecordFilter filter = RecordFilter.parse("filter.conditions", Arrays.asList(conditions));
+    return filter.matches(FACTORY.createParser(JSON.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @TestFactory
+  public Stream<DynamicTest> conditions() {
+    Map<String, Boolean> tests = ImmutableMap.<String, Boolean>builder()
+        .put("/status == \"ACTIVE\"", true)
+        .put("/status != \"ACTIVE\"", false)
+        .put("/status == \"INACTIVE\"", false)
+        .put("/status > \"A\"", true)
+        .put("/amount == 150", true)
+        .put("/amount >= 150", true)
+        .put("/amount > 150", false)
+        .put("/amount < 200.5", true)
+        .put("/amount == \"150\"", false)
+        .put("/amount != \"150\"", true)
+        .put("/price <= 9.99", true)
+        .put("/price > 10", false)
+        .put("/paid == true", true)
+        .put("/paid != true", false)
+        .put("/note == null", true)
+        .put("/note != null", false)
+        .put("/status == null", false)
+        .put("/status != null", true)
+        .put("/customer/id == \"c-1\"", true)
+        .put("/customer/tags/1 == \"b\"", true)
+        .put("/items/1/sku == \"y\"", true)
+        .put("/missing == 1", false)
+        .put("/missing != 1", false)
+        .put("/customer == \"c-1\"", false)
+        .build();
+    return tests.entrySet().stream().map(e -> dynamicTest(e.getKey(), () -> {
+      assertEquals(e.getValue(), matches(e.getKey()));
+    }));
+  }
+
+  @Test
+  public void allConditionsMustMatch() throws IOException {
+    assertEquals(true, matches("/status == \"ACTIVE\"", "/amount > 100"));
+    assertEquals(false, matches("/status == \"ACTIVE\"", "/amount > 200"));
+  }
+
+  @Test
+  public void range() throws IOException {
+    assertEquals(true, matches("/amount >= 100", "/amount < 200"));
+    assertEquals(false, matches("/amount >= 100", "/amount < 150"));
+    assertEquals(false, matches("/amount > 150", "/amount < 200"));
+    assertEquals(true, matches("/customer/id >= \"c\"", "/customer/id < \"d\"", "/items/0/sku == \"x\""));
+  }
+
+  @TestFactory
+  public Stream<DynamicTest> invalid() {
+    return Stream.of(
+        "/status",
+        "/status ==",
+        "status == 1",
+        "/status ~= 1",
+        "/status == ACTIVE",
+        "/status == [1]",
+        " == 1"
+    ).map(condition -> dynamicTest(condition, () -> {
+      assertThrows(ConfigException.class, () -> RecordFilter.parse("filter.conditions", ImmutableList.of(condition)));
+    }));
+  }
+
+  @Test
+  public void split() {
+    assertEquals(
+        ImmutableList.of("/status == \"ACTIVE, PENDING\"", "/amount >= 100", "/a,b == true"),
+        RecordFilter.split("filter.conditions", " /status == \"ACTIVE, PENDING\",/amount >= 100 , /a,b == true ")
+    );
+    assertEquals(ImmutableList.of("/note == null"), RecordFilter.split("filter.conditions", "/note == null"));
+    assertEquals(ImmutableList.of(), RecordFilter.split("filter.conditions", " "));
+    assertNull(RecordFilter.parse("filter.conditions", ""));
+  }
+
+  @TestFactory
+  public Stream<DynamicTest> invalidList() {
+    return Stream.of(
+        "/status",
+        "/status ==",
+        "/status == 1,",
+        "/status == 1 /amount == 2",
+        "/status == \"ACTIVE",
+        "/status == [1, 2]",
+        "/status == ACTIVE, PENDING"
+    ).map(conditions -> dynamicTest(conditions, () -> {
+      assertThrows(ConfigException.class, () -> RecordFilter.parse("filter.conditions", conditions));
+    }));
+  }
+
+  @Test
+  public void deserializer() {
+    JacksonDeserializer<TestPojo> deserializer = new JacksonDeserializer<>(TestPojo.class);
+    deserializer.configure(
+        ImmutableMap.of(JacksonDeserializerConfig.FILTER_CONDITIONS_CONFIG, "/firstName == \"keep\""),
+        false
+    );
+    TestPojo actual = deserializer.deserialize("topic", "{\"firstName\":\"keep\",\"lastName\":\"last\"}".getBytes(StandardCharsets.UTF_8));
+    assertNotNull(actual);
+    assertEquals("last", actual.lastName);
+    assertNull(deserializer.deserialize("topic", "{\"firstName\":\"drop\",\"lastName\":\"last\"}".getBytes(StandardCharsets.UTF_8)));
+    assertEquals(2, deserializer.filterEvaluatedCount());
+    assertEquals(1, deserializer.filterDroppedCount());
+    deserializer.close();
+  }
+
+  @Test
+  public void deserializerCommaInLiteral() {
+    JacksonDeserializer<TestPojo> deserializer = new JacksonDeserializer<>(TestPojo.class);
+    deserializer.configure(
+        ImmutableMap.of(
+            JacksonDeserializerConfig.FILTER_CONDITIONS_CONFIG,
+            "/firstName == \"Smith, John\", /lastName != null"
+        ),
+        false
+    );
+    assertNotNull(deserializer.deserialize("topic", "{\"firstName\":\"Smith, John\",\"lastName\":\"last\"}".getBytes(StandardCharsets.UTF_8)));
+    assertNull(deserializer.deserialize("topic", "{\"firstName\":\"Smith\",\"lastName\":\"last\"}".getBytes(StandardCharsets.UTF_8)));
+    deserializer.close();
+  }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.google.common.collect.ImmutableMap;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class SerdeEventsTest {
+  static final Map<String, String> SETTINGS = ImmutableMap.of(
+      JacksonSerializerConfig.JFR_ENABLE_CONFIG, "true",
+      JacksonSerializerConfig.JFR_DURATION_THRESHOLD_US_CONFIG, "1000000",
+      JacksonSerializerConfig.JFR_SIZE_THRESHOLD_BYTES_CONFIG, "100"
+  );
+
+  @Test
+  public void events() throws IOException, InterruptedException {
+    assumeTrue(SerdeEvents.AVAILABLE);
+    JacksonSerializer<Object> serializer = new JacksonSerializer<>();
+    serializer.configure(SETTINGS, false);
+    JacksonDeserializer<TestPojo> deserializer = new JacksonDeserializer<>(TestPojo.class);
+    deserializer.configure(SETTINGS, false);
+
+    StringBuilder large = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      large.append('x');
+    }
+    Path path = Files.createTempFile("events", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(JfrRecordEvent.NAME);
+      recording.enable(JfrSummaryEvent.NAME).withPeriod(Duration.ofMillis(100));
+      recording.start();
+      serializer.serialize("small", ImmutableMap.of("id", 1));
+      byte[] bytes = serializer.serialize("large", ImmutableMap.of("id", large.toString()));
+      deserializer.deserialize("large", String.format("{\"firstName\":\"%s\"}", large).getBytes(StandardCharsets.UTF_8));
+      Thread.sleep(500);
+      recording.stop();
+      recording.dump(path);
+      assertTrue(bytes.length > 100);
+    } finally {
+      serializer.close();
+      deserializer.close();
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(path);
+    Files.delete(path);
+    List<RecordedEvent> records = events.stream()
+        .filter(e -> JfrRecordEvent.NAME.equals(e.getEventType().getName()))
+        .collect(Collectors.toList());
+    assertEquals(2, records.size());
+    assertTrue(records.stream().allMatch(e -> "large".equals(e.getString("topic"))));
+    RecordedEvent deserialized = records.stream()
+        .filter(e -> "deserialize".equals(e.getString("operation")))
+        .findFirst()
+        .orElse(null);
+    assertNotNull(deserialized);
+    assertEquals(TestPojo.class.getName(), deserialized.getClass("targetType").getName());
+    assertFalse(deserialized.getDuration().isZero());
+    assertTrue(deserialized.getDuration().toNanos() >= deserialized.getLong("elapsed"));
+
+    List<RecordedEvent> summaries = events.stream()
+        .filter(e -> JfrSummaryEvent.NAME.equals(e.getEventType().getName()))
+        .filter(e -> "serialize".equals(e.getString("operation")))
+        .collect(Collectors.toList());
+    assertFalse(summaries.isEmpty());
+    assertEquals(2L, summaries.stream().mapToLong(e -> e.getLong("records")).sum());
+  }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.metrics.KafkaMetric;
+import org.apache.kafka.common.metrics.Metrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SerdeMetricsTest {
+  static final Map<String, String> SETTINGS = ImmutableMap.of(
+      JacksonSerializerConfig.METRICS_ENABLE_CONFIG, "true",
+      "client.id", "test"
+  );
+
+  Metrics metrics;
+
+  @BeforeEach
+  public void beforeEach() {
+    this.metrics = new Metrics();
+  }
+
+  @AfterEach
+  public void afterEach() {
+    this.metrics.close();
+  }
+
+  double value(String group, String name, String topic) {
+    MetricName metricName = this.metrics.metricName(
+        name,
+        group,
+        ImmutableMap.of("client-id", "test", "role", "value", "topic", topic)
+    );
+    KafkaMetric metric = this.metrics.metric(metricName);
+    return null == metric ? -1D : (double) metric.metricValue();
+  }
+
+  @Test
+  public void serializer() {
+    JacksonSerializer<Object> serializer = new JacksonSerializer<>();
+    serializer.metricsRegistry(this.metrics);
+    serializer.configure(SETTINGS, false);
+    byte[] first = serializer.serialize("orders", ImmutableMap.of("id", 1));
+    byte[] second = serializer.serialize("orders", ImmutableMap.of("id", 2));
+    serializer.serialize("customers", ImmutableMap.of("id", 3));
+    assertEquals(2D, value("jackson-serializer-metrics", "record-total", "orders"));
+    assertEquals(first.length + second.length, value("jackson-serializer-metrics", "bytes-total", "orders"));
+    assertEquals(1D, value("jackson-serializer-metrics", "record-total", "customers"));
+    assertTrue(value("jackson-serializer-metrics", "serialize-time-ns-p99", "orders") > 0D);
+    assertEquals(Math.max(first.length, second.length), value("jackson-serializer-metrics", "payload-size-max", "orders"));
+    PayloadSizeStatistics statistics = serializer.payloadSizeStatistics().get("orders");
+    assertEquals(2, statistics.count());
+    assertEquals(Math.max(first.length, second.length), statistics.max());
+    serializer.close();
+    assertEquals(-1D, value("jackson-serializer-metrics", "record-total", "orders"));
+  }
+
+  @Test
+  public void deserializer() {
+    JacksonDeserializer<TestPojo> deserializer = new JacksonDeserializer<>(TestPojo.class);
+    deserializer.metricsRegistry(this.metrics);
+    deserializer.configure(SETTINGS, false);
+    byte[] bytes = "{\"firstName\":\"first\"}".getBytes(StandardCharsets.UTF_8);
+    deserializer.deserialize("orders", bytes);
+    assertThrows(SerializationException.class, () -> deserializer.deserialize("orders", "{".getBytes(StandardCharsets.UTF_8)));
+    assertNull(deserializer.deserialize("orders", null));
+    assertEquals(1D, value("jackson-deserializer-metrics", "record-total", "orders"));
+    assertEquals(bytes.length, value("jackson-deserializer-metrics", "bytes-total", "orders"));
+    assertEquals(1D, value("jackson-deserializer-metrics", "error-total", "orders"));
+    deserializer.close();
+  }
+
+  @Test
+  public void rate() {
+    JacksonSerializer<Object> serializer = new JacksonSerializer<>();
+    serializer.metricsRegistry(this.metrics);
+    serializer.configure(SETTINGS, false);
+    for (int i = 0; i < 10; i++) {
+      serializer.serialize("orders", ImmutableMap.of("id", i));
+    }
+    double first = value("jackson-serializer-metrics", "record-rate", "orders");
+    assertTrue(first > 0D);
+    assertEquals(first, value("jackson-serializer-metrics", "record-rate", "orders"), first / 100D);
+    assertEquals(10D, value("jackson-serializer-metrics", "record-total", "orders"));
+    serializer.close();
+  }
+
+  int mbeans(String clientId) throws MalformedObjectNameException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    return server.queryNames(
+        new ObjectName(SerdeMetrics.JMX_PREFIX + ":type=jackson-serializer-metrics,client-id=" + clientId + ",*"),
+        null
+    ).size();
+  }
+
+  @Test
+  public void sharedClientId() throws MalformedObjectNameException {
+    Map<String, String> settings = ImmutableMap.of(
+        JacksonSerializerConfig.METRICS_ENABLE_CONFIG, "true",
+        "client.id", "shared"
+    );
+    JacksonSerializer<Object> first = new JacksonSerializer<>();
+    first.configure(settings, false);
+    JacksonSerializer<Object> second = new JacksonSerializer<>();
+    second.configure(settings, false);
+    assertSame(first.metrics().metrics(), second.metrics().metrics());
+    assertNull(first.metrics().tags().get("instance"));
+    assertEquals("2", second.metrics().tags().get("instance"));
+    first.serialize("orders", ImmutableMap.of("id", 1));
+    second.serialize("orders", ImmutableMap.of("id", 2));
+    assertEquals(2, mbeans("shared"));
+    first.close();
+    assertEquals(1, mbeans("shared"));
+    assertNotNull(second.metrics().metrics().metric(
+        second.metrics().metrics().metricName(
+            "record-total",
+            "jackson-serializer-metrics",
+            ImmutableMap.of("client-id", "shared", "role", "value", "instance", "2", "topic", "orders")
+        )
+    ));
+    second.close();
+    assertEquals(0, mbeans("shared"));
+  }
+
+  @Test
+  public void disabled() {
+    JacksonSerializer<Object> serializer = new JacksonSerializer<>();
+    serializer.configure(ImmutableMap.of(), false);
+    assertNull(serializer.metrics());
+    serializer.serialize("orders", ImmutableMap.of("id", 1));
+    assertTrue(serializer.payloadSizeStatistics().isEmpty());
+    serializer.close();
+  }
+}
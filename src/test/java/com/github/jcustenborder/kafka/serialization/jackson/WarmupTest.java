@@ -0,0 +1,121 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.kafka.common.config.ConfigException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WarmupTest {
+
+  public static class Order {
+    public String id;
+    public Customer customer;
+    public List<LineItem> items;
+    public Map<String, Address> addresses;
+    public Optional<Order> parent;
+  }
+
+  public static class Customer {
+    public String name;
+    public Address address;
+  }
+
+  public static class Address {
+    public String street;
+  }
+
+  public static class LineItem {
+    public String sku;
+    public int quantity;
+  }
+
+  @Test
+  public void typeGraph() {
+    ObjectMapper objectMapper = new ObjectMapper();
+    Set<JavaType> types = Warmup.typeGraph(objectMapper, ImmutableList.of(Order.class));
+    assertTrue(types.contains(objectMapper.constructType(Order.class)));
+    assertTrue(types.contains(objectMapper.constructType(Customer.class)));
+    assertTrue(types.contains(objectMapper.constructType(Address.class)));
+    assertTrue(types.contains(objectMapper.constructType(LineItem.class)));
+    assertFalse(types.contains(objectMapper.constructType(int.class)));
+  }
+
+  @Test
+  public void serializers() {
+    ObjectMapper objectMapper = new ObjectMapper();
+    DefaultSerializerProvider provider = (DefaultSerializerProvider) objectMapper.getSerializerProvider();
+    final int before = provider.cachedSerializersCount();
+    Warmup.serializers(objectMapper, ImmutableList.of(Order.class));
+    assertTrue(provider.cachedSerializersCount() >= before + 4, "Order, Customer, Address and LineItem should be cached.");
+  }
+
+  @Test
+  public void configure() {
+    JacksonDeserializer<Order> deserializer = new JacksonDeserializer<>();
+    deserializer.configure(
+        ImmutableMap.of(
+            JacksonDeserializerConfig.OUTPUT_CLASS_CONFIG, Order.class.getName(),
+            JacksonDeserializerConfig.WARMUP_CONFIG, WarmupMode.ROUNDTRIP.name(),
+            JacksonDeserializerConfig.WARMUP_ITERATIONS_CONFIG, "10"
+        ),
+        false
+    );
+    JacksonSerializer<Order> serializer = new JacksonSerializer<>();
+    serializer.configure(
+        ImmutableMap.of(
+            JacksonSerializerConfig.WARMUP_CONFIG, WarmupMode.CACHES.name(),
+            JacksonSerializerConfig.WARMUP_CLASSES_CONFIG, Order.class.getName()
+        ),
+        false
+    );
+
+    Order expected = new Order();
+    expected.id = "1234";
+    Order actual = deserializer.deserialize("topic", serializer.serialize("topic", expected));
+    assertNotNull(actual);
+    assertEquals(expected.id, actual.id);
+    serializer.close();
+    deserializer.close();
+  }
+
+  @Test
+  public void unknownClass() {
+    JacksonSerializer<Order> serializer = new JacksonSerializer<>();
+    assertThrows(ConfigException.class, () -> serializer.configure(
+        ImmutableMap.of(
+            JacksonSerializerConfig.WARMUP_CONFIG, WarmupMode.CACHES.name(),
+            JacksonSerializerConfig.WARMUP_CLASSES_CONFIG, "com.example.DoesNotExist"
+        ),
+        false
+    ));
+  }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson;
+
+import org.apache.kafka.common.metrics.MetricConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WindowedHistogramTest {
+  final MetricConfig config = new MetricConfig().samples(2).timeWindow(1000, TimeUnit.MILLISECONDS);
+
+  @Test
+  public void window() {
+    WindowedHistogram histogram = new WindowedHistogram(this.config, 0L);
+    histogram.record(1000L);
+    assertEquals(1L, histogram.snapshot(1500L).count());
+    histogram.record(10L);
+    assertEquals(2L, histogram.snapshot(1500L).count());
+    assertEquals(1000L, histogram.snapshot(1500L).max());
+    Log2Histogram snapshot = histogram.snapshot(2500L);
+    assertEquals(1L, snapshot.count());
+    assertEquals(10L, snapshot.max());
+    assertEquals(0L, histogram.snapshot(3500L).count());
+  }
+
+  @Test
+  public void rotate() {
+    WindowedHistogram histogram = new WindowedHistogram(this.config, 0L);
+    histogram.record(1000L);
+    histogram.snapshot(1000L);
+    histogram.record(20L);
+    histogram.snapshot(2000L);
+    histogram.record(30L);
+    Log2Histogram snapshot = histogram.snapshot(2000L);
+    assertEquals(2L, snapshot.count());
+    assertEquals(30L, snapshot.max());
+    assertTrue(snapshot.percentile(50D) < 30L);
+  }
+
+  @Test
+  public void unread() {
+    WindowedHistogram histogram = new WindowedHistogram(this.config, 0L);
+    histogram.record(1000L);
+    Log2Histogram snapshot = histogram.snapshot(60000L);
+    assertEquals(1L, snapshot.count());
+    assertEquals(0L, histogram.snapshot(62000L).count());
+  }
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.serialization.jackson.processor;
+
+import org.junit.jupiter.api.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JacksonCodecProcessorTest {
+
+  static List<String> errors(String className, String source) throws IOException {
+    return diagnostics(className, source, Diagnostic.Kind.ERROR);
+  }
+
+  static List<String> diagnostics(String className, String source, Diagnostic.Kind... kinds) throws IOException {
+    final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    final Path output = Files.createTempDirectory("codec");
+    final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    final JavaFileObject file = new SimpleJavaFileObject(
+        URI.create("string:///test/" + className + ".java"),
+        JavaFileObject.Kind.SOURCE
+    ) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return source;
+      }
+    };
+    final JavaCompiler.CompilationTask task = compiler.getTask(
+        null,
+        null,
+        diagnostics,
+        Arrays.asList(
+            "-Xlint:deprecation,unchecked,rawtypes,serial",
+            "-classpath", System.getProperty("java.class.path"),
+            "-d", output.toString(),
+            "-s", output.toString()
+        ),
+        null,
+        Collections.singletonList(file)
+    );
+    task.setProcessors(Collections.singletonList(new JacksonCodecProcessor()));
+    task.call();
+    return diagnostics.getDiagnostics().stream()
+        .filter(d -> Arrays.asList(kinds).contains(d.getKind()))
+        .map(d -> d.getMessage(null))
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void supported() throws IOException {
+    final List<String> errors = errors("Supported", "package test;\n" +
+        "import com.fasterxml.jackson.annotation.*;\n" +
+        "@com.github.jcustenborder.kafka.serialization.jackson.JacksonCodec\n" +
+        "public class Supported {\n" +
+        "  @JsonProperty(\"order_id\") private String id;\n" +
+        "  @JsonIgnore private String secret;\n" +
+        "  public String getSecret() { return secret; }\n" +
+        "  public void setSecret(String secret) { this.secret = secret; }\n" +
+        "}\n");
+    assertEquals(Collections.emptyList(), errors);
+  }
+
+  @Test
+  public void noWarnings() throws IOException {
+    final List<String> warnings = diagnostics("Warnings", "package test;\n" +
+        "import com.fasterxml.jackson.annotation.*;\n" +
+        "@com.github.jcustenborder.kafka.serialization.jackson.JacksonCodec\n" +
+        "public class Warnings {\n" +
+        "  public int id;\n" +
+        "  public String name;\n" +
+        "  public java.util.Map<String, java.util.List<Long>> values;\n" +
+        "  @JsonProperty(\"order_id\") private java.util.List<String> orders;\n" +
+        "  private final long region = 0;\n" +
+        "  public long getRegion() { return region; }\n" +
+        "  private void setCount(Integer count) { }\n" +
+        "}\n", Diagnostic.Kind.ERROR, Diagnostic.Kind.WARNING, Diagnostic.Kind.MANDATORY_WARNING);
+    assertEquals(Collections.emptyList(), warnings);
+  }
+
+  @Test
+  public void unsupportedAnnotation() throws IOException {
+    final List<String> errors = errors("Formatted", "package test;\n" +
+        "import com.fasterxml.jackson.annotation.*;\n" +
+        "@com.github.jcustenborder.kafka.serialization.jackson.JacksonCodec\n" +
+        "public class Formatted {\n" +
+        "  @JsonFormat(shape = JsonFormat.Shape.STRING) public long value;\n" +
+        "}\n");
+    assertEquals(1, errors.size(), errors.toString());
+    assertTrue(errors.get(0).contains("JsonFormat"), errors.toString());
+  }
+
+  @Test
+  public void unsupportedAccess() throws IOException {
+    final List<String> errors = errors("ReadOnly", "package test;\n" +
+        "import com.fasterxml.jackson.annotation.*;\n" +
+        "@com.github.jcustenborder.kafka.serialization.jackson.JacksonCodec\n" +
+        "public class ReadOnly {\n" +
+        "  @JsonProperty(access = JsonProperty.Access.READ_ONLY) public long value;\n" +
+        "}\n");
+    assertEquals(1, errors.size(), errors.toString());
+    assertTrue(errors.get(0).contains("READ_ONLY"), errors.toString());
+  }
+
+  @Test
+  public void getterAsSetter() throws IOException {
+    final List<String> errors = errors("Getter", "package test;\n" +
+        "@com.github.jcustenborder.kafka.serialization.jackson.JacksonCodec\n" +
+        "public class Getter {\n" +
+        "  private final java.util.List<String> values = new java.util.ArrayList<>();\n" +
+        "  public java.util.List<String> getValues() { return values; }\n" +
+        "}\n");
+    assertEquals(0, errors.size(), errors.toString());
+    final List<String> setterless = errors("Setterless", "package test;\n" +
+        "@com.github.jcustenborder.kafka.serialization.jackson.JacksonCodec\n" +
+        "public class Setterless {\n" +
+        "  public java.util.List<String> getValues() { return null; }\n" +
+        "}\n");
+    assertEquals(1, setterless.size(), setterless.toString());
+    assertTrue(setterless.get(0).contains("Add a setter"), setterless.toString());
+  }
+
+  @Test
+  public void conflictingNames() throws IOException {
+    final List<String> errors = errors("Conflict", "package test;\n" +
+        "import com.fasterxml.jackson.annotation.*;\n" +
+        "@com.github.jcustenborder.kafka.serialization.jackson.JacksonCodec\n" +
+        "public class Conflict {\n" +
+        "  @JsonProperty(\"a\") public String value;\n" +
+        "  @JsonProperty(\"b\") public String getValue() { return value; }\n" +
+        "}\n");
+    assertEquals(1, errors.size(), errors.toString());
+  }
+}